@@ -0,0 +1,107 @@
+package zoran.api;
+
+import zoran.config.Config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Level-gated logger for the API clients. Messages are given as suppliers and only built when their level is
+ * enabled, so a response body is never turned into a string on a quiet run. Enabled events go to
+ * {@link AsyncLogAppender}, which writes them on its own thread.
+ *
+ * <p>Levels come from config.properties or system properties: {@code api.log.level} for everything
+ * (default INFO) and {@code api.log.level.<logger or package>} to override it, e.g.
+ * {@code api.log.level.zoran.api.PetApiClient=DEBUG}. The most specific setting wins.</p>
+ */
+public final class ApiLogger {
+    public enum Level { TRACE, DEBUG, INFO, WARN, ERROR, OFF }
+
+    private static final Config CONFIG = new Config();
+    private static final Map<String, ApiLogger> LOGGERS = new ConcurrentHashMap<>();
+
+    private final String name;
+    private volatile Level level;
+
+    private ApiLogger(String name, Level level) {
+        this.name = name;
+        this.level = level;
+    }
+
+    public static ApiLogger getLogger(Class<?> type) {
+        return getLogger(type.getName());
+    }
+
+    public static ApiLogger getLogger(String name) {
+        return LOGGERS.computeIfAbsent(name, key -> new ApiLogger(key, configuredLevel(key)));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Changes this logger's level at runtime, e.g. to DEBUG while investigating one scenario
+     */
+    public void setLevel(Level level) {
+        this.level = level;
+    }
+
+    public boolean isEnabled(Level level) {
+        return level != Level.OFF && level.compareTo(this.level) >= 0;
+    }
+
+    public void trace(Supplier<String> message) {
+        log(Level.TRACE, message, null);
+    }
+
+    public void debug(Supplier<String> message) {
+        log(Level.DEBUG, message, null);
+    }
+
+    public void info(Supplier<String> message) {
+        log(Level.INFO, message, null);
+    }
+
+    public void warn(Supplier<String> message) {
+        log(Level.WARN, message, null);
+    }
+
+    public void warn(Supplier<String> message, Throwable error) {
+        log(Level.WARN, message, error);
+    }
+
+    public void error(Supplier<String> message, Throwable error) {
+        log(Level.ERROR, message, error);
+    }
+
+    /**
+     * Builds and hands off the message when the level is enabled; does nothing otherwise
+     */
+    public void log(Level level, Supplier<String> message, Throwable error) {
+        if (isEnabled(level)) {
+            AsyncLogAppender.shared().append(new AsyncLogAppender.Event(System.currentTimeMillis(), level, name,
+                    Thread.currentThread().getName(), message.get(), error));
+        }
+    }
+
+    private static Level configuredLevel(String name) {
+        for (String scope = name; !scope.isEmpty(); scope = parent(scope)) {
+            String value = CONFIG.get("api.log.level." + scope, null);
+            if (value != null && !value.isBlank()) {
+                return Level.valueOf(value.trim().toUpperCase());
+            }
+        }
+        return Level.valueOf(CONFIG.get("api.log.level", "INFO").trim().toUpperCase());
+    }
+
+    private static String parent(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(0, dot);
+    }
+}
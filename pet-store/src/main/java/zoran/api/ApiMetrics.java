@@ -0,0 +1,260 @@
+package zoran.api;
+
+import io.restassured.response.Response;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import zoran.config.Config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JVM-wide latency histograms and counters for every call the API clients send, per method and path
+ * template, so {@code GET /pet/1} and {@code GET /pet/2} count towards {@code GET /pet/{petId}}.
+ *
+ * <p>Recording is lock-free: latencies go into an HdrHistogram {@link Recorder} and counts into
+ * {@link LongAdder}s, so parallel scenarios do not contend. Where the transport measured them, the
+ * {@link PhaseTimings} of each exchange are aggregated per endpoint as well.</p>
+ *
+ * <p>Recording is on by default; turn it off with {@code api.metrics.enabled=false}.</p>
+ *
+ * <p>Each call also gets a corrected latency, measured from when it was due rather than when it was sent.
+ * The two are the same unless a load generator marks when the next call was due with
+ * {@link #setIntendedStart}. The corrected latency then includes any time the call spent waiting to be sent,
+ * which a closed loop leaves out (coordinated omission).</p>
+ */
+public final class ApiMetrics {
+    private static final ApiMetrics GLOBAL = new ApiMetrics(new Config().getBoolean("api.metrics.enabled", true));
+    private static final int SIGNIFICANT_DIGITS = 3;
+    /** When the next call on the thread was due; taken by that call */
+    private static final ThreadLocal<Long> INTENDED_START = new ThreadLocal<>();
+
+    private final boolean enabled;
+    /** Method, then path template; two lookups without building a key string per call */
+    private final Map<String, Map<String, EndpointMetrics>> endpoints = new ConcurrentHashMap<>();
+
+    private ApiMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static ApiMetrics global() {
+        return GLOBAL;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Marks when the next call made on this thread was due to be sent, as a {@link System#nanoTime()} value.
+     * That call's corrected latency is measured from it; later calls are measured from when they are sent.
+     * Only calls that complete on the thread that made them see the mark, so it does not apply to async calls.
+     */
+    public static void setIntendedStart(long nanoTime) {
+        INTENDED_START.set(nanoTime);
+    }
+
+    /**
+     * Drops the mark when no call took it, e.g. because the work failed before making one
+     */
+    public static void clearIntendedStart() {
+        INTENDED_START.remove();
+    }
+
+    void record(ApiRequest request, Response response, long bytesOut, long startNanos) {
+        if (enabled) {
+            EndpointMetrics metrics = metrics(request);
+            metrics.recordLatency(startNanos);
+            metrics.recordStatus(response.getStatusCode());
+            metrics.bytesOut.add(bytesOut);
+            metrics.bytesIn.add(response.asByteArray().length);
+        }
+    }
+
+    /**
+     * Adds the phase timings of one exchange to its endpoint. Transports report them as each exchange
+     * completes, so every attempt of a retried call is counted.
+     */
+    void recordPhases(ApiRequest request, PhaseTimings timings) {
+        if (enabled) {
+            metrics(request).recordPhases(timings);
+        }
+    }
+
+    void recordStreaming(ApiRequest request, int statusCode, long startNanos) {
+        if (enabled) {
+            EndpointMetrics metrics = metrics(request);
+            metrics.recordLatency(startNanos);
+            metrics.recordStatus(statusCode);
+        }
+    }
+
+    void recordFailure(ApiRequest request, long bytesOut, long startNanos) {
+        if (enabled) {
+            EndpointMetrics metrics = metrics(request);
+            metrics.recordLatency(startNanos);
+            metrics.failures.increment();
+            metrics.bytesOut.add(bytesOut);
+        }
+    }
+
+    /**
+     * @return Body bytes of a request as encoded for the wire; form and multipart bodies are counted
+     *         without their encoding overhead, and parts of unknown length not at all
+     */
+    static long bodyBytes(ApiRequest wire) {
+        if (wire.getBody() instanceof byte[] bytes) {
+            return bytes.length;
+        }
+        if (wire.getBody() instanceof String text) {
+            return text.getBytes(StandardCharsets.UTF_8).length;
+        }
+        long bytes = 0;
+        for (Map.Entry<String, String> param : wire.getFormParams().entrySet()) {
+            bytes += param.getKey().length() + param.getValue().length() + 2;
+        }
+        for (MultiPart part : wire.getMultiParts()) {
+            bytes += Math.max(0, part.length());
+        }
+        return bytes;
+    }
+
+    private EndpointMetrics metrics(ApiRequest request) {
+        Map<String, EndpointMetrics> templates = endpoints.get(request.getMethod());
+        if (templates == null) {
+            templates = endpoints.computeIfAbsent(request.getMethod(), method -> new ConcurrentHashMap<>());
+        }
+        EndpointMetrics metrics = templates.get(request.getPath());
+        return metrics != null ? metrics
+                : templates.computeIfAbsent(request.getPath(), template -> new EndpointMetrics(request.getMethod(), template));
+    }
+
+    /**
+     * @return Stats for every endpoint called since the last reset, ordered by template, then method
+     */
+    public List<EndpointStats> snapshot() {
+        List<EndpointStats> stats = new ArrayList<>();
+        endpoints.values().forEach(templates -> templates.values().forEach(metrics -> stats.add(metrics.snapshot())));
+        stats.sort(Comparator.comparing(EndpointStats::getTemplate).thenComparing(EndpointStats::getMethod));
+        return stats;
+    }
+
+    /**
+     * @param method HTTP method, e.g. GET
+     * @param template Path template, e.g. /pet/{petId}
+     * @return Stats for that endpoint, or null when it was not called since the last reset
+     */
+    public EndpointStats snapshot(String method, String template) {
+        Map<String, EndpointMetrics> templates = endpoints.get(method);
+        EndpointMetrics metrics = templates == null ? null : templates.get(template);
+        return metrics == null ? null : metrics.snapshot();
+    }
+
+    /**
+     * Starts counting from zero, e.g. between the warm-up and the measured part of a run. Calls that
+     * complete while the reset is in progress may be counted in either period.
+     */
+    public void reset() {
+        endpoints.clear();
+    }
+
+    /**
+     * @return One line per endpoint, for logs and reports
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        for (EndpointStats stats : snapshot()) {
+            report.append(stats).append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+
+    private static final class EndpointMetrics {
+        private final String method;
+        private final String template;
+        private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+        /** Everything taken out of the recorder so far; only touched under this object's lock */
+        private final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+        private Histogram interval;
+        private final Recorder correctedRecorder = new Recorder(SIGNIFICANT_DIGITS);
+        private final Histogram correctedTotal = new Histogram(SIGNIFICANT_DIGITS);
+        private Histogram correctedInterval;
+        private final Map<PhaseTimings.Phase, Recorder> phaseRecorders = new EnumMap<>(PhaseTimings.Phase.class);
+        private final Map<PhaseTimings.Phase, Histogram> phaseTotals = new EnumMap<>(PhaseTimings.Phase.class);
+
+        private final LongAdder status2xx = new LongAdder();
+        private final LongAdder status3xx = new LongAdder();
+        private final LongAdder status4xx = new LongAdder();
+        private final LongAdder status5xx = new LongAdder();
+        private final LongAdder otherStatus = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder bytesIn = new LongAdder();
+        private final LongAdder bytesOut = new LongAdder();
+
+        EndpointMetrics(String method, String template) {
+            this.method = method;
+            this.template = template;
+            for (PhaseTimings.Phase phase : PhaseTimings.Phase.values()) {
+                phaseRecorders.put(phase, new Recorder(SIGNIFICANT_DIGITS));
+                phaseTotals.put(phase, new Histogram(SIGNIFICANT_DIGITS));
+            }
+        }
+
+        void recordLatency(long startNanos) {
+            long end = System.nanoTime();
+            Long intended = INTENDED_START.get();
+            long correctedStart = startNanos;
+            if (intended != null) {
+                INTENDED_START.remove();
+                correctedStart = Math.min(intended, startNanos);
+            }
+            recorder.recordValue(Math.max(0, end - startNanos));
+            correctedRecorder.recordValue(Math.max(0, end - correctedStart));
+        }
+
+        void recordPhases(PhaseTimings timings) {
+            for (PhaseTimings.Phase phase : PhaseTimings.Phase.values()) {
+                long nanos = timings.nanos(phase);
+                if (nanos >= 0) {
+                    phaseRecorders.get(phase).recordValue(nanos);
+                }
+            }
+        }
+
+        void recordStatus(int statusCode) {
+            switch (statusCode / 100) {
+                case 2 -> status2xx.increment();
+                case 3 -> status3xx.increment();
+                case 4 -> status4xx.increment();
+                case 5 -> status5xx.increment();
+                default -> otherStatus.increment();
+            }
+        }
+
+        synchronized EndpointStats snapshot() {
+            interval = recorder.getIntervalHistogram(interval);
+            total.add(interval);
+            correctedInterval = correctedRecorder.getIntervalHistogram(correctedInterval);
+            correctedTotal.add(correctedInterval);
+            long s2 = status2xx.sum();
+            long s3 = status3xx.sum();
+            long s4 = status4xx.sum();
+            long s5 = status5xx.sum();
+            long failed = failures.sum();
+            Map<PhaseTimings.Phase, Histogram> phases = new EnumMap<>(PhaseTimings.Phase.class);
+            phaseRecorders.forEach((phase, phaseRecorder) -> {
+                Histogram phaseTotal = phaseTotals.get(phase);
+                phaseTotal.add(phaseRecorder.getIntervalHistogram());
+                phases.put(phase, phaseTotal.copy());
+            });
+            return new EndpointStats(method, template, s2 + s3 + s4 + s5 + otherStatus.sum() + failed,
+                    s2, s3, s4, s5, failed, bytesIn.sum(), bytesOut.sum(), total.copy(), correctedTotal.copy(), phases);
+        }
+    }
+}
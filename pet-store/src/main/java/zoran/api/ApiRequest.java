@@ -0,0 +1,110 @@
+package zoran.api;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Singular;
+import lombok.ToString;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transport-neutral description of a single API call
+ */
+@Value
+@Builder(toBuilder = true)
+public class ApiRequest {
+    /** HTTP method, e.g. GET or POST */
+    String method;
+
+    /** Path template relative to the base URL, e.g. /pet/{petId} */
+    String path;
+
+    /** Values for the placeholders in the path template, in order */
+    @Builder.Default
+    Object[] pathParams = new Object[0];
+
+    @Singular
+    Map<String, List<String>> queryParams;
+
+    @Singular
+    Map<String, String> headers;
+
+    /** Overrides the client's default JSON content type when set */
+    String contentType;
+
+    /** Request body, serialized as JSON unless it is already a String */
+    Object body;
+
+    @Singular
+    Map<String, String> formParams;
+
+    @Singular
+    List<MultiPart> multiParts;
+
+    /** The registered operation this request calls, or null for a route the registry does not know */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    Endpoint endpoint;
+
+    // Computed on first use and kept: the transport, response cache, single-flight and exchange
+    // recorder all ask for them on every call
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    String expandedPathValue = compiledTemplate().expand(pathParams);
+
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    String requestLineValue = buildRequestLine();
+
+    public static ApiRequest of(String method, String path, Object... pathParams) {
+        return builderFor(method, path, pathParams).build();
+    }
+
+    /**
+     * Requests for a registered route reuse the endpoint's compiled path template
+     */
+    public static ApiRequestBuilder builderFor(String method, String path, Object... pathParams) {
+        return builder()
+                .endpoint(Endpoints.find(method, path))
+                .method(method)
+                .path(path)
+                .pathParams(pathParams);
+    }
+
+    /**
+     * @return The path with every {placeholder} replaced by its URL-encoded value
+     */
+    public String expandedPath() {
+        return getExpandedPathValue();
+    }
+
+    /**
+     * @return Method, expanded path and query string, e.g. {@code GET /pet/findByStatus?status=available}
+     */
+    public String requestLine() {
+        return getRequestLineValue();
+    }
+
+    /**
+     * @return Whether the request can be sent again, i.e. it has no stream or channel parts
+     */
+    public boolean isRepeatable() {
+        return multiParts == null || multiParts.stream().noneMatch(MultiPart::isOneShot);
+    }
+
+    private PathTemplate compiledTemplate() {
+        // toBuilder() may have changed the path after the endpoint was set
+        return endpoint != null && endpoint.getPath().equals(path) ? endpoint.template() : PathTemplate.of(path);
+    }
+
+    private String buildRequestLine() {
+        String query = PathTemplates.query(queryParams);
+        return method + " " + expandedPath() + (query.isEmpty() ? "" : "?" + query);
+    }
+}
@@ -0,0 +1,31 @@
+package zoran.api;
+
+import io.restassured.response.Response;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends {@link ApiRequest}s to the Petstore and returns RestAssured responses,
+ * so the API clients work the same regardless of which HTTP stack is underneath.
+ */
+public interface ApiTransport {
+
+    /**
+     * Sends the request and blocks until the full response has been received
+     */
+    Response execute(ApiRequest request);
+
+    /**
+     * Sends the request without blocking the calling thread
+     */
+    CompletableFuture<Response> executeAsync(ApiRequest request);
+
+    /**
+     * Sends the request and returns once the status is known, leaving the body to be read from a stream.
+     * This default reads the full body first; transports that can stream override it.
+     */
+    default StreamingResponse executeStreaming(ApiRequest request) {
+        Response response = execute(request);
+        return new StreamingResponse(response.getStatusCode(), response.asInputStream());
+    }
+}
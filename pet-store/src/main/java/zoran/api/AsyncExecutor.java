@@ -0,0 +1,86 @@
+package zoran.api;
+
+import zoran.config.Config;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Runs API calls on virtual threads, one per call, while capping how many calls to the same
+ * operation may be in flight at once.
+ *
+ * <p>Limits are read per operation from {@code api.concurrency.<operation>} (e.g.
+ * {@code api.concurrency.addPet=32}) and fall back to {@code api.concurrency.default} (64).
+ * Calls over the limit wait on their own virtual thread, which costs almost nothing,
+ * so callers can submit tens of thousands of calls without overwhelming the server.</p>
+ */
+public final class AsyncExecutor {
+    private static final AsyncExecutor SHARED = new AsyncExecutor(new Config());
+
+    private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Semaphore> limits = new ConcurrentHashMap<>();
+    private final Config config;
+
+    AsyncExecutor(Config config) {
+        this.config = config;
+    }
+
+    /**
+     * @return The executor shared by all API clients, so limits apply JVM-wide
+     */
+    public static AsyncExecutor shared() {
+        return SHARED;
+    }
+
+    /**
+     * Runs the call on a new virtual thread once a permit for the operation is available
+     * @param operation Operation name used to look up the concurrency limit, e.g. getPetById
+     * @param call The blocking call to run
+     * @return Future completed with the call's result, or exceptionally with the exception it threw
+     */
+    public <T> CompletableFuture<T> submit(String operation, Supplier<T> call) {
+        Semaphore permits = limits.computeIfAbsent(operation, this::createLimit);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(new RuntimeException("Interrupted while waiting to call " + operation, e));
+            }
+            try {
+                return call.get();
+            } finally {
+                permits.release();
+            }
+        }, virtualThreads);
+    }
+
+    /**
+     * @return The concurrency limit in effect for the operation
+     */
+    public int limit(String operation) {
+        return configuredLimit(operation);
+    }
+
+    /**
+     * @return Number of calls to the operation currently holding a permit
+     */
+    public int inFlight(String operation) {
+        Semaphore permits = limits.get(operation);
+        return permits == null ? 0 : configuredLimit(operation) - permits.availablePermits();
+    }
+
+    private Semaphore createLimit(String operation) {
+        return new Semaphore(configuredLimit(operation));
+    }
+
+    private int configuredLimit(String operation) {
+        return config.getInt("api.concurrency." + operation, config.getInt("api.concurrency.default", 64));
+    }
+}
@@ -0,0 +1,127 @@
+package zoran.api;
+
+import lombok.Value;
+import zoran.config.Config;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes log events on a background thread so request threads never wait on the stdout lock.
+ *
+ * <p>Events go into a bounded ring buffer ({@code api.log.buffer.size}, default 8192). When the writer falls
+ * behind and the buffer is full, new events are dropped and counted rather than blocking the caller; the
+ * count is reported in the next line written. WARN and ERROR go to stderr, everything else to stdout.
+ * Pending events are flushed when the JVM exits.</p>
+ */
+public final class AsyncLogAppender {
+    private static final AsyncLogAppender SHARED = new AsyncLogAppender(new Config().getInt("api.log.buffer.size", 8_192));
+    private static final int BATCH_SIZE = 256;
+
+    private final BlockingQueue<Event> buffer;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private long reportedDropped;
+
+    AsyncLogAppender(int capacity) {
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::drainForever, "api-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "api-log-flush"));
+    }
+
+    public static AsyncLogAppender shared() {
+        return SHARED;
+    }
+
+    /**
+     * Queues an event without blocking; drops it when the buffer is full
+     */
+    void append(Event event) {
+        if (!buffer.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Writes everything queued so far on the calling thread
+     */
+    public synchronized void flush() {
+        List<Event> batch = new ArrayList<>(BATCH_SIZE);
+        while (buffer.drainTo(batch, BATCH_SIZE) > 0) {
+            write(batch);
+            batch.clear();
+        }
+        System.out.flush();
+        System.err.flush();
+    }
+
+    /**
+     * @return Events dropped because the buffer was full
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    private void drainForever() {
+        List<Event> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            try {
+                Event first = buffer.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                synchronized (this) {
+                    batch.add(first);
+                    buffer.drainTo(batch, BATCH_SIZE - 1);
+                    write(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void write(List<Event> batch) {
+        long total = dropped.sum();
+        long lost = total - reportedDropped;
+        reportedDropped = total;
+        if (lost > 0) {
+            System.err.println(Instant.now() + " WARN  [api-log-writer] " + getClass().getName()
+                    + " - Dropped " + lost + " log events, buffer full");
+        }
+        for (Event event : batch) {
+            PrintStream out = event.level.compareTo(ApiLogger.Level.WARN) >= 0 ? System.err : System.out;
+            out.println(event.format());
+            if (event.error != null) {
+                event.error.printStackTrace(out);
+            }
+        }
+    }
+
+    /**
+     * One log line: when, how severe, which logger and thread, and what happened
+     */
+    @Value
+    static class Event {
+        long timestampMillis;
+        ApiLogger.Level level;
+        String logger;
+        String thread;
+        String message;
+        Throwable error;
+
+        String format() {
+            return String.format("%s %-5s [%s] %s - %s", Instant.ofEpochMilli(timestampMillis), level, thread, logger, message);
+        }
+    }
+}
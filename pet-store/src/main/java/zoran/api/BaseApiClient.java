@@ -1,79 +1,416 @@
 package zoran.api;
 
-import io.restassured.RestAssured;
 import io.restassured.builder.RequestSpecBuilder;
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
+import zoran.config.ApiConfig;
+import zoran.config.Config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 public class BaseApiClient {
-    protected static final String BASE_URL = "https://petstore.swagger.io/v2";
+    protected static final Config CONFIG = new Config();
+    protected static final String BASE_URL = ApiConfig.BASE_URI;
+    protected static final String API_KEY = "special-key";
+    private static final RetryPolicy SINGLE_ATTEMPT = RetryPolicy.none();
+
     protected RequestSpecification requestSpec;
+    protected final ApiTransport transport;
+    private RetryPolicy retryPolicy = RetryPolicy.fromConfig(CONFIG);
+    private ResponseCache responseCache = CONFIG.getBoolean("api.cache.enabled", false) ? ResponseCache.shared() : null;
+    private boolean coalesceGets = CONFIG.getBoolean("api.singleflight.enabled", true);
+    private Compression compression = Compression.fromConfig(CONFIG);
 
     public BaseApiClient() {
+        this(BASE_URL);
+    }
+
+    /**
+     * @param baseUrl Where to send requests instead of the configured URL, e.g. a {@code PetStoreStub}'s
+     */
+    public BaseApiClient(String baseUrl) {
         this.requestSpec = new RequestSpecBuilder()
-                .setBaseUri(BASE_URL)
+                .setBaseUri(baseUrl)
                 .setContentType(ContentType.JSON)
                 .setAccept(ContentType.JSON)
-                .addHeader("api_key", "special-key") // Add API key for all requests
+                .addHeader("api_key", API_KEY) // Add API key for all requests
+                .setConfig(ConnectionPool.shared().restAssuredConfig() // Reuse pooled connections across clients
+                        .objectMapperConfig(Json.objectMapperConfig()))
                 .build();
+        this.transport = withCassette(createTransport(baseUrl));
     }
 
-    protected Response get(String path, Object... pathParams) {
+    /**
+     * Picks the transport named by the {@code api.transport} setting:
+     * {@code restassured} (default) or {@code httpclient} for the non-blocking java.net.http client
+     */
+    private ApiTransport createTransport(String baseUrl) {
+        String type = CONFIG.get("api.transport", "restassured");
+        switch (type.trim().toLowerCase()) {
+            case "restassured":
+                return new RestAssuredTransport(requestSpec);
+            case "httpclient":
+                return new HttpClientTransport(
+                        baseUrl,
+                        Map.of("Accept", "application/json", "api_key", API_KEY),
+                        Duration.ofMillis(CONFIG.getLong("api.request.timeout.ms", 30_000)));
+            default:
+                throw new IllegalStateException("Unknown api.transport: " + type);
+        }
+    }
+
+    /**
+     * Wraps the transport to record to, or replay from, the {@code api.cassette.*} cassette when one is set
+     */
+    private static ApiTransport withCassette(ApiTransport transport) {
+        Cassette cassette = Cassette.fromConfig(CONFIG);
+        return cassette == null ? transport : new CassetteTransport(transport, cassette);
+    }
+
+    /**
+     * @return The policy every request of this client is retried with
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Replaces the retry policy for this client, e.g. {@link RetryPolicy#none()} for negative tests
+     * that expect to see a 503
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * @return The cache GET requests of this client are served from, or null when caching is off
+     */
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Turns response caching on for this client ({@link ResponseCache#shared()}), or off with null.
+     * Clients cache only when {@code api.cache.enabled=true} unless this is called.
+     */
+    public void setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * @return Whether concurrent identical GET requests of this client share one exchange
+     */
+    public boolean isCoalesceGets() {
+        return coalesceGets;
+    }
+
+    /**
+     * Turns GET coalescing through {@link SingleFlight#shared()} on or off for this client; on unless
+     * {@code api.singleflight.enabled=false}
+     */
+    public void setCoalesceGets(boolean coalesceGets) {
+        this.coalesceGets = coalesceGets;
+    }
+
+    /**
+     * @return How this client compresses request bodies and negotiates compressed responses
+     */
+    public Compression getCompression() {
+        return compression;
+    }
+
+    /**
+     * Replaces the compression settings for this client, e.g. to gzip large bulk uploads
+     */
+    public void setCompression(Compression compression) {
+        this.compression = compression;
+    }
+
+    protected Response execute(ApiRequest request) {
+        ExchangeRecorder recorder = ExchangeRecorder.current();
+        long start = System.nanoTime();
         try {
-            return RestAssured.given()
-                    .spec(requestSpec)
-                    .when()
-                    .get(path, pathParams)
-                    .then()
-                    .extract()
-                    .response();
-        } catch (Exception e) {
-            throw new RuntimeException("GET request failed for path: " + path, e);
+            Response response = dispatch(request);
+            recorder.record(request, response, start);
+            return response;
+        } catch (RuntimeException e) {
+            recorder.recordFailure(request, e, start);
+            throw e;
         }
     }
 
-    protected <T> Response post(T body, String path, Object... pathParams) {
+    protected CompletableFuture<Response> executeAsync(ApiRequest request) {
+        ExchangeRecorder recorder = ExchangeRecorder.current();
+        long start = System.nanoTime();
+        return dispatchAsync(request).whenComplete((response, error) -> {
+            if (error != null) {
+                recorder.recordFailure(request, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error, start);
+            } else {
+                recorder.record(request, response, start);
+            }
+        });
+    }
+
+    private Response dispatch(ApiRequest request) {
+        ResponseCache cache = responseCache;
+        if (!"GET".equals(request.getMethod())) {
+            try {
+                return send(request);
+            } finally {
+                SingleFlight.shared().invalidateAfterWrite();
+                if (cache != null) {
+                    cache.invalidateAfter(request);
+                }
+            }
+        }
+        return cache != null ? cache.get(request, this::sendGet) : sendGet(request);
+    }
+
+    private CompletableFuture<Response> dispatchAsync(ApiRequest request) {
+        ResponseCache cache = responseCache;
+        if (!"GET".equals(request.getMethod())) {
+            return sendAsync(request).whenComplete((response, error) -> {
+                SingleFlight.shared().invalidateAfterWrite();
+                if (cache != null) {
+                    cache.invalidateAfter(request);
+                }
+            });
+        }
+        return cache != null ? cache.getAsync(request, this::sendGetAsync) : sendGetAsync(request);
+    }
+
+    /**
+     * Sends a request and returns its body unread, for responses too large to hold in memory.
+     * Network failures are retried with this client's policy; the response cache and request
+     * coalescing do not apply. The caller must close the result.
+     */
+    protected StreamingResponse executeStreaming(ApiRequest request) {
+        long start = System.nanoTime();
         try {
-            return RestAssured.given()
-                    .spec(requestSpec)
-                    .body(body)
-                    .when()
-                    .post(path, pathParams)
-                    .then()
-                    .extract()
-                    .response();
+            ApiRequest wire = compression.encode(request);
+            StreamingResponse response = retryPolicyFor(wire).call(() -> transport.executeStreaming(wire));
+            // Latency to the response headers; the body has not been read yet
+            ApiMetrics.global().recordStreaming(request, response.getStatusCode(), start);
+            return response;
         } catch (Exception e) {
-            throw new RuntimeException("POST request failed for path: " + path, e);
+            ApiMetrics.global().recordFailure(request, 0, start);
+            throw new RuntimeException(request.getMethod() + " request failed for path: " + request.getPath(), e);
         }
     }
 
-    protected <T> Response put(T body, String path, Object... pathParams) {
+    /**
+     * Sends a GET, sharing the response of an identical GET already in flight (see {@link SingleFlight})
+     */
+    private Response sendGet(ApiRequest request) {
+        return coalesceGets ? SingleFlight.shared().execute(flightKey(request), () -> send(request)) : send(request);
+    }
+
+    private CompletableFuture<Response> sendGetAsync(ApiRequest request) {
+        return coalesceGets ? SingleFlight.shared().executeAsync(flightKey(request), () -> sendAsync(request)) : sendAsync(request);
+    }
+
+    private String flightKey(ApiRequest request) {
+        return request.getHeaders().isEmpty() ? request.requestLine() : request.requestLine() + " " + request.getHeaders();
+    }
+
+    private Response send(ApiRequest request) {
+        long start = System.nanoTime();
+        long bytesOut = 0;
         try {
-            return RestAssured.given()
-                    .spec(requestSpec)
-                    .body(body)
-                    .when()
-                    .put(path, pathParams)
-                    .then()
-                    .extract()
-                    .response();
+            ApiRequest wire = compression.encode(request);
+            bytesOut = ApiMetrics.bodyBytes(wire);
+            Response response = retryPolicyFor(wire).execute(() -> EndpointGuards.shared().call(request, () -> transport.execute(wire)));
+            ApiMetrics.global().record(request, response, bytesOut, start);
+            return response;
+        } catch (CircuitBreaker.CircuitOpenException | RateLimiter.RateLimitExceededException e) {
+            ApiMetrics.global().recordFailure(request, bytesOut, start);
+            throw e; // Fail fast with the reason the call was not made
         } catch (Exception e) {
-            throw new RuntimeException("PUT request failed for path: " + path, e);
+            ApiMetrics.global().recordFailure(request, bytesOut, start);
+            throw new RuntimeException(request.getMethod() + " request failed for path: " + request.getPath(), e);
         }
     }
 
-    protected Response delete(String path, Object... pathParams) {
+    /**
+     * Requests with stream or channel parts get one attempt: a retry could not re-read the content and
+     * would hide the failure that caused it. POST and PATCH get one unless the policy opts in, see
+     * {@link RetryPolicy#forMethod}.
+     */
+    private RetryPolicy retryPolicyFor(ApiRequest request) {
+        return request.isRepeatable() ? retryPolicy.forMethod(request.getMethod()) : SINGLE_ATTEMPT;
+    }
+
+    private CompletableFuture<Response> sendAsync(ApiRequest request) {
+        long start = System.nanoTime();
         try {
-            return RestAssured.given()
-                    .spec(requestSpec)
-                    .when()
-                    .delete(path, pathParams)
-                    .then()
-                    .extract()
-                    .response();
+            ApiRequest wire = compression.encode(request);
+            long bytesOut = ApiMetrics.bodyBytes(wire);
+            return retryPolicyFor(wire).executeAsync(() -> EndpointGuards.shared().callAsync(request, () -> transport.executeAsync(wire)))
+                    .whenComplete((response, error) -> {
+                        if (error != null) {
+                            ApiMetrics.global().recordFailure(request, bytesOut, start);
+                        } else {
+                            ApiMetrics.global().record(request, response, bytesOut, start);
+                        }
+                    })
+                    .exceptionally(e -> {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        if (cause instanceof CircuitBreaker.CircuitOpenException || cause instanceof RateLimiter.RateLimitExceededException) {
+                            throw new CompletionException(cause);
+                        }
+                        throw new CompletionException(new RuntimeException(
+                                request.getMethod() + " request failed for path: " + request.getPath(), cause));
+                    });
         } catch (Exception e) {
-            throw new RuntimeException("DELETE request failed for path: " + path, e);
+            ApiMetrics.global().recordFailure(request, 0, start);
+            return CompletableFuture.failedFuture(new RuntimeException(
+                    request.getMethod() + " request failed for path: " + request.getPath(), e));
         }
     }
+
+    /**
+     * Runs a blocking client call on a virtual thread, subject to the operation's concurrency limit
+     * @param operation Operation name, e.g. addPet; see {@link AsyncExecutor} for the limit settings
+     * @param call The blocking call
+     */
+    protected <T> CompletableFuture<T> async(String operation, Supplier<T> call) {
+        return AsyncExecutor.shared().submit(operation, ExchangeRecorder.bind(call));
+    }
+
+    /**
+     * Sends one request per item, keeping at most {@code concurrency} requests in flight.
+     *
+     * <p>Requests go through the transport's async path, so the calling thread only waits when the
+     * window is full. Failures never abort the batch; each item gets its own result instead.</p>
+     * @param items Items to send
+     * @param toRequest Builds the request for an item
+     * @param isSuccess Decides from the status code whether the item succeeded
+     * @param concurrency Maximum number of requests in flight
+     * @return One result per item, in the iteration order of {@code items}
+     */
+    protected <T> List<BulkResult<T>> executeBulk(Collection<T> items, Function<T, ApiRequest> toRequest,
+                                                  IntPredicate isSuccess, int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1, was " + concurrency);
+        }
+        Semaphore window = new Semaphore(concurrency);
+        List<CompletableFuture<BulkResult<T>>> pending = new ArrayList<>(items.size());
+        for (T item : items) {
+            try {
+                window.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted after submitting " + pending.size() + " of " + items.size() + " items", e);
+            }
+            long start = System.nanoTime();
+            CompletableFuture<Response> call;
+            try {
+                call = executeAsync(toRequest.apply(item));
+            } catch (Exception e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            pending.add(call.handle((response, error) -> {
+                window.release();
+                Duration latency = Duration.ofNanos(System.nanoTime() - start);
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    return new BulkResult<>(item, false, -1, latency, cause);
+                }
+                int status = response.getStatusCode();
+                return new BulkResult<>(item, isSuccess.test(status), status, latency, null);
+            }));
+        }
+        return pending.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * @return The default window for bulk calls, from {@code api.bulk.concurrency}
+     */
+    protected int bulkConcurrency() {
+        return CONFIG.getInt("api.bulk.concurrency", 32);
+    }
+
+    /**
+     * Polls until the condition holds, without blocking a thread while waiting; see {@link Poller}
+     * @param description What is being waited for, e.g. "pet 42 to be sold"
+     * @param probe Starts one async read of the resource
+     * @param condition Returns true once the probed value is the one we are waiting for
+     * @param timeout How long to keep polling
+     */
+    protected <T> CompletableFuture<T> await(String description, Supplier<CompletableFuture<T>> probe,
+                                             Predicate<? super T> condition, Duration timeout) {
+        return Poller.shared().await(description, ExchangeRecorder.bind(probe), condition, timeout);
+    }
+
+    /**
+     * @return The default timeout for await calls, from {@code api.poll.timeout.ms}
+     */
+    protected Duration awaitTimeout() {
+        return Duration.ofMillis(CONFIG.getLong("api.poll.timeout.ms", 10_000));
+    }
+
+    /**
+     * Waits for a future and rethrows its failure as is, rather than wrapped in a CompletionException
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    protected Response get(String path, Object... pathParams) {
+        return execute(ApiRequest.of("GET", path, pathParams));
+    }
+
+    protected <T> Response post(T body, String path, Object... pathParams) {
+        return execute(ApiRequest.builderFor("POST", path, pathParams).body(body).build());
+    }
+
+    protected <T> Response put(T body, String path, Object... pathParams) {
+        return execute(ApiRequest.builderFor("PUT", path, pathParams).body(body).build());
+    }
+
+    protected Response delete(String path, Object... pathParams) {
+        return execute(ApiRequest.of("DELETE", path, pathParams));
+    }
+
+    protected CompletableFuture<Response> getAsync(String path, Object... pathParams) {
+        return executeAsync(ApiRequest.of("GET", path, pathParams));
+    }
+
+    /**
+     * Like {@link #getAsync} but never answered from the response cache, for polling until data changes
+     */
+    protected CompletableFuture<Response> getFreshAsync(String path, Object... pathParams) {
+        return executeAsync(ApiRequest.builderFor("GET", path, pathParams).header("Cache-Control", "no-cache").build());
+    }
+
+    protected <T> CompletableFuture<Response> postAsync(T body, String path, Object... pathParams) {
+        return executeAsync(ApiRequest.builderFor("POST", path, pathParams).body(body).build());
+    }
+
+    protected <T> CompletableFuture<Response> putAsync(T body, String path, Object... pathParams) {
+        return executeAsync(ApiRequest.builderFor("PUT", path, pathParams).body(body).build());
+    }
+
+    protected CompletableFuture<Response> deleteAsync(String path, Object... pathParams) {
+        return executeAsync(ApiRequest.of("DELETE", path, pathParams));
+    }
 }
@@ -0,0 +1,35 @@
+package zoran.api;
+
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of one item in a bulk call such as {@link PetApiClient#addPets}
+ */
+@Value
+public class BulkResult<T> {
+    /** The item that was sent */
+    T item;
+    boolean success;
+    /** HTTP status code, or -1 when no response was received */
+    int statusCode;
+    Duration latency;
+    /** Why the item failed: the transport exception, or null when a response was received */
+    Throwable error;
+
+    /**
+     * @return The results that did not succeed, in the order they were submitted
+     */
+    public static <T> List<BulkResult<T>> failures(List<BulkResult<T>> results) {
+        return results.stream().filter(result -> !result.isSuccess()).toList();
+    }
+
+    /**
+     * @return True when every item in the bulk call succeeded
+     */
+    public static boolean allSucceeded(List<? extends BulkResult<?>> results) {
+        return results.stream().allMatch(BulkResult::isSuccess);
+    }
+}
@@ -0,0 +1,311 @@
+package zoran.api;
+
+import io.restassured.http.Header;
+import io.restassured.response.Response;
+import zoran.config.Config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recorded Petstore exchanges, for running the suites without the network.
+ *
+ * <p>In {@link Mode#RECORD} every response is appended to the file as one length-prefixed record. The key is
+ * built from the method, path template, path and query parameters, and a hash of the body. In
+ * {@link Mode#REPLAY} the file is memory-mapped and indexed once, and each request gets the recorded
+ * response for its key. Responses are read straight from the mapping. Repeated requests get the recorded
+ * responses in order, and the last one again once they run out, so polling loops can take more rounds
+ * than they did while recording. A request that was never recorded fails rather than reaching the
+ * network.</p>
+ *
+ * <p>Set {@code api.cassette.mode=record} (or {@code replay}) and {@code api.cassette.file}. Generated test
+ * data must repeat between runs for keys to match, see {@code test.data.seed}.</p>
+ */
+public final class Cassette {
+    private static final byte[] MAGIC = "PSCAS001".getBytes(StandardCharsets.US_ASCII);
+    /** Hop-by-hop and encoding headers; bodies are stored decoded, so these would be wrong on replay */
+    private static final Set<String> SKIPPED_HEADERS = Set.of(
+            "content-length", "content-encoding", "transfer-encoding", "connection", "keep-alive", "date");
+    private static final Map<Path, Cassette> OPEN = new ConcurrentHashMap<>();
+
+    public enum Mode { OFF, RECORD, REPLAY }
+
+    private final Path file;
+    private final Mode mode;
+    private final FileChannel channel;
+    private final MappedByteBuffer mapped;
+    private final Map<String, Recordings> index;
+
+    private Cassette(Path file, Mode mode) throws IOException {
+        this.file = file;
+        this.mode = mode;
+        if (mode == Mode.RECORD) {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            // A recording run replaces the previous recordings
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            channel.write(ByteBuffer.wrap(MAGIC));
+            mapped = null;
+            index = Map.of();
+        } else {
+            try (FileChannel readChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (readChannel.size() > Integer.MAX_VALUE) {
+                    throw new IOException("Cassette larger than 2 GB: " + file);
+                }
+                mapped = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+            }
+            channel = null;
+            index = buildIndex(mapped, file);
+        }
+    }
+
+    /**
+     * @return The cassette named by {@code api.cassette.file} in the {@code api.cassette.mode} mode,
+     * or null when the mode is off
+     */
+    public static Cassette fromConfig(Config config) {
+        Mode mode = Mode.valueOf(config.get("api.cassette.mode", "off").trim().toUpperCase());
+        if (mode == Mode.OFF) {
+            return null;
+        }
+        return open(Path.of(config.get("api.cassette.file", "src/test/resources/cassettes/petstore.cassette")), mode);
+    }
+
+    /**
+     * @return The cassette for the file, opened once per JVM and shared by all clients
+     */
+    public static Cassette open(Path file, Mode mode) {
+        Cassette cassette = OPEN.computeIfAbsent(file.toAbsolutePath().normalize(), path -> {
+            try {
+                return new Cassette(path, mode);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open cassette " + path + " for " + mode, e);
+            }
+        });
+        if (cassette.mode != mode) {
+            throw new IllegalStateException("Cassette " + file + " is already open for " + cassette.mode);
+        }
+        return cassette;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return Number of distinct request keys in a replayed cassette
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Closes a recording and forgets the cassette, so the file can be opened again, e.g. to replay it
+     */
+    public void close() {
+        OPEN.remove(file, this);
+        if (channel != null) {
+            synchronized (channel) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to close cassette " + file, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends the exchange; a record is written with a single write, so parallel clients never interleave
+     */
+    void record(ApiRequest request, Response response) {
+        byte[] key = key(request).getBytes(StandardCharsets.UTF_8);
+        List<byte[]> headers = new ArrayList<>();
+        for (Header header : response.getHeaders()) {
+            if (!SKIPPED_HEADERS.contains(header.getName().toLowerCase())) {
+                headers.add(header.getName().getBytes(StandardCharsets.UTF_8));
+                headers.add(header.getValue().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        byte[] body = response.asByteArray();
+
+        int length = 4 + key.length + 4 + 4 + 4 + body.length;
+        for (byte[] field : headers) {
+            length += 4 + field.length;
+        }
+        ByteBuffer record = ByteBuffer.allocate(4 + length);
+        record.putInt(length);
+        putBytes(record, key);
+        record.putInt(response.getStatusCode());
+        record.putInt(headers.size() / 2);
+        for (byte[] field : headers) {
+            putBytes(record, field);
+        }
+        putBytes(record, body);
+        record.flip();
+        synchronized (channel) {
+            try {
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to record " + request.requestLine() + " to " + file, e);
+            }
+        }
+    }
+
+    /**
+     * @return The recorded response for the request
+     * @throws IllegalStateException When nothing was recorded for it
+     */
+    Response replay(ApiRequest request) {
+        String key = key(request);
+        Recordings recordings = index.get(key);
+        if (recordings == null) {
+            throw new IllegalStateException("No recorded exchange in " + file + " for " + key
+                    + "; record again with api.cassette.mode=record");
+        }
+        ByteBuffer record = mapped.duplicate();
+        record.position(recordings.next());
+        skipBytes(record); // Key, already matched
+        int status = record.getInt();
+        int headerCount = record.getInt();
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (int i = 0; i < headerCount; i++) {
+            String name = getString(record);
+            headers.computeIfAbsent(name, n -> new ArrayList<>(1)).add(getString(record));
+        }
+        byte[] body = new byte[record.getInt()];
+        record.get(body);
+        return Responses.of(status, headers, body);
+    }
+
+    /**
+     * Match key, e.g. {@code PUT /pet [] ? #3f2a9c0d1b7e4a55}: method, path template, path parameters,
+     * sorted query parameters and a hash of the body
+     */
+    static String key(ApiRequest request) {
+        StringBuilder key = new StringBuilder(64)
+                .append(request.getMethod()).append(' ')
+                .append(request.getPath()).append(' ')
+                .append(Arrays.toString(request.getPathParams()))
+                .append(" ?").append(PathTemplates.query(new TreeMap<>(request.getQueryParams())));
+        String bodyHash = bodyHash(request);
+        if (bodyHash != null) {
+            key.append(" #").append(bodyHash);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Multipart contents may be one-shot streams, so only part names, file names and types are hashed
+     */
+    private static String bodyHash(ApiRequest request) {
+        MessageDigest digest = sha256();
+        boolean hasBody = false;
+        Object body = request.getBody();
+        if (body != null) {
+            digest.update(body instanceof byte[] bytes ? bytes : String.valueOf(body).getBytes(StandardCharsets.UTF_8));
+            hasBody = true;
+        }
+        for (Map.Entry<String, String> field : new TreeMap<>(request.getFormParams()).entrySet()) {
+            digest.update((field.getKey() + '=' + field.getValue() + '&').getBytes(StandardCharsets.UTF_8));
+            hasBody = true;
+        }
+        for (MultiPart part : request.getMultiParts()) {
+            digest.update((part.getName() + ';' + part.getFileName() + ';' + part.getMimeType() + '\n')
+                    .getBytes(StandardCharsets.UTF_8));
+            hasBody = true;
+        }
+        // 64 bits: collisions are not a concern within one suite's recordings
+        return hasBody ? HexFormat.of().formatHex(digest.digest(), 0, 8) : null;
+    }
+
+    private static Map<String, Recordings> buildIndex(ByteBuffer data, Path file) throws IOException {
+        if (data.remaining() < MAGIC.length || !data.slice(0, MAGIC.length).equals(ByteBuffer.wrap(MAGIC))) {
+            throw new IOException("Not a cassette file: " + file);
+        }
+        Map<String, List<Integer>> offsets = new HashMap<>();
+        int position = MAGIC.length;
+        while (position + 4 <= data.limit()) {
+            int length = data.getInt(position);
+            int start = position + 4;
+            if (length < 4 || start + length > data.limit()) {
+                break; // A record cut short by a recording run that was killed mid-write
+            }
+            ByteBuffer record = data.duplicate().position(start);
+            offsets.computeIfAbsent(getString(record), key -> new ArrayList<>()).add(start);
+            position = start + length;
+        }
+        Map<String, Recordings> index = new HashMap<>(offsets.size() * 2);
+        offsets.forEach((key, list) -> index.put(key, new Recordings(list.stream().mapToInt(Integer::intValue).toArray())));
+        return index;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static void skipBytes(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        buffer.position(buffer.position() + length);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Offsets of the records for one key, handed out in recorded order; the last one repeats
+     */
+    private static final class Recordings {
+        private final int[] offsets;
+        private final AtomicInteger played = new AtomicInteger();
+
+        Recordings(int[] offsets) {
+            this.offsets = offsets;
+        }
+
+        int next() {
+            int index = played.getAndIncrement();
+            return offsets[Math.min(index, offsets.length - 1)];
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package zoran.api;
+
+import io.restassured.response.Response;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Records the exchanges of the wrapped transport to a {@link Cassette}, or replays them from it without
+ * calling the wrapped transport at all. Streaming calls go through {@link #execute}, so they are recorded
+ * and replayed with their full body.
+ */
+final class CassetteTransport implements ApiTransport {
+    private final ApiTransport delegate;
+    private final Cassette cassette;
+
+    CassetteTransport(ApiTransport delegate, Cassette cassette) {
+        this.delegate = delegate;
+        this.cassette = cassette;
+    }
+
+    @Override
+    public Response execute(ApiRequest request) {
+        if (cassette.getMode() == Cassette.Mode.REPLAY) {
+            return cassette.replay(request);
+        }
+        Response response = delegate.execute(request);
+        cassette.record(request, response);
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(ApiRequest request) {
+        if (cassette.getMode() == Cassette.Mode.REPLAY) {
+            try {
+                return CompletableFuture.completedFuture(cassette.replay(request));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return delegate.executeAsync(request).thenApply(response -> {
+            cassette.record(request, response);
+            return response;
+        });
+    }
+}
@@ -0,0 +1,118 @@
+package zoran.api;
+
+import java.time.Duration;
+
+/**
+ * Stops calling an endpoint that keeps failing, so a degraded server is not hammered and callers fail
+ * fast instead of each waiting for a timeout.
+ *
+ * <p>After {@code failureThreshold} consecutive failures (network errors or 5xx responses) the breaker
+ * opens and rejects calls with a {@link CircuitOpenException}. Once {@code openDuration} has passed it goes
+ * half-open and lets up to {@code halfOpenProbes} calls through: a success closes it again, a failure
+ * re-opens it for another {@code openDuration}.</p>
+ */
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private int probesInFlight;
+    private long rejected;
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration, int halfOpenProbes) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    /**
+     * Reserves the right to make one call
+     * @throws CircuitOpenException when the breaker is open, or half-open with all probes already in flight
+     */
+    public synchronized void acquirePermission() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+        }
+        if (state == State.OPEN || (state == State.HALF_OPEN && probesInFlight >= halfOpenProbes)) {
+            rejected++;
+            long retryInMs = Math.max(0, (openNanos - (System.nanoTime() - openedAt)) / 1_000_000);
+            throw new CircuitOpenException("Circuit for " + name + " is " + state
+                    + " after " + consecutiveFailures + " consecutive failures; retry in " + retryInMs + " ms");
+        }
+        if (state == State.HALF_OPEN) {
+            probesInFlight++;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            state = State.CLOSED;
+            probesInFlight = 0;
+        }
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            probesInFlight = 0;
+        }
+    }
+
+    /**
+     * Frees a half-open probe slot for a call that ended without a verdict on the endpoint's health, e.g. one
+     * that failed before reaching the server
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && probesInFlight > 0) {
+            probesInFlight--;
+        }
+    }
+
+    /**
+     * Records a response, counting 5xx statuses as failures
+     */
+    public void onResponse(int statusCode) {
+        if (statusCode >= 500) {
+            onFailure();
+        } else {
+            onSuccess();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return Number of calls rejected without reaching the server
+     */
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("CircuitBreaker[%s, state=%s, consecutiveFailures=%d, rejected=%d]",
+                name, state, consecutiveFailures, rejected);
+    }
+
+    /**
+     * Thrown instead of making a call while the endpoint's circuit is open
+     */
+    public static class CircuitOpenException extends RuntimeException {
+        public CircuitOpenException(String message) {
+            super(message);
+        }
+    }
+}
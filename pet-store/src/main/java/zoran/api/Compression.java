@@ -0,0 +1,164 @@
+package zoran.api;
+
+import lombok.Builder;
+import lombok.Value;
+import zoran.config.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * How a client compresses what it sends and negotiates compression of what it receives.
+ *
+ * <p>With {@code acceptCompressed} every request advertises {@code Accept-Encoding: gzip, deflate} and
+ * compressed responses are decoded before callers see them; without it, requests ask for {@code identity}. With {@code gzipRequests}, JSON bodies of at
+ * least {@code minRequestBytes} are sent gzipped with {@code Content-Encoding: gzip}; only turn this on
+ * for servers that accept compressed bodies. Bytes before and after compression are counted in
+ * {@link CompressionStats#global()}.</p>
+ */
+@Value
+@Builder(toBuilder = true)
+public class Compression {
+    @Builder.Default
+    boolean acceptCompressed = true;
+
+    @Builder.Default
+    boolean gzipRequests = false;
+
+    /** Smaller bodies are sent as they are; gzip costs more than it saves on a few hundred bytes */
+    @Builder.Default
+    int minRequestBytes = 8_192;
+
+    /**
+     * @return Settings that neither compress requests nor ask for compressed responses
+     */
+    public static Compression none() {
+        return builder().acceptCompressed(false).build();
+    }
+
+    /**
+     * Settings from {@code api.compression.accept}, {@code api.compression.request.enabled} and
+     * {@code api.compression.request.min.bytes}
+     */
+    public static Compression fromConfig(Config config) {
+        return builder()
+                .acceptCompressed(config.getBoolean("api.compression.accept", true))
+                .gzipRequests(config.getBoolean("api.compression.request.enabled", false))
+                .minRequestBytes(config.getInt("api.compression.request.min.bytes", 8_192))
+                .build();
+    }
+
+    /**
+     * @return The request as it goes on the wire: with the Accept-Encoding header, and with its body
+     *         serialized and gzipped when it is large enough
+     */
+    ApiRequest encode(ApiRequest request) {
+        boolean addAccept = !hasHeader(request, "Accept-Encoding");
+        boolean jsonBody = request.getBody() != null && request.getFormParams().isEmpty() && request.getMultiParts().isEmpty();
+        if (!addAccept && !jsonBody) {
+            return request;
+        }
+        ApiRequest.ApiRequestBuilder wire = request.toBuilder();
+        if (addAccept) {
+            // Explicit identity, because RestAssured asks for gzip by default
+            wire.header("Accept-Encoding", acceptCompressed ? "gzip, deflate" : "identity");
+        }
+        if (jsonBody) {
+            // Serialized once here rather than by the transport on every retry, and so its size is known
+            byte[] body = serialize(request.getBody());
+            if (gzipRequests && !hasHeader(request, "Content-Encoding")) {
+                if (body.length >= minRequestBytes) {
+                    byte[] gzipped = gzip(body);
+                    CompressionStats.global().recordRequest(body.length, gzipped.length);
+                    wire.header("Content-Encoding", "gzip");
+                    body = gzipped;
+                } else {
+                    CompressionStats.global().recordRequest(body.length, body.length);
+                }
+            }
+            wire.body(body);
+        }
+        return wire.build();
+    }
+
+    /**
+     * Decodes a buffered response body according to its Content-Encoding
+     */
+    static byte[] decode(String contentEncoding, byte[] body) {
+        if (!isCompressed(contentEncoding) || body.length == 0) {
+            return body;
+        }
+        try (InputStream in = decode(contentEncoding, new ByteArrayInputStream(body))) {
+            byte[] decoded = in.readAllBytes();
+            CompressionStats.global().recordResponse(body.length, decoded.length);
+            return decoded;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode " + contentEncoding + " response body", e);
+        }
+    }
+
+    /**
+     * Wraps a streamed response body so it is decoded as it is read. The header is checked against the
+     * stream's magic bytes, since an HTTP client RestAssured has used may already have decoded the body.
+     */
+    static InputStream decode(String contentEncoding, InputStream body) throws IOException {
+        if (!isCompressed(contentEncoding)) {
+            return body;
+        }
+        PushbackInputStream in = new PushbackInputStream(body, 2);
+        byte[] magic = in.readNBytes(2);
+        in.unread(magic);
+        if (magic.length == 2 && (magic[0] & 0xff) == 0x1f && (magic[1] & 0xff) == 0x8b) {
+            return new GZIPInputStream(in, 8_192);
+        }
+        if (magic.length == 2 && (magic[0] & 0x0f) == 8 && ((magic[0] & 0xff) << 8 | (magic[1] & 0xff)) % 31 == 0) {
+            return new InflaterInputStream(in); // zlib header
+        }
+        return in;
+    }
+
+    static boolean isCompressed(String contentEncoding) {
+        if (contentEncoding == null) {
+            return false;
+        }
+        String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        return encoding.contains("gzip") || encoding.contains("deflate");
+    }
+
+    private static boolean hasHeader(ApiRequest request, String name) {
+        return request.getHeaders().keySet().stream().anyMatch(name::equalsIgnoreCase);
+    }
+
+    private static byte[] serialize(Object body) {
+        if (body instanceof byte[] bytes) {
+            return bytes;
+        }
+        if (body instanceof String text) {
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            return Json.mapper().writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to serialize request body: " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8_192)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to gzip request body", e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,73 @@
+package zoran.api;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JVM-wide byte counts before and after compression, to see what {@link Compression} saves on a run
+ */
+public final class CompressionStats {
+    private static final CompressionStats GLOBAL = new CompressionStats();
+
+    private final LongAdder requestBytes = new LongAdder();
+    private final LongAdder requestBytesSent = new LongAdder();
+    private final LongAdder responseBytesReceived = new LongAdder();
+    private final LongAdder responseBytesDecoded = new LongAdder();
+
+    private CompressionStats() {
+    }
+
+    public static CompressionStats global() {
+        return GLOBAL;
+    }
+
+    void recordRequest(long uncompressed, long sent) {
+        requestBytes.add(uncompressed);
+        requestBytesSent.add(sent);
+    }
+
+    void recordResponse(long received, long decoded) {
+        responseBytesReceived.add(received);
+        responseBytesDecoded.add(decoded);
+    }
+
+    /**
+     * @return JSON request body bytes before compression
+     */
+    public long requestBytes() {
+        return requestBytes.sum();
+    }
+
+    /**
+     * @return JSON request body bytes actually sent, compressed or not
+     */
+    public long requestBytesSent() {
+        return requestBytesSent.sum();
+    }
+
+    /**
+     * @return Compressed response body bytes received
+     */
+    public long responseBytesReceived() {
+        return responseBytesReceived.sum();
+    }
+
+    /**
+     * @return Size of those response bodies once decoded
+     */
+    public long responseBytesDecoded() {
+        return responseBytesDecoded.sum();
+    }
+
+    /**
+     * @return Bytes not sent or received thanks to compression
+     */
+    public long bytesSaved() {
+        return requestBytes() - requestBytesSent() + responseBytesDecoded() - responseBytesReceived();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CompressionStats[requests=%d->%d bytes, responses=%d->%d bytes, saved=%d bytes]",
+                requestBytes(), requestBytesSent(), responseBytesReceived(), responseBytesDecoded(), bytesSaved());
+    }
+}
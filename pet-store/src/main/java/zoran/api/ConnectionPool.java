@@ -0,0 +1,445 @@
+package zoran.api;
+
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.HttpInetSocketAddress;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeLayeredSocketFactory;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+import zoran.config.Config;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * JVM-wide pooled connection manager shared by every API client.
+ *
+ * <p>By default RestAssured builds a new Apache HttpClient for every request, so each call pays
+ * for a fresh TCP (and TLS) handshake. All clients instead borrow connections from this single pool,
+ * which keeps them alive between calls and evicts the ones that sit idle for too long.</p>
+ *
+ * <p>Settings (config.properties or system properties):</p>
+ * <ul>
+ *     <li>{@code api.pool.max.total} - connections across all routes (default 200)</li>
+ *     <li>{@code api.pool.max.per.route} - connections per host (default 50)</li>
+ *     <li>{@code api.pool.idle.timeout.ms} - idle connections are closed after this long (default 30000)</li>
+ *     <li>{@code api.pool.keepalive.ms} - upper bound for keeping a connection alive (default 60000)</li>
+ * </ul>
+ */
+@SuppressWarnings("deprecation") // RestAssured 5 only accepts the AbstractHttpClient API
+public final class ConnectionPool {
+    private static volatile ConnectionPool shared;
+
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder leasesRequested = new LongAdder();
+    private final PoolingClientConnectionManager connectionManager;
+    private final DefaultHttpClient httpClient;
+    private final RestAssuredConfig restAssuredConfig;
+    private final int maxPerRoute;
+    private final LeaseGate totalGate;
+    private final Map<HttpRoute, LeaseGate> routeGates = new ConcurrentHashMap<>();
+
+    ConnectionPool(int maxTotal, int maxPerRoute, long idleTimeoutMs, long keepAliveMs) {
+        SchemeRegistry schemes = SchemeRegistryFactory.createSystemDefault();
+        schemes.register(new Scheme("https", 443, new TimedTlsSocketFactory(SSLSocketFactory.getSystemSocketFactory())));
+        this.connectionManager = new PoolingClientConnectionManager(schemes) {
+            @Override
+            protected ClientConnectionOperator createConnectionOperator(SchemeRegistry schemeRegistry) {
+                return new DefaultClientConnectionOperator(schemeRegistry) {
+                    @Override
+                    public void openConnection(OperatedClientConnection conn, HttpHost target, InetAddress local,
+                                               HttpContext context, HttpParams params) throws IOException {
+                        connectionsOpened.increment();
+                        long start = System.nanoTime();
+                        super.openConnection(conn, target, local, context, params);
+                        PhaseRecorder phases = PhaseRecorder.current();
+                        if (phases != null) {
+                            phases.connectionOpened(System.nanoTime() - start);
+                        }
+                    }
+
+                    @Override
+                    protected InetAddress[] resolveHostname(String host) throws UnknownHostException {
+                        long start = System.nanoTime();
+                        InetAddress[] addresses = super.resolveHostname(host);
+                        PhaseRecorder phases = PhaseRecorder.current();
+                        if (phases != null) {
+                            phases.dns(System.nanoTime() - start);
+                        }
+                        return addresses;
+                    }
+                };
+            }
+
+            @Override
+            public ClientConnectionRequest requestConnection(HttpRoute route, Object state) {
+                leasesRequested.increment();
+                return super.requestConnection(route, state);
+            }
+        };
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        this.maxPerRoute = maxPerRoute;
+        this.totalGate = new LeaseGate(maxTotal);
+
+        this.httpClient = new DefaultHttpClient(connectionManager) {
+            @Override
+            protected HttpRequestExecutor createRequestExecutor() {
+                return new TimedRequestExecutor();
+            }
+        };
+        DefaultConnectionKeepAliveStrategy serverKeepAlive = new DefaultConnectionKeepAliveStrategy();
+        httpClient.setKeepAliveStrategy((response, context) -> {
+            long serverValue = serverKeepAlive.getKeepAliveDuration(response, context);
+            return serverValue > 0 ? Math.min(serverValue, keepAliveMs) : keepAliveMs;
+        });
+
+        ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "api-connection-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepInterval = Math.max(1_000, idleTimeoutMs / 2);
+        evictor.scheduleWithFixedDelay(() -> {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(idleTimeoutMs, TimeUnit.MILLISECONDS);
+        }, sweepInterval, sweepInterval, TimeUnit.MILLISECONDS);
+
+        this.restAssuredConfig = RestAssuredConfig.config().httpClient(HttpClientConfig.httpClientConfig()
+                .reuseHttpClientInstance()
+                .httpClientFactory(() -> httpClient));
+    }
+
+    /**
+     * @return The pool shared by all clients in this JVM, created from config on first use
+     */
+    public static ConnectionPool shared() {
+        ConnectionPool pool = shared;
+        if (pool == null) {
+            synchronized (ConnectionPool.class) {
+                pool = shared;
+                if (pool == null) {
+                    Config config = new Config();
+                    pool = new ConnectionPool(
+                            config.getInt("api.pool.max.total", 200),
+                            config.getInt("api.pool.max.per.route", 50),
+                            config.getLong("api.pool.idle.timeout.ms", 30_000),
+                            config.getLong("api.pool.keepalive.ms", 60_000));
+                    shared = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * @return RestAssured configuration that makes requests borrow connections from this pool
+     */
+    public RestAssuredConfig restAssuredConfig() {
+        return restAssuredConfig;
+    }
+
+    /**
+     * Runs a request once a connection slot is free.
+     *
+     * <p>The Apache pool waits for a free connection inside a {@code synchronized} block, which pins
+     * a virtual thread to its carrier. With enough waiters every carrier ends up pinned and the threads
+     * holding connections can never run to release them. Waiting here first keeps the pool itself from
+     * ever blocking: a request takes a slot for its route, then one of the slots across all routes, so both
+     * {@code api.pool.max.per.route} and {@code api.pool.max.total} hold.</p>
+     * @param target Any URL on the host the request goes to
+     * @param request The request to run, typically a RestAssured call
+     * @return Whatever the request returns
+     */
+    public <T> T withConnection(URI target, Supplier<T> request) {
+        Closeable slot = reserveConnection(target);
+        try {
+            return request.get();
+        } finally {
+            closeQuietly(slot);
+        }
+    }
+
+    /**
+     * Waits for a connection slot, like {@link #withConnection}, for requests that hold their connection
+     * after returning, such as streamed responses
+     * @param target Any URL on the host the request goes to
+     * @return Gives the slot back when closed; closing more than once has no effect
+     */
+    public Closeable reserveConnection(URI target) {
+        LeaseGate routeGate = routeGates.computeIfAbsent(routeOf(target), route -> new LeaseGate(maxPerRoute));
+        routeGate.acquire();
+        try {
+            totalGate.acquire();
+        } catch (RuntimeException e) {
+            routeGate.release();
+            throw e;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                totalGate.release();
+                routeGate.release();
+            }
+        };
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // Releasing a slot cannot fail
+        }
+    }
+
+    public HttpClient httpClient() {
+        return httpClient;
+    }
+
+    /**
+     * @return Leased, pending and available connections across all routes; pending counts requests waiting
+     * in the pool and at its gates
+     */
+    public PoolStats stats() {
+        PoolStats stats = connectionManager.getTotalStats();
+        int waiting = 0;
+        for (LeaseGate gate : routeGates.values()) {
+            waiting += gate.waiting();
+        }
+        return new PoolStats(stats.getLeased(), stats.getPending() + waiting + totalGate.waiting(),
+                stats.getAvailable(), stats.getMax());
+    }
+
+    /**
+     * @param baseUrl Any URL on the host of interest, e.g. the API base URL
+     * @return Leased, pending and available connections for that host; pending counts requests waiting in the
+     * pool and at the host's gate
+     */
+    public PoolStats stats(String baseUrl) {
+        HttpRoute route = routeOf(URI.create(baseUrl));
+        PoolStats stats = connectionManager.getStats(route);
+        LeaseGate gate = routeGates.get(route);
+        return new PoolStats(stats.getLeased(), stats.getPending() + (gate == null ? 0 : gate.waiting()),
+                stats.getAvailable(), stats.getMax());
+    }
+
+    private static HttpRoute routeOf(URI uri) {
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() != -1 ? uri.getPort() : (secure ? 443 : 80);
+        return new HttpRoute(new HttpHost(uri.getHost(), port, uri.getScheme()), null, secure);
+    }
+
+    /**
+     * @return Number of TCP connections opened since the pool was created
+     */
+    public long connectionsOpened() {
+        return connectionsOpened.sum();
+    }
+
+    /**
+     * @return Number of times a connection was borrowed from the pool
+     */
+    public long connectionsLeased() {
+        return leasesRequested.sum();
+    }
+
+    /**
+     * @return Fraction of leases served by an already open connection (0 when nothing was leased yet)
+     */
+    public double reuseRatio() {
+        long leases = connectionsLeased();
+        return leases == 0 ? 0 : Math.max(0, 1 - (double) connectionsOpened() / leases);
+    }
+
+    /**
+     * Fair semaphore that counts its waiters, so contention shows up in the pool's pending stat
+     */
+    private static final class LeaseGate {
+        private final Semaphore slots;
+        private final AtomicInteger waiting = new AtomicInteger();
+
+        LeaseGate(int permits) {
+            slots = new Semaphore(permits, true);
+        }
+
+        void acquire() {
+            try {
+                // The timed form keeps to the fair order, unlike tryAcquire()
+                if (slots.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                    return;
+                }
+                waiting.incrementAndGet();
+                try {
+                    slots.acquire();
+                } finally {
+                    waiting.decrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for a pooled connection", e);
+            }
+        }
+
+        void release() {
+            slots.release();
+        }
+
+        int waiting() {
+            return waiting.get();
+        }
+    }
+
+    /**
+     * Marks when the request starts going out, when the response headers are in and when the body has been read
+     */
+    private static final class TimedRequestExecutor extends HttpRequestExecutor {
+        @Override
+        protected HttpResponse doSendRequest(HttpRequest request, HttpClientConnection conn, HttpContext context)
+                throws IOException, HttpException {
+            PhaseRecorder phases = PhaseRecorder.current();
+            if (phases != null) {
+                phases.requestStarted(System.nanoTime());
+            }
+            return super.doSendRequest(request, conn, context);
+        }
+
+        @Override
+        protected HttpResponse doReceiveResponse(HttpRequest request, HttpClientConnection conn, HttpContext context)
+                throws HttpException, IOException {
+            HttpResponse response = super.doReceiveResponse(request, conn, context);
+            PhaseRecorder phases = PhaseRecorder.current();
+            if (phases != null) {
+                phases.headersReceived(System.nanoTime());
+                HttpEntity entity = response.getEntity();
+                if (entity != null) {
+                    response.setEntity(new HttpEntityWrapper(entity) {
+                        @Override
+                        public InputStream getContent() throws IOException {
+                            return new FilterInputStream(super.getContent()) {
+                                @Override
+                                public int read() throws IOException {
+                                    int b = super.read();
+                                    if (b < 0) {
+                                        phases.bodyRead(System.nanoTime());
+                                    }
+                                    return b;
+                                }
+
+                                @Override
+                                public int read(byte[] buffer, int offset, int length) throws IOException {
+                                    int n = super.read(buffer, offset, length);
+                                    if (n < 0) {
+                                        phases.bodyRead(System.nanoTime());
+                                    }
+                                    return n;
+                                }
+                            };
+                        }
+                    });
+                }
+            }
+            return response;
+        }
+    }
+
+    /**
+     * Opens the TCP connection and then layers TLS on top as two steps, so the handshake can be timed on its own
+     */
+    private static final class TimedTlsSocketFactory implements SchemeLayeredSocketFactory {
+        private final SSLSocketFactory tls;
+
+        TimedTlsSocketFactory(SSLSocketFactory tls) {
+            this.tls = tls;
+        }
+
+        @Override
+        public Socket createSocket(HttpParams params) {
+            return new Socket();
+        }
+
+        @Override
+        public Socket connectSocket(Socket socket, InetSocketAddress remoteAddress, InetSocketAddress localAddress,
+                                    HttpParams params) throws IOException {
+            Socket plain = socket != null ? socket : new Socket();
+            if (localAddress != null) {
+                plain.setReuseAddress(HttpConnectionParams.getSoReuseaddr(params));
+                plain.bind(localAddress);
+            }
+            plain.setSoTimeout(HttpConnectionParams.getSoTimeout(params));
+            try {
+                plain.connect(remoteAddress, HttpConnectionParams.getConnectionTimeout(params));
+            } catch (SocketTimeoutException e) {
+                throw new ConnectTimeoutException("Connect to " + remoteAddress + " timed out");
+            }
+            String host = remoteAddress instanceof HttpInetSocketAddress address
+                    ? address.getHttpHost().getHostName() : remoteAddress.getHostName();
+            long start = System.nanoTime();
+            Socket secure = tls.createLayeredSocket(plain, host, remoteAddress.getPort(), params);
+            PhaseRecorder phases = PhaseRecorder.current();
+            if (phases != null) {
+                phases.tls(System.nanoTime() - start);
+            }
+            return secure;
+        }
+
+        @Override
+        public Socket createLayeredSocket(Socket socket, String target, int port, HttpParams params) throws IOException {
+            return tls.createLayeredSocket(socket, target, port, params);
+        }
+
+        @Override
+        public boolean isSecure(Socket socket) {
+            return tls.isSecure(socket);
+        }
+    }
+
+    @Override
+    public String toString() {
+        PoolStats stats = stats();
+        return String.format("ConnectionPool[leased=%d, pending=%d, available=%d, max=%d, opened=%d, leases=%d, reuse=%.1f%%]",
+                stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax(),
+                connectionsOpened(), connectionsLeased(), reuseRatio() * 100);
+    }
+}
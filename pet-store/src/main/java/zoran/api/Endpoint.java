@@ -0,0 +1,66 @@
+package zoran.api;
+
+/**
+ * One operation of the API, e.g. {@code GET /pet/{petId}}, with its path template compiled once.
+ * Requests built from an endpoint only fill in parameters and the body.
+ */
+public final class Endpoint {
+    private final String operationId;
+    private final String method;
+    private final PathTemplate template;
+    private final String contentType;
+
+    Endpoint(String operationId, String method, String path, String contentType) {
+        this.operationId = operationId;
+        this.method = method;
+        this.template = PathTemplate.of(path);
+        this.contentType = contentType;
+    }
+
+    /**
+     * @return Operation name from the API description, e.g. getPetById
+     */
+    public String getOperationId() {
+        return operationId;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return Path template relative to the base URL, e.g. /pet/{petId}
+     */
+    public String getPath() {
+        return template.template();
+    }
+
+    /**
+     * @return Content type the operation consumes, or null for the client's default JSON
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    PathTemplate template() {
+        return template;
+    }
+
+    /**
+     * @param pathParams Values for the placeholders in the path template, in order
+     * @return A builder with method, path and content type already set
+     */
+    public ApiRequest.ApiRequestBuilder request(Object... pathParams) {
+        return ApiRequest.builder()
+                .endpoint(this)
+                .method(method)
+                .path(template.template())
+                .pathParams(pathParams)
+                .contentType(contentType);
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + template.template();
+    }
+}
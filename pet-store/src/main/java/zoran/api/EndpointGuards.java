@@ -0,0 +1,143 @@
+package zoran.api;
+
+import io.restassured.response.Response;
+import zoran.config.Config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * JVM-wide circuit breakers and rate limiters, one per endpoint path template such as {@code /pet/{petId}}.
+ *
+ * <p>Settings (config.properties or system properties):</p>
+ * <ul>
+ *     <li>{@code api.breaker.enabled} - turn circuit breaking on or off (default true)</li>
+ *     <li>{@code api.breaker.failure.threshold} - consecutive failures that open a circuit (default 5)</li>
+ *     <li>{@code api.breaker.open.ms} - how long a circuit stays open before probing (default 5000)</li>
+ *     <li>{@code api.breaker.half.open.probes} - calls let through while half-open (default 1)</li>
+ *     <li>{@code api.ratelimit.<template>} - requests per second for one endpoint, e.g.
+ *         {@code api.ratelimit./store/order=20}; endpoints without a setting use {@code api.ratelimit.default}
+ *         and are unlimited when that is not set either</li>
+ *     <li>{@code api.ratelimit.burst.<template>} - bucket size, defaults to one second worth of requests</li>
+ * </ul>
+ */
+public final class EndpointGuards {
+    private static final EndpointGuards SHARED = new EndpointGuards(new Config());
+
+    private final Config config;
+    private final boolean breakerEnabled;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Map<String, Optional<RateLimiter>> limiters = new ConcurrentHashMap<>();
+
+    EndpointGuards(Config config) {
+        this.config = config;
+        this.breakerEnabled = config.getBoolean("api.breaker.enabled", true);
+    }
+
+    public static EndpointGuards shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param template Endpoint path template, e.g. /pet/{petId}
+     * @return The circuit breaker for that endpoint
+     */
+    public CircuitBreaker breaker(String template) {
+        return breakers.computeIfAbsent(template, key -> new CircuitBreaker(key,
+                config.getInt("api.breaker.failure.threshold", 5),
+                Duration.ofMillis(config.getLong("api.breaker.open.ms", 5_000)),
+                config.getInt("api.breaker.half.open.probes", 1)));
+    }
+
+    /**
+     * @param template Endpoint path template, e.g. /pet/{petId}
+     * @return The rate limiter for that endpoint, or empty when it is not rate limited
+     */
+    public Optional<RateLimiter> rateLimiter(String template) {
+        return limiters.computeIfAbsent(template, key -> {
+            String rate = config.get("api.ratelimit." + key, config.get("api.ratelimit.default", null));
+            if (rate == null || rate.isBlank()) {
+                return Optional.empty();
+            }
+            double permitsPerSecond = Double.parseDouble(rate.trim());
+            String burst = config.get("api.ratelimit.burst." + key, null);
+            return Optional.of(new RateLimiter(key, permitsPerSecond,
+                    burst == null || burst.isBlank() ? Math.max(1, permitsPerSecond) : Double.parseDouble(burst.trim())));
+        });
+    }
+
+    /**
+     * Makes one call to the request's endpoint if its rate limit and circuit allow it, and records the outcome
+     * @throws RateLimiter.RateLimitExceededException when the endpoint is over its rate limit
+     * @throws CircuitBreaker.CircuitOpenException when the endpoint's circuit is open
+     */
+    Response call(ApiRequest request, Supplier<Response> call) {
+        CircuitBreaker breaker = admit(request.getPath());
+        Response response;
+        try {
+            response = call.get();
+        } catch (RuntimeException e) {
+            if (breaker != null) {
+                recordFailure(breaker, e);
+            }
+            throw e;
+        }
+        if (breaker != null) {
+            breaker.onResponse(response.getStatusCode());
+        }
+        return response;
+    }
+
+    /**
+     * Async counterpart of {@link #call}; rejections complete the future exceptionally
+     */
+    CompletableFuture<Response> callAsync(ApiRequest request, Supplier<CompletableFuture<Response>> call) {
+        CircuitBreaker breaker;
+        try {
+            breaker = admit(request.getPath());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<Response> pending;
+        try {
+            pending = call.get();
+        } catch (RuntimeException e) {
+            pending = CompletableFuture.failedFuture(e);
+        }
+        if (breaker == null) {
+            return pending;
+        }
+        return pending.whenComplete((response, error) -> {
+            if (error != null) {
+                recordFailure(breaker, error);
+            } else {
+                breaker.onResponse(response.getStatusCode());
+            }
+        });
+    }
+
+    /**
+     * Network failures count against the endpoint; other errors, raised before the server was reached, do not
+     */
+    private static void recordFailure(CircuitBreaker breaker, Throwable error) {
+        if (RetryPolicy.isNetworkFailure(error)) {
+            breaker.onFailure();
+        } else {
+            breaker.onIgnored();
+        }
+    }
+
+    private CircuitBreaker admit(String template) {
+        rateLimiter(template).ifPresent(RateLimiter::acquire);
+        if (!breakerEnabled) {
+            return null;
+        }
+        CircuitBreaker breaker = breaker(template);
+        breaker.acquirePermission();
+        return breaker;
+    }
+}
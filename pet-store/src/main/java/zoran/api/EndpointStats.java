@@ -0,0 +1,117 @@
+package zoran.api;
+
+import lombok.Value;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Snapshot of the calls made to one endpoint, e.g. {@code GET /pet/{petId}}, since the last reset
+ */
+@Value
+public class EndpointStats {
+    String method;
+    String template;
+    long requests;
+    long status2xx;
+    long status3xx;
+    long status4xx;
+    long status5xx;
+    /** Calls that got no response at all: network errors, timeouts, open circuits */
+    long failures;
+    long bytesIn;
+    long bytesOut;
+    /** Latencies in nanoseconds; a copy, so it can be merged or exported freely */
+    Histogram latencies;
+    /** Latencies in nanoseconds from when each call was due, see {@link ApiMetrics#setIntendedStart} */
+    Histogram correctedLatencies;
+    /** Nanoseconds per phase, for the calls where the phase was measured */
+    Map<PhaseTimings.Phase, Histogram> phases;
+
+    /**
+     * @return Calls that failed or got a 4xx or 5xx response
+     */
+    public long errors() {
+        return status4xx + status5xx + failures;
+    }
+
+    /**
+     * @param percentile e.g. 99.9
+     */
+    public Duration latencyAt(double percentile) {
+        return Duration.ofNanos(latencies.getValueAtPercentile(percentile));
+    }
+
+    public Duration p50() {
+        return latencyAt(50);
+    }
+
+    public Duration p90() {
+        return latencyAt(90);
+    }
+
+    public Duration p99() {
+        return latencyAt(99);
+    }
+
+    public Duration p999() {
+        return latencyAt(99.9);
+    }
+
+    public Duration max() {
+        return Duration.ofNanos(latencies.getMaxValue());
+    }
+
+    /**
+     * @param percentile e.g. 99.9
+     * @return Latency from when calls were due; the same as {@link #latencyAt} unless a load generator set it
+     */
+    public Duration correctedLatencyAt(double percentile) {
+        return Duration.ofNanos(correctedLatencies.getValueAtPercentile(percentile));
+    }
+
+    public Duration correctedP99() {
+        return correctedLatencyAt(99);
+    }
+
+    /**
+     * @return Time the phase took at the percentile, or null when it was never measured for this endpoint
+     */
+    public Duration phaseAt(PhaseTimings.Phase phase, double percentile) {
+        Histogram histogram = phases.get(phase);
+        return histogram == null || histogram.getTotalCount() == 0 ? null
+                : Duration.ofNanos(histogram.getValueAtPercentile(percentile));
+    }
+
+    public Duration mean() {
+        return Duration.ofNanos((long) latencies.getMean());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(String.format("%s %s: requests=%d errors=%d (4xx=%d, 5xx=%d, failed=%d)"
+                        + " p50=%.1fms p90=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms in=%dB out=%dB",
+                method, template, requests, errors(), status4xx, status5xx, failures,
+                millis(p50()), millis(p90()), millis(p99()), millis(p999()), millis(max()), bytesIn, bytesOut));
+        if (!correctedLatencies.equals(latencies)) {
+            text.append(String.format(" | corrected p50=%.1fms p90=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms",
+                    millis(correctedLatencyAt(50)), millis(correctedLatencyAt(90)), millis(correctedP99()),
+                    millis(correctedLatencyAt(99.9)), millis(Duration.ofNanos(correctedLatencies.getMaxValue()))));
+        }
+        String separator = " | p50/p99 ";
+        for (PhaseTimings.Phase phase : PhaseTimings.Phase.values()) {
+            Duration p50 = phaseAt(phase, 50);
+            if (p50 != null) {
+                text.append(separator).append(phase.name().toLowerCase()).append('=')
+                        .append(String.format("%.1f/%.1fms", millis(p50), millis(phaseAt(phase, 99))));
+                separator = " ";
+            }
+        }
+        return text.toString();
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1_000_000.0;
+    }
+}
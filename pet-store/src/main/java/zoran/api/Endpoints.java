@@ -0,0 +1,82 @@
+package zoran.api;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every operation of the Petstore API, compiled once when the class loads
+ */
+public final class Endpoints {
+    private static final String FORM = "application/x-www-form-urlencoded; charset=utf-8";
+    private static final String MULTIPART = "multipart/form-data";
+
+    private static final Map<String, Endpoint> BY_OPERATION_ID = new LinkedHashMap<>();
+    /** Method, then path template; two lookups without building a key string per call */
+    private static final Map<String, Map<String, Endpoint>> BY_ROUTE = new HashMap<>();
+
+    // pet
+    public static final Endpoint ADD_PET = register("addPet", "POST", "/pet", null);
+    public static final Endpoint UPDATE_PET = register("updatePet", "PUT", "/pet", null);
+    public static final Endpoint FIND_PETS_BY_STATUS = register("findPetsByStatus", "GET", "/pet/findByStatus", null);
+    public static final Endpoint GET_PET_BY_ID = register("getPetById", "GET", "/pet/{petId}", null);
+    public static final Endpoint UPDATE_PET_WITH_FORM = register("updatePetWithForm", "POST", "/pet/{petId}", FORM);
+    public static final Endpoint DELETE_PET = register("deletePet", "DELETE", "/pet/{petId}", null);
+    public static final Endpoint UPLOAD_FILE = register("uploadFile", "POST", "/pet/{petId}/uploadImage", MULTIPART);
+
+    // store
+    public static final Endpoint GET_INVENTORY = register("getInventory", "GET", "/store/inventory", null);
+    public static final Endpoint PLACE_ORDER = register("placeOrder", "POST", "/store/order", null);
+    public static final Endpoint GET_ORDER_BY_ID = register("getOrderById", "GET", "/store/order/{orderId}", null);
+    public static final Endpoint DELETE_ORDER = register("deleteOrder", "DELETE", "/store/order/{orderId}", null);
+
+    // user
+    public static final Endpoint CREATE_USER = register("createUser", "POST", "/user", null);
+    public static final Endpoint CREATE_USERS_WITH_ARRAY = register("createUsersWithArrayInput", "POST", "/user/createWithArray", null);
+    public static final Endpoint CREATE_USERS_WITH_LIST = register("createUsersWithListInput", "POST", "/user/createWithList", null);
+    public static final Endpoint LOGIN_USER = register("loginUser", "GET", "/user/login", null);
+    public static final Endpoint LOGOUT_USER = register("logoutUser", "GET", "/user/logout", null);
+    public static final Endpoint GET_USER_BY_NAME = register("getUserByName", "GET", "/user/{username}", null);
+    public static final Endpoint UPDATE_USER = register("updateUser", "PUT", "/user/{username}", null);
+    public static final Endpoint DELETE_USER = register("deleteUser", "DELETE", "/user/{username}", null);
+
+    private Endpoints() {
+    }
+
+    private static Endpoint register(String operationId, String method, String path, String contentType) {
+        Endpoint endpoint = new Endpoint(operationId, method, path, contentType);
+        BY_OPERATION_ID.put(operationId, endpoint);
+        BY_ROUTE.computeIfAbsent(method, m -> new HashMap<>()).put(path, endpoint);
+        return endpoint;
+    }
+
+    /**
+     * @return The endpoint with this operation id, e.g. getPetById
+     * @throws IllegalArgumentException if the API has no such operation
+     */
+    public static Endpoint byOperationId(String operationId) {
+        Endpoint endpoint = BY_OPERATION_ID.get(operationId);
+        if (endpoint == null) {
+            throw new IllegalArgumentException("Unknown operation: " + operationId);
+        }
+        return endpoint;
+    }
+
+    /**
+     * @param method HTTP method, e.g. GET
+     * @param path Path template, e.g. /pet/{petId}
+     * @return The registered endpoint, or null for a route the API does not describe
+     */
+    public static Endpoint find(String method, String path) {
+        Map<String, Endpoint> paths = BY_ROUTE.get(method);
+        return paths == null ? null : paths.get(path);
+    }
+
+    /**
+     * @return All endpoints, in the order of the API description
+     */
+    public static List<Endpoint> all() {
+        return List.copyOf(BY_OPERATION_ID.values());
+    }
+}
@@ -0,0 +1,190 @@
+package zoran.api;
+
+import io.restassured.response.Response;
+import zoran.config.Config;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the last few HTTP exchanges of the current thread for failure diagnostics, instead of logging every
+ * request and response. A test hook dumps them into the report only when a scenario fails.
+ *
+ * <p>Each thread that calls a client gets its own fixed ring of {@code api.diagnostics.exchanges} slots
+ * (default 20, 0 turns recording off) allocated once, with room for {@code api.diagnostics.body.bytes} of
+ * each response body (default 2048); recording copies at most that much and overwrites the oldest slot.
+ * Request bodies are kept by reference and only rendered when dumped. Async calls made through a client
+ * record into the ring of the thread that started them.</p>
+ */
+public final class ExchangeRecorder {
+    private static final Config CONFIG = new Config();
+    private static final int CAPACITY = CONFIG.getInt("api.diagnostics.exchanges", 20);
+    private static final int BODY_BYTES = CONFIG.getInt("api.diagnostics.body.bytes", 2_048);
+    private static final ThreadLocal<ExchangeRecorder> CURRENT = ThreadLocal.withInitial(() -> new ExchangeRecorder(CAPACITY, BODY_BYTES));
+    /** Records nothing; set on threads that should not get a ring */
+    private static final ExchangeRecorder OFF = new ExchangeRecorder(0, 0);
+
+    private final Slot[] slots;
+    private final int bodyBytes;
+    private long recorded;
+
+    ExchangeRecorder(int capacity, int bodyBytes) {
+        this.slots = new Slot[capacity];
+        this.bodyBytes = bodyBytes;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot(bodyBytes);
+        }
+    }
+
+    /**
+     * @return The recorder of the calling thread, or of the thread that started the current async call
+     */
+    public static ExchangeRecorder current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Stops recording on this thread, without allocating a ring for it, until {@link #resumeRecording()}.
+     * Meant for short-lived threads whose exchanges nobody will read, such as a load generator's arrivals.
+     */
+    public static void pauseRecording() {
+        CURRENT.set(OFF);
+    }
+
+    /**
+     * Ends a pause; the thread starts a new ring the next time it records
+     */
+    public static void resumeRecording() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Makes the call record into the caller's ring when it runs on another thread
+     */
+    static <T> Supplier<T> bind(Supplier<T> call) {
+        if (CAPACITY == 0) {
+            return call;
+        }
+        ExchangeRecorder recorder = current();
+        return () -> {
+            ExchangeRecorder previous = CURRENT.get();
+            CURRENT.set(recorder);
+            try {
+                return call.get();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * @param startNanos {@link System#nanoTime()} when the request was sent
+     */
+    void record(ApiRequest request, Response response, long startNanos) {
+        if (slots.length > 0) {
+            next().fill(request, response.getStatusCode(), response.asByteArray(), null, startNanos);
+        }
+    }
+
+    void recordFailure(ApiRequest request, Throwable error, long startNanos) {
+        if (slots.length > 0) {
+            next().fill(request, -1, null, error, startNanos);
+        }
+    }
+
+    /**
+     * Forgets everything recorded so far, e.g. at the start of a scenario
+     */
+    public synchronized void clear() {
+        recorded = 0;
+    }
+
+    /**
+     * @return Number of exchanges currently held, at most the ring capacity
+     */
+    public synchronized int size() {
+        return (int) Math.min(recorded, slots.length);
+    }
+
+    /**
+     * @return The held exchanges, oldest first, as readable text
+     */
+    public synchronized String dump() {
+        StringBuilder out = new StringBuilder();
+        int held = size();
+        for (long i = recorded - held; i < recorded; i++) {
+            slots[(int) (i % slots.length)].appendTo(out, bodyBytes);
+        }
+        return out.toString();
+    }
+
+    private synchronized Slot next() {
+        return slots[(int) (recorded++ % slots.length)];
+    }
+
+    private static final class Slot {
+        final byte[] responseBody;
+        long timestampMillis;
+        String requestLine;
+        Object requestBody;
+        int statusCode;
+        long durationMicros;
+        int responseLength;
+        int responseCopied;
+        String error;
+
+        Slot(int bodyBytes) {
+            this.responseBody = new byte[bodyBytes];
+        }
+
+        synchronized void fill(ApiRequest request, int statusCode, byte[] body, Throwable error, long startNanos) {
+            this.timestampMillis = System.currentTimeMillis();
+            this.durationMicros = (System.nanoTime() - startNanos) / 1_000;
+            this.requestLine = request.requestLine();
+            this.requestBody = request.getBody() != null ? request.getBody()
+                    : request.getFormParams().isEmpty() ? null : request.getFormParams();
+            this.statusCode = statusCode;
+            this.responseLength = body == null ? 0 : body.length;
+            this.responseCopied = Math.min(responseLength, responseBody.length);
+            if (responseCopied > 0) {
+                System.arraycopy(body, 0, responseBody, 0, responseCopied);
+            }
+            this.error = error == null ? null : error.toString();
+        }
+
+        synchronized void appendTo(StringBuilder out, int bodyBytes) {
+            out.append(Instant.ofEpochMilli(timestampMillis)).append(' ').append(requestLine)
+                    .append(" -> ").append(statusCode < 0 ? "no response" : String.valueOf(statusCode))
+                    .append(" in ").append(durationMicros / 1_000.0).append(" ms\n");
+            if (requestBody != null) {
+                out.append("  request:  ").append(truncate(render(requestBody), bodyBytes)).append('\n');
+            }
+            if (responseLength > 0) {
+                out.append("  response: ").append(new String(responseBody, 0, responseCopied, StandardCharsets.UTF_8));
+                if (responseLength > responseCopied) {
+                    out.append("... (").append(responseLength).append(" bytes)");
+                }
+                out.append('\n');
+            }
+            if (error != null) {
+                out.append("  error:    ").append(error).append('\n');
+            }
+        }
+
+        private static String render(Object body) {
+            if (body instanceof String text) {
+                return text;
+            }
+            try {
+                return Json.mapper().writeValueAsString(body);
+            } catch (Exception e) {
+                return String.valueOf(body);
+            }
+        }
+
+        private static String truncate(String text, int bodyBytes) {
+            return text.length() <= bodyBytes ? text : text.substring(0, bodyBytes) + "... (" + text.length() + " chars)";
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package zoran.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.restassured.response.Response;
+import zoran.config.Config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+
+/**
+ * Non-blocking transport on top of {@link java.net.http.HttpClient}. Requests are multiplexed
+ * over HTTP/2 where the server supports it and async calls never hold a thread while waiting,
+ * so thousands of requests can be in flight at once. A single client, and therefore a single
+ * connection cache, is shared by every transport instance in the JVM.
+ */
+public class HttpClientTransport implements ApiTransport {
+    static {
+        // The JDK client keeps its own connection cache; size it with the same settings as ConnectionPool.
+        // These are read once when the java.net.http implementation is initialised.
+        Config config = new Config();
+        if (System.getProperty("jdk.httpclient.connectionPoolSize") == null) {
+            System.setProperty("jdk.httpclient.connectionPoolSize",
+                    String.valueOf(config.getInt("api.pool.max.total", 200)));
+        }
+        if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+            System.setProperty("jdk.httpclient.keepalive.timeout",
+                    String.valueOf(Math.max(1, config.getLong("api.pool.keepalive.ms", 60_000) / 1000)));
+        }
+    }
+
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private final String baseUrl;
+    private final Map<String, String> defaultHeaders;
+    private final Duration requestTimeout;
+
+    /**
+     * @param baseUrl Base URL every request path is resolved against
+     * @param defaultHeaders Headers sent with every request unless the request overrides them
+     * @param requestTimeout Maximum time to wait for a response
+     */
+    public HttpClientTransport(String baseUrl, Map<String, String> defaultHeaders, Duration requestTimeout) {
+        this.baseUrl = baseUrl;
+        this.defaultHeaders = Map.copyOf(defaultHeaders);
+        this.requestTimeout = requestTimeout;
+    }
+
+    @Override
+    public Response execute(ApiRequest request) {
+        try {
+            HttpRequest httpRequest = toHttpRequest(request);
+            TimedBodyHandler handler = new TimedBodyHandler();
+            return handler.report(request, HTTP_CLIENT.send(httpRequest, handler));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for " + request.getMethod() + " " + request.getPath(), e);
+        }
+    }
+
+    @Override
+    public StreamingResponse executeStreaming(ApiRequest request) {
+        try {
+            HttpResponse<InputStream> response = HTTP_CLIENT.send(toHttpRequest(request), HttpResponse.BodyHandlers.ofInputStream());
+            String encoding = response.headers().firstValue("Content-Encoding").orElse(null);
+            return new StreamingResponse(response.statusCode(), Compression.decode(encoding, response.body()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for " + request.getMethod() + " " + request.getPath(), e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(ApiRequest request) {
+        HttpRequest httpRequest = toHttpRequest(request);
+        TimedBodyHandler handler = new TimedBodyHandler();
+        return HTTP_CLIENT.sendAsync(httpRequest, handler)
+                .thenApply(response -> handler.report(request, response));
+    }
+
+    /**
+     * Reads the body into a byte array, noting when the headers arrived and when the body was complete.
+     * The JDK client gives no hook into connection setup, so that is part of the time to first byte.
+     */
+    private static final class TimedBodyHandler implements HttpResponse.BodyHandler<byte[]> {
+        private final long start = System.nanoTime();
+        private volatile long headersReceived = -1;
+        private volatile long bodyRead = -1;
+
+        @Override
+        public HttpResponse.BodySubscriber<byte[]> apply(HttpResponse.ResponseInfo responseInfo) {
+            headersReceived = System.nanoTime();
+            return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), body -> {
+                bodyRead = System.nanoTime();
+                return body;
+            });
+        }
+
+        /**
+         * Records the exchange's timings with its endpoint's metrics and returns the response carrying them
+         */
+        Response report(ApiRequest request, HttpResponse<byte[]> response) {
+            long headers = headersReceived;
+            long body = bodyRead;
+            PhaseTimings timings = new PhaseTimings(-1, -1, -1,
+                    headers < 0 ? -1 : headers - start, headers < 0 || body < 0 ? -1 : body - headers);
+            ApiMetrics.global().recordPhases(request, timings);
+            return toResponse(response, timings);
+        }
+    }
+
+    private HttpRequest toHttpRequest(ApiRequest request) {
+        String query = PathTemplates.query(request.getQueryParams());
+        URI uri = URI.create(baseUrl + request.expandedPath() + (query.isEmpty() ? "" : "?" + query));
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(requestTimeout);
+        defaultHeaders.forEach((name, value) -> {
+            if (!request.getHeaders().containsKey(name)) {
+                builder.setHeader(name, value);
+            }
+        });
+        request.getHeaders().forEach(builder::setHeader);
+
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.noBody();
+        if (!request.getMultiParts().isEmpty()) {
+            String boundary = "----petstore-" + UUID.randomUUID();
+            builder.setHeader("Content-Type", "multipart/form-data; boundary=" + boundary);
+            body = multipartBody(request, boundary);
+        } else if (!request.getFormParams().isEmpty()) {
+            builder.setHeader("Content-Type", request.getContentType() != null
+                    ? request.getContentType() : "application/x-www-form-urlencoded; charset=utf-8");
+            body = HttpRequest.BodyPublishers.ofString(PathTemplates.form(request.getFormParams()));
+        } else if (request.getBody() != null) {
+            builder.setHeader("Content-Type", request.getContentType() != null
+                    ? request.getContentType() : "application/json");
+            body = HttpRequest.BodyPublishers.ofByteArray(jsonBody(request.getBody()));
+        } else if (request.getContentType() != null) {
+            builder.setHeader("Content-Type", request.getContentType());
+        }
+
+        return builder.method(request.getMethod(), body).build();
+    }
+
+    private static byte[] jsonBody(Object body) {
+        if (body instanceof byte[] bytes) {
+            return bytes;
+        }
+        if (body instanceof String text) {
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            return Json.mapper().writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize request body: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Streams the parts one after another: files are read from disk and buffers sent as slices while the
+     * request is written, so no part is copied onto the heap as a whole
+     */
+    private static HttpRequest.BodyPublisher multipartBody(ApiRequest request, String boundary) {
+        List<HttpRequest.BodyPublisher> pieces = new ArrayList<>();
+        try {
+            for (MultiPart part : request.getMultiParts()) {
+                StringBuilder header = new StringBuilder()
+                        .append("--").append(boundary).append("\r\n")
+                        .append("Content-Disposition: form-data; name=\"").append(part.getName()).append('"');
+                if (part.getFileName() != null) {
+                    header.append("; filename=\"").append(part.getFileName()).append('"');
+                }
+                header.append("\r\nContent-Type: ").append(part.getMimeType()).append("\r\n\r\n");
+                pieces.add(HttpRequest.BodyPublishers.ofString(header.toString(), StandardCharsets.UTF_8));
+                if (part.isFile()) {
+                    pieces.add(HttpRequest.BodyPublishers.ofFile(part.getFile().toPath()));
+                } else if (part.isText()) {
+                    pieces.add(HttpRequest.BodyPublishers.ofString(part.getText(), StandardCharsets.UTF_8));
+                } else if (part.getBuffer() != null) {
+                    pieces.add(HttpRequest.BodyPublishers.fromPublisher(new BufferPublisher(part.getBuffer()), part.length()));
+                } else {
+                    pieces.add(HttpRequest.BodyPublishers.ofInputStream(() -> {
+                        try {
+                            return part.openStream();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException("Failed to open content of part " + part.getName(), e);
+                        }
+                    }));
+                }
+                pieces.add(HttpRequest.BodyPublishers.ofString("\r\n"));
+            }
+            pieces.add(HttpRequest.BodyPublishers.ofString("--" + boundary + "--\r\n"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to build multipart body", e);
+        }
+        return HttpRequest.BodyPublishers.concat(pieces.toArray(HttpRequest.BodyPublisher[]::new));
+    }
+
+    /**
+     * Publishes a buffer as read-only slices of at most 64 KiB, which share its memory rather than copy it
+     */
+    private static final class BufferPublisher implements Flow.Publisher<ByteBuffer> {
+        private static final int SLICE_BYTES = 64 * 1024;
+
+        private final ByteBuffer buffer;
+
+        BufferPublisher(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            ByteBuffer remaining = buffer.duplicate();
+            subscriber.onSubscribe(new Flow.Subscription() {
+                private long demand;
+                private boolean emitting;
+                private boolean done;
+
+                @Override
+                public synchronized void request(long n) {
+                    if (done) {
+                        return;
+                    }
+                    if (n <= 0) {
+                        done = true;
+                        subscriber.onError(new IllegalArgumentException("Requested " + n + " slices"));
+                        return;
+                    }
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                    if (emitting) {
+                        return; // onNext called back into request; the loop below picks up the new demand
+                    }
+                    emitting = true;
+                    while (demand > 0 && remaining.hasRemaining() && !done) {
+                        demand--;
+                        int size = Math.min(SLICE_BYTES, remaining.remaining());
+                        ByteBuffer slice = remaining.slice(remaining.position(), size);
+                        remaining.position(remaining.position() + size);
+                        subscriber.onNext(slice);
+                    }
+                    emitting = false;
+                    if (!remaining.hasRemaining() && !done) {
+                        done = true;
+                        subscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public synchronized void cancel() {
+                    done = true;
+                }
+            });
+        }
+    }
+
+    private static Response toResponse(HttpResponse<byte[]> response, PhaseTimings timings) {
+        String encoding = response.headers().firstValue("Content-Encoding").orElse(null);
+        if (!Compression.isCompressed(encoding)) {
+            return Responses.of(response.statusCode(), response.headers().map(), response.body(), timings);
+        }
+        // The java.net.http client does not decode bodies; callers get them decoded, as with RestAssured
+        Map<String, List<String>> headers = new LinkedHashMap<>(response.headers().map());
+        headers.keySet().removeIf(name -> "content-encoding".equalsIgnoreCase(name) || "content-length".equalsIgnoreCase(name));
+        return Responses.of(response.statusCode(), headers, Compression.decode(encoding, response.body()), timings);
+    }
+}
@@ -0,0 +1,137 @@
+package zoran.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import io.restassured.config.ObjectMapperConfig;
+import io.restassured.path.json.mapper.factory.Jackson2ObjectMapperFactory;
+import zoran.models.ApiResponse;
+import zoran.models.Category;
+import zoran.models.Order;
+import zoran.models.Pet;
+import zoran.models.Tag;
+import zoran.models.User;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The one Jackson mapper every client and transport (de)serializes models with.
+ *
+ * <p>Property access goes through {@link BlackbirdModule}, which replaces reflective getter and setter calls
+ * with generated lambdas. Serializers and deserializers for all models are built when this class loads, so
+ * the first request of a run does not pay for introspecting them. Date-times use one precompiled
+ * formatter: written as {@code 2024-05-01T10:15:30.000+02:00}, read with or without millis and with
+ * {@code +02:00}, {@code +0200} or {@code Z} offsets. The write format is the {@code @JsonFormat} pattern on
+ * {@link Order#getShipDate()}, so mappers other than this one write ship dates the same way.</p>
+ */
+public final class Json {
+    static final DateTimeFormatter DATE_TIME_WRITE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+    static final DateTimeFormatter DATE_TIME_READ_FORMAT = new DateTimeFormatterBuilder()
+            .append(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+            .optionalStart().appendOffset("+HH:MM", "Z").optionalEnd()
+            .optionalStart().appendOffset("+HHMM", "Z").optionalEnd()
+            .toFormatter();
+
+    private static final List<Class<?>> MODELS = List.of(Pet.class, Category.class, Tag.class, Order.class, User.class, ApiResponse.class);
+
+    private static final ObjectMapper MAPPER = createMapper();
+    private static final Map<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+
+    static {
+        for (Class<?> model : MODELS) {
+            // Resolving the root (de)serializer builds and caches the whole bean tree up front
+            reader(model);
+            writer(model);
+        }
+    }
+
+    private Json() {
+    }
+
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    /**
+     * @return A cached reader bound to the type, with its deserializer already resolved
+     */
+    public static ObjectReader reader(Class<?> type) {
+        return READERS.computeIfAbsent(type, MAPPER::readerFor);
+    }
+
+    /**
+     * @return A cached writer bound to the type, with its serializer already resolved
+     */
+    public static ObjectWriter writer(Class<?> type) {
+        return WRITERS.computeIfAbsent(type, MAPPER::writerFor);
+    }
+
+    /**
+     * @return RestAssured mapper settings that make {@code body(pet)} and {@code as(Pet.class)} use this mapper
+     */
+    public static ObjectMapperConfig objectMapperConfig() {
+        return ObjectMapperConfig.objectMapperConfig()
+                .jackson2ObjectMapperFactory((Jackson2ObjectMapperFactory) (type, charset) -> MAPPER);
+    }
+
+    private static ObjectMapper createMapper() {
+        SimpleModule dateTimes = new SimpleModule("PetStoreDateTimes")
+                .addSerializer(OffsetDateTime.class, new OffsetDateTimeSerializer())
+                .addDeserializer(OffsetDateTime.class, new OffsetDateTimeDeserializer());
+        return JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .addModule(dateTimes) // Registered after JavaTimeModule so it wins for OffsetDateTime
+                .addModule(new BlackbirdModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    private static final class OffsetDateTimeSerializer extends StdScalarSerializer<OffsetDateTime> {
+        OffsetDateTimeSerializer() {
+            super(OffsetDateTime.class);
+        }
+
+        @Override
+        public void serialize(OffsetDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeString(DATE_TIME_WRITE_FORMAT.format(value));
+        }
+    }
+
+    private static final class OffsetDateTimeDeserializer extends StdScalarDeserializer<OffsetDateTime> {
+        OffsetDateTimeDeserializer() {
+            super(OffsetDateTime.class);
+        }
+
+        @Override
+        public OffsetDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            String text = parser.getValueAsString();
+            if (text == null || text.isBlank()) {
+                return null;
+            }
+            try {
+                return OffsetDateTime.parse(text.trim(), DATE_TIME_READ_FORMAT);
+            } catch (DateTimeParseException e) {
+                return (OffsetDateTime) context.handleWeirdStringValue(OffsetDateTime.class, text, e.getMessage());
+            }
+        }
+    }
+}
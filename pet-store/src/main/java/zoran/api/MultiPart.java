@@ -0,0 +1,129 @@
+package zoran.api;
+
+import lombok.Value;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * One part of a multipart/form-data request: a file, a plain text field, or binary content from a stream,
+ * channel or buffer. Transports stream file and binary parts instead of loading them onto the heap.
+ */
+@Value
+public class MultiPart {
+    private static final String OCTET_STREAM = "application/octet-stream";
+
+    String name;
+    String fileName;
+    String mimeType;
+    File file;
+    String text;
+
+    /** Read-only view of the content for buffer parts; transports send slices of it, never a copy */
+    ByteBuffer buffer;
+
+    /** Opens the content of stream and channel parts; these can be sent only once */
+    Supplier<InputStream> stream;
+
+    public static MultiPart file(String name, File file) {
+        return new MultiPart(name, file.getName(), OCTET_STREAM, file, null, null, null);
+    }
+
+    public static MultiPart text(String name, String value) {
+        return new MultiPart(name, null, "text/plain", null, value, null, null);
+    }
+
+    /**
+     * Binary part read from the stream as it is sent. The stream is closed once sent and cannot be read
+     * again, so requests with such a part are sent without retries.
+     */
+    public static MultiPart stream(String name, String fileName, InputStream content) {
+        AtomicBoolean opened = new AtomicBoolean();
+        return new MultiPart(name, fileName, OCTET_STREAM, null, null, null, () -> {
+            if (opened.getAndSet(true)) {
+                throw new IllegalStateException("Content of part " + name + " was already sent and cannot be read again");
+            }
+            return content;
+        });
+    }
+
+    /**
+     * Binary part read from the channel as it is sent; like {@link #stream}, it can be sent only once
+     */
+    public static MultiPart channel(String name, String fileName, ReadableByteChannel content) {
+        return stream(name, fileName, Channels.newInputStream(content));
+    }
+
+    /**
+     * Binary part with the remaining bytes of the buffer. The buffer's position is not changed, so the part
+     * can be sent any number of times; direct and memory-mapped buffers are sent without copying them
+     * onto the heap.
+     */
+    public static MultiPart buffer(String name, String fileName, ByteBuffer content) {
+        return new MultiPart(name, fileName, OCTET_STREAM, null, null, content.asReadOnlyBuffer(), null);
+    }
+
+    /**
+     * Binary part backed by a read-only memory mapping of the file, for large files sent more than once
+     */
+    public static MultiPart mapped(String name, Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return buffer(name, file.getFileName().toString(), channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map " + file, e);
+        }
+    }
+
+    public boolean isFile() {
+        return file != null;
+    }
+
+    public boolean isText() {
+        return text != null;
+    }
+
+    /**
+     * @return Whether the content can be read only once, as for stream and channel parts
+     */
+    public boolean isOneShot() {
+        return stream != null;
+    }
+
+    /**
+     * @return Size of the content in bytes, or -1 when it is only known once the stream is read
+     */
+    public long length() {
+        if (file != null) {
+            return file.length();
+        }
+        if (buffer != null) {
+            return buffer.remaining();
+        }
+        return text != null ? text.getBytes(StandardCharsets.UTF_8).length : -1;
+    }
+
+    /**
+     * Opens the binary content of a file, buffer, stream or channel part
+     */
+    InputStream openStream() throws IOException {
+        if (buffer != null) {
+            return new ByteBufferInputStream(buffer.duplicate());
+        }
+        if (stream != null) {
+            return stream.get();
+        }
+        return Files.newInputStream(file.toPath());
+    }
+}
@@ -0,0 +1,86 @@
+package zoran.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A path template such as {@code /pet/{petId}/uploadImage}, parsed once into literal segments and
+ * placeholders so expanding it is a single pass of appends
+ */
+final class PathTemplate {
+    private static final Map<String, PathTemplate> COMPILED = new ConcurrentHashMap<>();
+
+    private final String template;
+    /** Literal text before each placeholder, then the text after the last one */
+    private final String[] literals;
+    private final int literalLength;
+
+    private PathTemplate(String template, String[] literals) {
+        this.template = template;
+        this.literals = literals;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * @return The compiled template, parsed on first use and shared afterwards
+     */
+    static PathTemplate of(String template) {
+        PathTemplate compiled = COMPILED.get(template);
+        return compiled != null ? compiled : COMPILED.computeIfAbsent(template, PathTemplate::parse);
+    }
+
+    private static PathTemplate parse(String template) {
+        List<String> literals = new ArrayList<>();
+        int start = 0;
+        int open;
+        while ((open = template.indexOf('{', start)) >= 0) {
+            int close = template.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in path template " + template);
+            }
+            literals.add(template.substring(start, open));
+            start = close + 1;
+        }
+        literals.add(template.substring(start));
+        return new PathTemplate(template, literals.toArray(String[]::new));
+    }
+
+    String template() {
+        return template;
+    }
+
+    int placeholders() {
+        return literals.length - 1;
+    }
+
+    /**
+     * @param params Values for the placeholders, in order
+     * @return The expanded, URL-encoded path
+     */
+    String expand(Object... params) {
+        int placeholders = placeholders();
+        if (placeholders == 0 || params == null || params.length == 0) {
+            return template;
+        }
+        if (params.length < placeholders) {
+            throw new IllegalArgumentException("Cannot expand path template " + template
+                    + " with " + params.length + " parameter(s)");
+        }
+        StringBuilder path = new StringBuilder(literalLength + 16 * placeholders);
+        for (int i = 0; i < placeholders; i++) {
+            path.append(literals[i]).append(PathTemplates.encode(String.valueOf(params[i])));
+        }
+        return path.append(literals[placeholders]).toString();
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+}
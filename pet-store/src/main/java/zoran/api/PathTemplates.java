@@ -0,0 +1,62 @@
+package zoran.api;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Helpers for turning path templates and parameters into request URLs
+ */
+final class PathTemplates {
+
+    private PathTemplates() {
+    }
+
+    /**
+     * Replaces each {placeholder} in the template with the next parameter, in order
+     * @param template Path template such as /pet/{petId}
+     * @param params Values for the placeholders
+     * @return The expanded, URL-encoded path
+     */
+    static String expand(String template, Object... params) {
+        return PathTemplate.of(template).expand(params);
+    }
+
+    /**
+     * @return The query string (without the leading '?') or an empty string when there are no parameters
+     */
+    static String query(Map<String, List<String>> queryParams) {
+        if (queryParams == null || queryParams.isEmpty()) {
+            return "";
+        }
+        StringJoiner query = new StringJoiner("&");
+        queryParams.forEach((name, values) -> values.forEach(value ->
+                query.add(encode(name) + "=" + encode(value))));
+        return query.toString();
+    }
+
+    /**
+     * @return An application/x-www-form-urlencoded body for the fields
+     */
+    static String form(Map<String, String> formParams) {
+        StringJoiner form = new StringJoiner("&");
+        formParams.forEach((name, value) -> form.add(encode(name) + "=" + encode(value)));
+        return form.toString();
+    }
+
+    static String encode(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!isUnreserved(value.charAt(i))) {
+                return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+            }
+        }
+        return value; // IDs, usernames and statuses usually need no encoding
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c == '.' || c == '*';
+    }
+}
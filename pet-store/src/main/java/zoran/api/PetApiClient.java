@@ -1,28 +1,46 @@
 package zoran.api;
 
-import io.restassured.RestAssured;
-import io.restassured.builder.RequestSpecBuilder;
-import io.restassured.http.ContentType;
+import com.fasterxml.jackson.databind.MappingIterator;
+import io.restassured.common.mapper.TypeRef;
 import io.restassured.response.Response;
-import zoran.config.ApiConfig;
 import zoran.models.Pet;
 import java.util.Map;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
-import io.restassured.specification.RequestSpecification;
-
-import static io.restassured.RestAssured.given;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Client for interacting with the Pet API endpoints
  */
 public class PetApiClient extends BaseApiClient {
-    
+    private static final ApiLogger LOG = ApiLogger.getLogger(PetApiClient.class);
+    private static final TypeRef<List<Pet>> PET_LIST = new TypeRef<>() {};
     public PetApiClient() {
         super();
     }
 
+    /**
+     * @param baseUrl Where to send requests instead of the configured URL, e.g. a {@code PetStoreStub}'s
+     */
+    public PetApiClient(String baseUrl) {
+        super(baseUrl);
+    }
+
     /**
      * Add a new pet to the store and return the full response
      * @param pet The pet to add
@@ -30,34 +48,27 @@ public class PetApiClient extends BaseApiClient {
      */
     public Response addPetWithResponse(Pet pet) {
         try {
-            System.out.println("Adding new pet to store with full response: " + pet);
-            
-            // Log the request details
-            System.out.println("Sending POST request to /pet with body: " + 
-                "ID=" + pet.getId() + 
-                ", Name=" + pet.getName() + 
-                ", Status=" + pet.getStatus());
+            LOG.debug(() -> "Sending POST request to /pet with body: ID=" + pet.getId()
+                    + ", Name=" + pet.getName() + ", Status=" + pet.getStatus());
             
             Response response = post(pet, "/pet");
             
             // Log the response details
             int statusCode = response.getStatusCode();
-            String responseBody = response.getBody().asString();
-            System.out.println("Add pet response - Status: " + statusCode + ", Body: " + responseBody);
+            LOG.debug(() -> "Add pet response - Status: " + statusCode + ", Body: " + response.asString());
             
             // Check for error status codes
             if (statusCode != 200) {
                 String errorMsg = String.format("Failed to add pet. Status: %d, Response: %s", 
-                    statusCode, responseBody);
-                System.err.println(errorMsg);
+                    statusCode, response.asString());
+                LOG.warn(() -> errorMsg);
                 throw new RuntimeException(errorMsg);
             }
             
-            System.out.println("Successfully added pet with ID: " + response.jsonPath().getLong("id"));
             return response;
             
         } catch (Exception e) {
-            System.err.println("Error in addPetWithResponse: " + e.getMessage());
+            LOG.warn(() -> "Error in addPetWithResponse: " + e.getMessage());
             throw new RuntimeException("Failed to add pet: " + e.getMessage(), e);
         }
     }
@@ -92,40 +103,173 @@ public class PetApiClient extends BaseApiClient {
      * @return Response from the server
      */
     public Response uploadPetImage(Long petId, File file, String additionalMetadata) {
-        RequestSpecification spec = given()
-                .spec(requestSpec)
-                .contentType("multipart/form-data")
-                .multiPart("file", file);
-                
-        if (additionalMetadata != null) {
-            spec = spec.multiPart("additionalMetadata", additionalMetadata);
-        }
-        
-        return spec
-                .when()
-                .post("/pet/{petId}/uploadImage", petId)
+        return uploadPetImage(petId, MultiPart.file("file", file), additionalMetadata);
+    }
+
+    /**
+     * Upload an image for a pet, read from the stream while it is sent. The stream is closed afterwards
+     * and cannot be re-sent, so the upload is made once, without the client's retries.
+     * @param petId ID of pet to update
+     * @param image Image content
+     * @param fileName File name to send for the image
+     * @param additionalMetadata Additional data to pass to server
+     * @return Response from the server
+     */
+    public Response uploadPetImage(Long petId, InputStream image, String fileName, String additionalMetadata) {
+        return uploadPetImage(petId, MultiPart.stream("file", fileName, image), additionalMetadata);
+    }
+
+    /**
+     * Upload an image for a pet, read from the channel while it is sent; like the stream variant it cannot be re-sent
+     * @param petId ID of pet to update
+     * @param image Image content
+     * @param fileName File name to send for the image
+     * @param additionalMetadata Additional data to pass to server
+     * @return Response from the server
+     */
+    public Response uploadPetImage(Long petId, ReadableByteChannel image, String fileName, String additionalMetadata) {
+        return uploadPetImage(petId, MultiPart.channel("file", fileName, image), additionalMetadata);
+    }
+
+    /**
+     * Upload an image for a pet from the remaining bytes of a buffer, e.g. a memory-mapped file
+     * ({@link MultiPart#mapped}). The buffer is sent without being copied and its position is left as is.
+     * @param petId ID of pet to update
+     * @param image Image content
+     * @param fileName File name to send for the image
+     * @param additionalMetadata Additional data to pass to server
+     * @return Response from the server
+     */
+    public Response uploadPetImage(Long petId, ByteBuffer image, String fileName, String additionalMetadata) {
+        return uploadPetImage(petId, MultiPart.buffer("file", fileName, image), additionalMetadata);
+    }
+
+    /**
+     * Uploads several images for one pet in parallel, keeping up to {@code api.bulk.concurrency} uploads in flight
+     * @param petId ID of pet to update
+     * @param images Image files, streamed from disk
+     * @param additionalMetadata Additional data to pass to server with every image
+     * @return One result per image, in the same order; failed uploads do not stop the rest
+     */
+    public List<BulkResult<Path>> uploadPetImages(Long petId, Collection<Path> images, String additionalMetadata) {
+        return uploadPetImages(petId, images, additionalMetadata, bulkConcurrency());
+    }
+
+    /**
+     * Uploads several images for one pet in parallel, keeping up to {@code concurrency} uploads in flight
+     * @param petId ID of pet to update
+     * @param images Image files, streamed from disk
+     * @param additionalMetadata Additional data to pass to server with every image
+     * @param concurrency Maximum number of uploads in flight
+     * @return One result per image, in the same order; failed uploads do not stop the rest
+     */
+    public List<BulkResult<Path>> uploadPetImages(Long petId, Collection<Path> images, String additionalMetadata, int concurrency) {
+        return executeBulk(images, image -> uploadRequest(petId, MultiPart.file("file", image.toFile()), additionalMetadata),
+                status -> status == 200, concurrency);
+    }
+
+    private Response uploadPetImage(Long petId, MultiPart image, String additionalMetadata) {
+        return execute(uploadRequest(petId, image, additionalMetadata))
                 .then()
                 .statusCode(200)
                 .extract()
                 .response();
     }
 
+    private static ApiRequest uploadRequest(Long petId, MultiPart image, String additionalMetadata) {
+        ApiRequest.ApiRequestBuilder request = Endpoints.UPLOAD_FILE.request(petId)
+                .multiPart(image);
+        if (additionalMetadata != null) {
+            request.multiPart(MultiPart.text("additionalMetadata", additionalMetadata));
+        }
+        return request.build();
+    }
+
     /**
      * Find pets by status
      * @param status Status values that need to be considered for filter
      * @return List of pets matching the status
      */
     public List<Pet> findPetsByStatus(String... status) {
-        return given()
-                .spec(requestSpec)
-                .queryParam("status", (Object[]) status)
-                .when()
-                .get("/pet/findByStatus")
+        return findPetsByStatusWithResponse(status)
                 .then()
                 .statusCode(200)
                 .extract()
-                .jsonPath()
-                .getList("", Pet.class);
+                .as(PET_LIST);
+    }
+
+    /**
+     * Find pets by status and return the full response, e.g. to check the error for an invalid status
+     * @param status Status values that need to be considered for filter
+     * @return The full Response object containing the server response
+     */
+    public Response findPetsByStatusWithResponse(String... status) {
+        ApiRequest request = Endpoints.FIND_PETS_BY_STATUS.request()
+                .queryParam("status", List.of(status))
+                .build();
+        return execute(request);
+    }
+
+    /**
+     * Find pets by status without holding the whole result in memory. The response is parsed as the
+     * stream is consumed, one pet at a time, so memory stays flat however many pets match.
+     * Close the stream (try-with-resources) to release the connection.
+     * @param status Status values that need to be considered for filter
+     * @return Lazily parsed stream of the matching pets
+     */
+    public Stream<Pet> streamPetsByStatus(String... status) {
+        ApiRequest request = Endpoints.FIND_PETS_BY_STATUS.request()
+                .queryParam("status", List.of(status))
+                .build();
+        StreamingResponse response = executeStreaming(request);
+        try {
+            if (response.getStatusCode() != 200) {
+                throw new RuntimeException("Failed to find pets by status " + Arrays.toString(status)
+                        + ". Status code: " + response.getStatusCode());
+            }
+            MappingIterator<Pet> pets = Json.reader(Pet.class).readValues(response.getBody());
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pets, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(() -> {
+                        try (response) {
+                            pets.close();
+                        } catch (IOException e) {
+                            throw new RuntimeException("Failed to close pets stream: " + e.getMessage(), e);
+                        }
+                    });
+        } catch (IOException | RuntimeException e) {
+            try {
+                response.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new RuntimeException("Failed to stream pets by status: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Find pets by status and hand them to the action one at a time as they are parsed
+     * @param action Called for each matching pet
+     * @param status Status values that need to be considered for filter
+     * @return Number of pets found
+     */
+    public long forEachPetByStatus(Consumer<? super Pet> action, String... status) {
+        long[] count = {0};
+        try (Stream<Pet> pets = streamPetsByStatus(status)) {
+            pets.forEach(pet -> {
+                action.accept(pet);
+                count[0]++;
+            });
+        }
+        return count[0];
+    }
+
+    /**
+     * Find pet by ID and return the full response, whatever its status
+     * @param petId ID of pet to return
+     * @return The full Response object containing the server response
+     */
+    public Response getPetByIdWithResponse(Long petId) {
+        return get("/pet/{petId}", petId);
     }
 
     /**
@@ -135,22 +279,15 @@ public class PetApiClient extends BaseApiClient {
      */
     public Pet getPetById(Long petId) {
         try {
-            System.out.println("Attempting to get pet with ID: " + petId);
-            
-            // Make the request directly instead of using the base get() method
-            // so we can check the status code before extracting the response
-            Response response = given()
-                .spec(requestSpec)
-                .when()
-                .get("/pet/{petId}", petId);
+            // The base get() method returns the raw response,
+            // so we can check the status code before extracting it
+            Response response = get("/pet/{petId}", petId);
             
             int statusCode = response.getStatusCode();
-            System.out.println("Response status code for pet ID " + petId + ": " + statusCode);
-            System.out.println("Response body: " + response.getBody().asString());
+            LOG.debug(() -> "Get pet " + petId + " response - Status: " + statusCode + ", Body: " + response.asString());
                 
             if (statusCode == 404) {
                 String errorMsg = "404 Not Found - Pet with ID " + petId + " not found";
-                System.out.println(errorMsg);
                 throw new RuntimeException(errorMsg);
             }
             
@@ -160,11 +297,10 @@ public class PetApiClient extends BaseApiClient {
                     .extract()
                     .as(Pet.class);
             
-            System.out.println("Successfully retrieved pet: " + pet);
             return pet;
                     
         } catch (Exception e) {
-            System.err.println("Exception in getPetById for pet ID " + petId + ": " + e.getMessage());
+            LOG.debug(() -> "Exception in getPetById for pet ID " + petId + ": " + e.getMessage());
             // If this is already our custom exception, rethrow it
             if (e.getMessage() != null && e.getMessage().contains("404")) {
                 throw e;
@@ -204,14 +340,8 @@ public class PetApiClient extends BaseApiClient {
         }
         
         try {
-            // Log the request
-            System.out.println("Updating pet " + petId + " - Name: " + name + ", Status: " + status);
-            
             // Build the form data
-            RequestSpecBuilder requestBuilder = new RequestSpecBuilder()
-                    .setBaseUri(BASE_URL)
-                    .setContentType("application/x-www-form-urlencoded; charset=utf-8")
-                    .addHeader("api_key", "special-key");
+            ApiRequest.ApiRequestBuilder request = Endpoints.UPDATE_PET_WITH_FORM.request(petId);
             
             // Build form parameters
             Map<String, String> formParams = new HashMap<>();
@@ -222,30 +352,32 @@ public class PetApiClient extends BaseApiClient {
                 formParams.put("status", status);
             }
             
-            // Log the form parameters
-            System.out.println("Form parameters: " + formParams);
+            LOG.debug(() -> "Updating pet " + petId + " with form parameters: " + formParams);
             
             // Add form parameters to the request
             if (!formParams.isEmpty()) {
-                requestBuilder.addFormParams(formParams);
+                request.formParams(formParams);
             }
             
             // Make the request
-            return given()
-                    .spec(requestBuilder.build())
-                    .when()
-                    .post("/pet/{petId}", petId)
-                    .then()
-                    .extract()
-                    .response();
+            return execute(request.build());
                     
         } catch (Exception e) {
             String errorMsg = "Failed to update pet with form: " + e.getMessage();
-            System.err.println(errorMsg);
+            LOG.warn(() -> errorMsg);
             throw new RuntimeException(errorMsg, e);
         }
     }
 
+    /**
+     * Deletes a pet and returns the full response, e.g. the 404 for a pet that does not exist
+     * @param petId Pet id to delete
+     * @return The full Response object containing the server response
+     */
+    public Response deletePetWithResponse(Long petId) {
+        return delete("/pet/{petId}", petId);
+    }
+
     /**
      * Deletes a pet
      * @param petId Pet id to delete
@@ -263,43 +395,15 @@ public class PetApiClient extends BaseApiClient {
             if (response.getStatusCode() != 200) {
                 // Special case: If pet doesn't exist, the API returns 404
                 if (response.getStatusCode() == 404) {
-                    System.out.println("Pet with ID " + petId + " not found during deletion (404)");
+                    LOG.debug(() -> "Pet with ID " + petId + " not found during deletion (404)");
                     return; // Consider this a success for idempotency
                 }
                 throw new RuntimeException("Failed to delete pet with ID " + petId + 
                                   ". Status code: " + response.getStatusCode());
             }
             
-            // Verify the pet is actually deleted with retries
-            int maxRetries = 3;
-            int retryCount = 0;
-            boolean deleted = false;
-            
-            while (retryCount < maxRetries && !deleted) {
-                try {
-                    // Add a small delay before checking
-                    Thread.sleep(1000 * (retryCount + 1));
-                    
-                    // Try to get the pet - should throw 404
-                    getPetById(petId);
-                    
-                    // If we get here, the pet still exists
-                    retryCount++;
-                    System.out.println("Pet " + petId + " still exists, retry " + retryCount + "/" + maxRetries);
-                } catch (Exception e) {
-                    // Check if this is the expected 404 error
-                    if (e.getMessage() != null && e.getMessage().contains("404")) {
-                        deleted = true;
-                    } else {
-                        // Unexpected error
-                        throw new RuntimeException("Unexpected error verifying pet deletion: " + e.getMessage(), e);
-                    }
-                }
-            }
-            
-            if (!deleted) {
-                throw new RuntimeException("Pet with ID " + petId + " might not have been deleted successfully after " + maxRetries + " retries");
-            }
+            // Verify the pet is actually deleted; the store may keep serving it for a moment
+            join(awaitAbsent(petId));
         } catch (Exception e) {
             throw new RuntimeException("Error during pet deletion: " + e.getMessage(), e);
         }
@@ -320,17 +424,161 @@ public class PetApiClient extends BaseApiClient {
      * @return The API response message
      */
     public String uploadImage(Long petId, File file, String additionalMetadata) {
-        return given()
-                .spec(requestSpec)
-                .contentType(ContentType.MULTIPART)
-                .multiPart("file", file)
-                .formParam("additionalMetadata", additionalMetadata)
-                .when()
-                .post("/pet/{petId}/uploadImage", petId)
+        return execute(uploadRequest(petId, MultiPart.file("file", file), additionalMetadata))
                 .then()
                 .statusCode(200)
                 .extract()
                 .jsonPath()
                 .getString("message");
     }
-}
\ No newline at end of file
+
+    /**
+     * Async counterpart of {@link #addPet(Pet)}, run on a virtual thread
+     */
+    public CompletableFuture<Pet> addPetAsync(Pet pet) {
+        return async("addPet", () -> addPet(pet));
+    }
+
+    /**
+     * Async counterpart of {@link #updatePet(Pet)}, run on a virtual thread
+     */
+    public CompletableFuture<Pet> updatePetAsync(Pet pet) {
+        return async("updatePet", () -> updatePet(pet));
+    }
+
+    /**
+     * Async counterpart of {@link #getPetById(Long)}, run on a virtual thread
+     */
+    public CompletableFuture<Pet> getPetByIdAsync(Long petId) {
+        return async("getPetById", () -> getPetById(petId));
+    }
+
+    /**
+     * Async counterpart of {@link #findPetsByStatus(String...)}, run on a virtual thread
+     */
+    public CompletableFuture<List<Pet>> findPetsByStatusAsync(String... status) {
+        return async("findPetsByStatus", () -> findPetsByStatus(status));
+    }
+
+    /**
+     * Async counterpart of {@link #deletePet(Long)}, run on a virtual thread
+     */
+    public CompletableFuture<Void> deletePetAsync(Long petId) {
+        return async("deletePet", () -> {
+            deletePet(petId);
+            return null;
+        });
+    }
+
+    /**
+     * Adds many pets, keeping up to {@code api.bulk.concurrency} requests in flight
+     * @param pets Pets to add
+     * @return One result per pet, in the same order; failed items do not stop the rest
+     */
+    public List<BulkResult<Pet>> addPets(Collection<Pet> pets) {
+        return addPets(pets, bulkConcurrency());
+    }
+
+    /**
+     * Adds many pets, keeping up to {@code concurrency} requests in flight
+     * @param pets Pets to add
+     * @param concurrency Maximum number of requests in flight
+     * @return One result per pet, in the same order; failed items do not stop the rest
+     */
+    public List<BulkResult<Pet>> addPets(Collection<Pet> pets, int concurrency) {
+        return executeBulk(pets, pet -> Endpoints.ADD_PET.request().body(pet).build(),
+                status -> status == 200, concurrency);
+    }
+
+    /**
+     * Updates many pets, keeping up to {@code api.bulk.concurrency} requests in flight
+     * @param pets Pets to update
+     * @return One result per pet, in the same order; failed items do not stop the rest
+     */
+    public List<BulkResult<Pet>> updatePets(Collection<Pet> pets) {
+        return updatePets(pets, bulkConcurrency());
+    }
+
+    /**
+     * Updates many pets, keeping up to {@code concurrency} requests in flight
+     * @param pets Pets to update
+     * @param concurrency Maximum number of requests in flight
+     * @return One result per pet, in the same order; failed items do not stop the rest
+     */
+    public List<BulkResult<Pet>> updatePets(Collection<Pet> pets, int concurrency) {
+        return executeBulk(pets, pet -> Endpoints.UPDATE_PET.request().body(pet).build(),
+                status -> status == 200, concurrency);
+    }
+
+    /**
+     * Deletes many pets, keeping up to {@code api.bulk.concurrency} requests in flight.
+     * Like {@link #deletePet(Long)}, a pet that is already gone (404) counts as deleted,
+     * but unlike it this does not poll to confirm the deletion.
+     * @param petIds IDs of the pets to delete
+     * @return One result per ID, in the same order; failed items do not stop the rest
+     */
+    public List<BulkResult<Long>> deletePets(Collection<Long> petIds) {
+        return deletePets(petIds, bulkConcurrency());
+    }
+
+    /**
+     * Deletes many pets, keeping up to {@code concurrency} requests in flight
+     * @param petIds IDs of the pets to delete
+     * @param concurrency Maximum number of requests in flight
+     * @return One result per ID, in the same order; failed items do not stop the rest
+     */
+    public List<BulkResult<Long>> deletePets(Collection<Long> petIds, int concurrency) {
+        return executeBulk(petIds, petId -> Endpoints.DELETE_PET.request(petId).build(),
+                status -> status == 200 || status == 404, concurrency);
+    }
+
+    /**
+     * Waits until the store serves the pet in a state that satisfies the condition
+     * @param petId ID of the pet to watch
+     * @param condition e.g. {@code pet -> "sold".equals(pet.getStatus())}
+     * @param timeout How long to keep polling
+     * @return Completes with the matching pet, or exceptionally with a {@link Poller.PollTimeoutException}
+     */
+    public CompletableFuture<Pet> awaitPet(Long petId, Predicate<Pet> condition, Duration timeout) {
+        return await("pet " + petId + " to match the condition",
+                () -> getFreshAsync("/pet/{petId}", petId)
+                        .thenApply(response -> response.getStatusCode() == 200 ? response.as(Pet.class) : null),
+                pet -> pet != null && condition.test(pet),
+                timeout);
+    }
+
+    /**
+     * Waits, up to {@code api.poll.timeout.ms}, until the store serves the pet in a state that satisfies the condition
+     */
+    public CompletableFuture<Pet> awaitPet(Long petId, Predicate<Pet> condition) {
+        return awaitPet(petId, condition, awaitTimeout());
+    }
+
+    /**
+     * Waits, up to {@code api.poll.timeout.ms}, until the pet can be read
+     */
+    public CompletableFuture<Pet> awaitPet(Long petId) {
+        return awaitPet(petId, pet -> true, awaitTimeout());
+    }
+
+    /**
+     * Waits until reading the pet returns 404
+     * @param petId ID of the deleted pet
+     * @param timeout How long to keep polling
+     * @return Completes once the pet is gone, or exceptionally with a {@link Poller.PollTimeoutException}
+     */
+    public CompletableFuture<Void> awaitAbsent(Long petId, Duration timeout) {
+        return await("pet " + petId + " to be gone",
+                () -> getFreshAsync("/pet/{petId}", petId).thenApply(Response::getStatusCode),
+                status -> status == 404,
+                timeout)
+                .thenApply(status -> null);
+    }
+
+    /**
+     * Waits, up to {@code api.poll.timeout.ms}, until reading the pet returns 404
+     */
+    public CompletableFuture<Void> awaitAbsent(Long petId) {
+        return awaitAbsent(petId, awaitTimeout());
+    }
+}
@@ -0,0 +1,84 @@
+package zoran.api;
+
+/**
+ * Collects the phase timestamps of the exchange running on the current thread. The blocking Apache
+ * client opens connections, writes the request and reads the response on the calling thread, so its
+ * hooks find the exchange here without it being passed through.
+ */
+final class PhaseRecorder {
+    private static final ThreadLocal<PhaseRecorder> CURRENT = new ThreadLocal<>();
+
+    private long dnsNanos = -1;
+    private long connectNanos = -1;
+    private long tlsNanos = -1;
+    private long requestStart = -1;
+    private long headersReceived = -1;
+    private long bodyRead = -1;
+
+    private PhaseRecorder() {
+    }
+
+    /**
+     * Starts recording an exchange on this thread; {@link #finish} must follow
+     */
+    static PhaseRecorder begin() {
+        PhaseRecorder recorder = new PhaseRecorder();
+        CURRENT.set(recorder);
+        return recorder;
+    }
+
+    /**
+     * @return The exchange being recorded on this thread, or null
+     */
+    static PhaseRecorder current() {
+        return CURRENT.get();
+    }
+
+    void dns(long nanos) {
+        dnsNanos = Math.max(0, dnsNanos) + nanos;
+    }
+
+    /**
+     * @param nanos Time to open the connection, including the DNS lookup and TLS handshake recorded so far
+     */
+    void connectionOpened(long nanos) {
+        connectNanos = Math.max(0, nanos - Math.max(0, dnsNanos) - Math.max(0, tlsNanos));
+    }
+
+    void tls(long nanos) {
+        tlsNanos = Math.max(0, tlsNanos) + nanos;
+    }
+
+    void requestStarted(long nanoTime) {
+        requestStart = nanoTime;
+    }
+
+    void headersReceived(long nanoTime) {
+        headersReceived = nanoTime;
+    }
+
+    void bodyRead(long nanoTime) {
+        if (bodyRead < 0) {
+            bodyRead = nanoTime;
+        }
+    }
+
+    /**
+     * Stops recording on this thread
+     * @param bodyReadFallback When the body was read, if the transport could not see the end of it itself
+     */
+    PhaseTimings finish(long bodyReadFallback) {
+        CURRENT.remove();
+        bodyRead(bodyReadFallback);
+        long firstByte = requestStart >= 0 && headersReceived >= 0 ? headersReceived - requestStart : -1;
+        long transfer = headersReceived >= 0 ? Math.max(0, bodyRead - headersReceived) : -1;
+        return new PhaseTimings(dnsNanos, connectNanos, tlsNanos, firstByte, transfer);
+    }
+
+    /**
+     * Stops recording on this thread without producing timings, e.g. after a failed exchange
+     */
+    void discard() {
+        CURRENT.remove();
+    }
+}
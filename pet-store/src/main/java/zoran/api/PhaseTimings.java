@@ -0,0 +1,68 @@
+package zoran.api;
+
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Where the time of one HTTP exchange went, to tell network problems (DNS, connect, TLS) apart from
+ * server think time (time to first byte) and body transfer.
+ *
+ * <p>DNS, connect and TLS are only measured when the exchange opened a new connection, and only by the
+ * RestAssured transport; the java.net.http client does not expose them, so with it connection setup is
+ * part of the time to first byte.</p>
+ *
+ * <p>Transports return each exchange's timings on its {@link TimedResponse} and hand them to
+ * {@link ApiMetrics}, which aggregates them per endpoint.</p>
+ */
+@Value
+public class PhaseTimings {
+    public enum Phase {
+        DNS, CONNECT, TLS, TIME_TO_FIRST_BYTE, TRANSFER
+    }
+
+    /** Nanoseconds for each phase, or -1 when the phase did not happen or was not measured */
+    long dnsNanos;
+    long connectNanos;
+    long tlsNanos;
+    long firstByteNanos;
+    long transferNanos;
+
+    /**
+     * @return How long the phase took, or null when it did not happen or was not measured
+     */
+    public Duration get(Phase phase) {
+        long nanos = nanos(phase);
+        return nanos < 0 ? null : Duration.ofNanos(nanos);
+    }
+
+    long nanos(Phase phase) {
+        return switch (phase) {
+            case DNS -> dnsNanos;
+            case CONNECT -> connectNanos;
+            case TLS -> tlsNanos;
+            case TIME_TO_FIRST_BYTE -> firstByteNanos;
+            case TRANSFER -> transferNanos;
+        };
+    }
+
+    /**
+     * @return Whether the exchange opened a new connection rather than reusing a pooled one
+     */
+    public boolean isNewConnection() {
+        return connectNanos >= 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("PhaseTimings[");
+        for (Phase phase : Phase.values()) {
+            long nanos = nanos(phase);
+            if (nanos >= 0) {
+                text.append(text.length() > 13 ? ", " : "").append(phase.name().toLowerCase())
+                        .append('=').append(String.format("%.2fms", nanos / 1_000_000.0));
+            }
+        }
+        return text.append(']').toString();
+    }
+}
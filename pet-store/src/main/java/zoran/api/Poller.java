@@ -0,0 +1,156 @@
+package zoran.api;
+
+import zoran.config.Config;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Waits for eventually consistent data without parking a thread per waiter.
+ *
+ * <p>Each probe is an async request. When its result does not satisfy the condition yet, the next probe is
+ * scheduled on one shared timer thread. Intervals start short ({@code api.poll.initial.interval.ms}, 50 ms)
+ * so a change that is already visible is seen almost immediately. They then grow by
+ * {@code api.poll.backoff} (1.5x) up to {@code api.poll.max.interval.ms} (1000 ms), so a slow change does
+ * not flood the server. A failed probe counts as "not yet" and polling continues.</p>
+ */
+public final class Poller {
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "api-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final Poller SHARED = fromConfig(new Config());
+
+    private final long initialIntervalNanos;
+    private final long maxIntervalNanos;
+    private final double backoff;
+
+    public Poller(Duration initialInterval, Duration maxInterval, double backoff) {
+        if (backoff < 1) {
+            throw new IllegalArgumentException("Backoff must be at least 1, was " + backoff);
+        }
+        this.initialIntervalNanos = initialInterval.toNanos();
+        this.maxIntervalNanos = maxInterval.toNanos();
+        this.backoff = backoff;
+    }
+
+    /**
+     * @return The poller used by the API clients' await methods
+     */
+    public static Poller shared() {
+        return SHARED;
+    }
+
+    static Poller fromConfig(Config config) {
+        return new Poller(
+                Duration.ofMillis(config.getLong("api.poll.initial.interval.ms", 50)),
+                Duration.ofMillis(config.getLong("api.poll.max.interval.ms", 1_000)),
+                Double.parseDouble(config.get("api.poll.backoff", "1.5")));
+    }
+
+    /**
+     * Probes until the condition holds or the timeout passes
+     * @param description What is being waited for, used in the timeout message, e.g. "pet 42 to be sold"
+     * @param probe Starts one async read, e.g. a GET of the resource
+     * @param condition Returns true once the probed value is the one we are waiting for
+     * @param timeout How long to keep polling
+     * @return Completes with the first value that satisfies the condition, or exceptionally with a
+     *         {@link PollTimeoutException} holding the last value or error seen
+     */
+    public <T> CompletableFuture<T> await(String description, Supplier<CompletableFuture<T>> probe,
+                                          Predicate<? super T> condition, Duration timeout) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        poll(new Attempt<>(description, probe, condition, timeout, deadline, result), initialIntervalNanos);
+        return result;
+    }
+
+    private <T> void poll(Attempt<T> attempt, long interval) {
+        attempt.probes++;
+        CompletableFuture<T> pending;
+        try {
+            pending = attempt.probe.get();
+        } catch (RuntimeException e) {
+            pending = CompletableFuture.failedFuture(e);
+        }
+        pending.whenComplete((value, error) -> {
+            if (attempt.result.isDone()) {
+                return;
+            }
+            if (error == null) {
+                try {
+                    if (attempt.condition.test(value)) {
+                        attempt.result.complete(value);
+                        return;
+                    }
+                } catch (RuntimeException e) {
+                    attempt.result.completeExceptionally(e);
+                    return;
+                }
+                attempt.lastValue = value;
+                attempt.lastError = null;
+            } else {
+                attempt.lastError = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            }
+
+            long remaining = attempt.deadline - System.nanoTime();
+            if (remaining <= 0) {
+                attempt.result.completeExceptionally(new PollTimeoutException(attempt.description, attempt.timeout,
+                        attempt.probes, attempt.lastValue, attempt.lastError));
+                return;
+            }
+            long delay = Math.min(interval, remaining);
+            long nextInterval = Math.min(maxIntervalNanos, (long) (interval * backoff));
+            SCHEDULER.schedule(() -> poll(attempt, nextInterval), delay, TimeUnit.NANOSECONDS);
+        });
+    }
+
+    private static final class Attempt<T> {
+        final String description;
+        final Supplier<CompletableFuture<T>> probe;
+        final Predicate<? super T> condition;
+        final Duration timeout;
+        final long deadline;
+        final CompletableFuture<T> result;
+        int probes;
+        T lastValue;
+        Throwable lastError;
+
+        Attempt(String description, Supplier<CompletableFuture<T>> probe, Predicate<? super T> condition,
+                Duration timeout, long deadline, CompletableFuture<T> result) {
+            this.description = description;
+            this.probe = probe;
+            this.condition = condition;
+            this.timeout = timeout;
+            this.deadline = deadline;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Thrown when the awaited condition did not hold before the timeout
+     */
+    public static class PollTimeoutException extends RuntimeException {
+        private final transient Object lastValue;
+
+        PollTimeoutException(String description, Duration timeout, int probes, Object lastValue, Throwable lastError) {
+            super(String.format("Timed out after %d ms waiting for %s (%d probes, last value: %s)",
+                    timeout.toMillis(), description, probes, lastValue), lastError);
+            this.lastValue = lastValue;
+        }
+
+        /**
+         * @return The last value probed before giving up, or null if every probe failed
+         */
+        public Object getLastValue() {
+            return lastValue;
+        }
+    }
+}
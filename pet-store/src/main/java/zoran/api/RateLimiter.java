@@ -0,0 +1,76 @@
+package zoran.api;
+
+/**
+ * Token bucket that keeps an endpoint under a server-side quota.
+ *
+ * <p>The bucket holds up to {@code burst} tokens and refills at {@code permitsPerSecond}. A call takes one
+ * token. When none is left the call is rejected straight away with a {@link RateLimitExceededException}
+ * rather than queued, so a load job notices it is over quota instead of silently slowing down.</p>
+ */
+public class RateLimiter {
+    private final String name;
+    private final double permitsPerSecond;
+    private final double burst;
+
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+    private long rejected;
+
+    public RateLimiter(String name, double permitsPerSecond, double burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limit for " + name + " needs a positive rate and a burst of at least 1");
+        }
+        this.name = name;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.tokens = burst;
+    }
+
+    /**
+     * Takes one token if available
+     * @return False when the bucket is empty
+     */
+    public synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerSecond / 1_000_000_000);
+        lastRefill = now;
+        if (tokens < 1) {
+            rejected++;
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    /**
+     * Takes one token or fails fast
+     * @throws RateLimitExceededException when the bucket is empty
+     */
+    public void acquire() {
+        if (!tryAcquire()) {
+            throw new RateLimitExceededException(String.format(
+                    "Rate limit of %.1f requests/s exceeded for %s", permitsPerSecond, name));
+        }
+    }
+
+    /**
+     * @return Number of calls rejected because the bucket was empty
+     */
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("RateLimiter[%s, rate=%.1f/s, burst=%.0f, rejected=%d]", name, permitsPerSecond, burst, rejected);
+    }
+
+    /**
+     * Thrown instead of making a call when the endpoint's rate limit is used up
+     */
+    public static class RateLimitExceededException extends RuntimeException {
+        public RateLimitExceededException(String message) {
+            super(message);
+        }
+    }
+}
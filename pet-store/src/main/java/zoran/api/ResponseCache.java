@@ -0,0 +1,301 @@
+package zoran.api;
+
+import io.restassured.response.Response;
+import zoran.config.Config;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for GET responses, shared by every client that enables it.
+ *
+ * <p>Entries are keyed by method, expanded path and query string. They are evicted least-recently-used
+ * once more than {@code maxEntries} are held, and expire after {@code ttl}. The server's
+ * {@code Cache-Control} wins where present: {@code no-store} is never cached, {@code max-age} sets the
+ * expiry and {@code no-cache} forces revalidation. When an expired entry has an {@code ETag} it is
+ * revalidated with {@code If-None-Match}, and a 304 answer reuses the cached body.</p>
+ *
+ * <p>Any POST, PUT or DELETE sent through a caching client drops the cached entries of the same resource
+ * (the first path segment: {@code /pet}, {@code /store} or {@code /user}). Pet writes also drop
+ * {@code /store/inventory}, which counts pets by status. Requests that send
+ * {@code Cache-Control: no-cache} skip the lookup but still refresh the entry, which is how
+ * {@link Poller} probes see fresh data.</p>
+ */
+public final class ResponseCache {
+    private static volatile ResponseCache shared;
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries;
+    /** Bumped on every write, so a GET that raced with a write does not store what it read before the write */
+    private final AtomicLong writeGeneration = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ResponseCache(int maxEntries, Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(Math.min(maxEntries, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > ResponseCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return The cache shared by all clients, created from {@code api.cache.*} settings on first use
+     */
+    public static ResponseCache shared() {
+        ResponseCache cache = shared;
+        if (cache == null) {
+            synchronized (ResponseCache.class) {
+                cache = shared;
+                if (cache == null) {
+                    Config config = new Config();
+                    cache = new ResponseCache(config.getInt("api.cache.max.entries", 1_000),
+                            Duration.ofMillis(config.getLong("api.cache.ttl.ms", 5_000)));
+                    shared = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Serves a GET from the cache, or sends it (revalidating when possible) and caches the answer
+     * @param request The GET request
+     * @param send Sends a request to the server
+     */
+    Response get(ApiRequest request, Function<ApiRequest, Response> send) {
+        String key = key(request);
+        long generation = writeGeneration.get();
+        Entry cached = bypasses(request) ? null : lookup(key);
+        if (cached != null && cached.isFresh()) {
+            hits.increment();
+            return cached.toResponse();
+        }
+        misses.increment();
+        return onResponse(key, cached, generation, send.apply(conditional(request, cached)));
+    }
+
+    /**
+     * Async counterpart of {@link #get}
+     */
+    CompletableFuture<Response> getAsync(ApiRequest request, Function<ApiRequest, CompletableFuture<Response>> send) {
+        String key = key(request);
+        long generation = writeGeneration.get();
+        Entry cached = bypasses(request) ? null : lookup(key);
+        if (cached != null && cached.isFresh()) {
+            hits.increment();
+            return CompletableFuture.completedFuture(cached.toResponse());
+        }
+        misses.increment();
+        return send.apply(conditional(request, cached)).thenApply(response -> onResponse(key, cached, generation, response));
+    }
+
+    /**
+     * Drops the entries a write request may have made stale
+     */
+    void invalidateAfter(ApiRequest request) {
+        writeGeneration.incrementAndGet();
+        String resource = resource(request.getPath());
+        boolean petWrite = "/pet".equals(resource);
+        synchronized (entries) {
+            Iterator<String> keys = entries.keySet().iterator();
+            while (keys.hasNext()) {
+                String path = pathOf(keys.next());
+                if (resource.equals(resource(path)) || (petWrite && path.startsWith("/store/inventory"))) {
+                    keys.remove();
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return Number of misses answered with 304 Not Modified, which saved sending the body again
+     */
+    public long revalidations() {
+        return revalidations.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public long invalidations() {
+        return invalidations.sum();
+    }
+
+    /**
+     * @return Fraction of lookups served without a round trip (0 when nothing was looked up yet)
+     */
+    public double hitRatio() {
+        long total = hits() + misses();
+        return total == 0 ? 0 : (double) hits() / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ResponseCache[size=%d, hits=%d, misses=%d, revalidated=%d, evicted=%d, invalidated=%d, hitRatio=%.1f%%]",
+                size(), hits(), misses(), revalidations(), evictions(), invalidations(), hitRatio() * 100);
+    }
+
+    private Response onResponse(String key, Entry cached, long generation, Response response) {
+        if (response.getStatusCode() == 304 && cached != null) {
+            revalidations.increment();
+            Entry refreshed = cached.refreshed(expiryFor(response));
+            store(key, refreshed, generation);
+            return refreshed.toResponse();
+        }
+        if (response.getStatusCode() == 200) {
+            String cacheControl = headerValue(response, "Cache-Control");
+            String etag = headerValue(response, "ETag");
+            boolean noCache = contains(cacheControl, "no-cache");
+            if (!contains(cacheControl, "no-store") && !(noCache && etag == null)) {
+                store(key, new Entry(ResponseSnapshot.of(response), etag, expiryFor(response), noCache), generation);
+            }
+        }
+        return response;
+    }
+
+    private Entry lookup(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && !entry.isFresh() && entry.etag == null) {
+                entries.remove(key); // Expired and cannot be revalidated
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void store(String key, Entry entry, long generation) {
+        synchronized (entries) {
+            if (writeGeneration.get() == generation) {
+                entries.put(key, entry);
+            }
+        }
+    }
+
+    private long expiryFor(Response response) {
+        String cacheControl = headerValue(response, "Cache-Control");
+        if (cacheControl != null) {
+            for (String directive : cacheControl.split(",")) {
+                String trimmed = directive.trim().toLowerCase(Locale.ROOT);
+                if (trimmed.startsWith("max-age=")) {
+                    try {
+                        return System.nanoTime() + Duration.ofSeconds(Long.parseLong(trimmed.substring(8))).toNanos();
+                    } catch (NumberFormatException e) {
+                        break;
+                    }
+                }
+            }
+        }
+        return System.nanoTime() + ttlNanos;
+    }
+
+    private static ApiRequest conditional(ApiRequest request, Entry cached) {
+        return cached != null && cached.etag != null
+                ? request.toBuilder().header("If-None-Match", cached.etag).build()
+                : request;
+    }
+
+    private static boolean bypasses(ApiRequest request) {
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            if ("Cache-Control".equalsIgnoreCase(header.getKey())
+                    && (contains(header.getValue(), "no-cache") || contains(header.getValue(), "no-store"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String key(ApiRequest request) {
+        return request.requestLine();
+    }
+
+    private static String pathOf(String key) {
+        String path = key.substring(key.indexOf(' ') + 1);
+        int query = path.indexOf('?');
+        return query < 0 ? path : path.substring(0, query);
+    }
+
+    /**
+     * @return The first path segment, e.g. /pet for /pet/{petId}
+     */
+    private static String resource(String path) {
+        int end = path.indexOf('/', 1);
+        return end < 0 ? path : path.substring(0, end);
+    }
+
+    private static String headerValue(Response response, String name) {
+        return response.getHeaders().hasHeaderWithName(name) ? response.getHeader(name) : null;
+    }
+
+    private static boolean contains(String headerValue, String directive) {
+        return headerValue != null && headerValue.toLowerCase(Locale.ROOT).contains(directive);
+    }
+
+    private static final class Entry {
+        final ResponseSnapshot snapshot;
+        final String etag;
+        final long expiresAt;
+        final boolean alwaysRevalidate;
+
+        Entry(ResponseSnapshot snapshot, String etag, long expiresAt, boolean alwaysRevalidate) {
+            this.snapshot = snapshot;
+            this.etag = etag;
+            this.expiresAt = expiresAt;
+            this.alwaysRevalidate = alwaysRevalidate;
+        }
+
+        boolean isFresh() {
+            return !alwaysRevalidate && System.nanoTime() - expiresAt < 0;
+        }
+
+        Entry refreshed(long newExpiry) {
+            return new Entry(snapshot, etag, newExpiry, alwaysRevalidate);
+        }
+
+        Response toResponse() {
+            return snapshot.toResponse();
+        }
+    }
+}
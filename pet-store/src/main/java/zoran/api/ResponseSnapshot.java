@@ -0,0 +1,44 @@
+package zoran.api;
+
+import io.restassured.http.Header;
+import io.restassured.response.Response;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable copy of a response's status, headers and body, so one response can be handed to many callers
+ * (from the cache, or to everyone waiting on the same request) each as their own {@link Response}
+ */
+final class ResponseSnapshot {
+    private final int statusCode;
+    private final Map<String, List<String>> headers;
+    private final byte[] body;
+
+    private ResponseSnapshot(int statusCode, Map<String, List<String>> headers, byte[] body) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    static ResponseSnapshot of(Response response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (Header header : response.getHeaders()) {
+            headers.computeIfAbsent(header.getName(), name -> new ArrayList<>(1)).add(header.getValue());
+        }
+        return new ResponseSnapshot(response.getStatusCode(), headers, response.asByteArray());
+    }
+
+    int statusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return A new response with this snapshot's status, headers and body
+     */
+    Response toResponse() {
+        return Responses.of(statusCode, headers, body);
+    }
+}
@@ -0,0 +1,59 @@
+package zoran.api;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.internal.RestAssuredResponseImpl;
+import io.restassured.response.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds RestAssured {@link Response}s from raw HTTP data so callers can keep using
+ * {@code then()}, {@code as()} and {@code jsonPath()} whichever transport produced them
+ */
+final class Responses {
+    private static final RestAssuredConfig CONFIG = RestAssuredConfig.config().objectMapperConfig(Json.objectMapperConfig());
+
+    private Responses() {
+    }
+
+    static Response of(int statusCode, Map<String, List<String>> headers, byte[] body) {
+        return of(statusCode, headers, body, null);
+    }
+
+    /**
+     * @param timings Where the time of the exchange went, or null when the response did not come from one
+     */
+    static TimedResponse of(int statusCode, Map<String, List<String>> headers, byte[] body, PhaseTimings timings) {
+        List<Header> headerList = new ArrayList<>();
+        String contentType = null;
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (header.getKey() == null || header.getKey().startsWith(":")) {
+                continue; // HTTP/2 pseudo headers
+            }
+            for (String value : header.getValue()) {
+                headerList.add(new Header(header.getKey(), value));
+            }
+            if ("content-type".equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty()) {
+                contentType = header.getValue().get(0);
+            }
+        }
+
+        ResponseBuilder builder = new ResponseBuilder()
+                .setStatusCode(statusCode)
+                .setStatusLine("HTTP/1.1 " + statusCode)
+                .setHeaders(new Headers(headerList))
+                .setBody(body);
+        if (contentType != null) {
+            builder.setContentType(contentType);
+        }
+        Response response = builder.build();
+        // Built responses otherwise get RestAssured's default config and would bind with its own mapper
+        ((RestAssuredResponseImpl) response).setConfig(CONFIG);
+        return new TimedResponse(response, timings);
+    }
+}
@@ -0,0 +1,206 @@
+package zoran.api;
+
+import io.restassured.RestAssured;
+import io.restassured.builder.MultiPartSpecBuilder;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.DecoderConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.http.Method;
+import io.restassured.response.Response;
+import io.restassured.specification.QueryableRequestSpecification;
+import io.restassured.specification.RequestSpecification;
+import io.restassured.specification.SpecificationQuerier;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Blocking transport built on RestAssured. Async calls run on virtual threads,
+ * so waiting on a slow response does not tie up a platform thread.
+ */
+public class RestAssuredTransport implements ApiTransport {
+    private static final ExecutorService ASYNC_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    static {
+        // Groovy's ResolveVisitor waits on a future inside its static initializer. A virtual thread
+        // is pinned during class initialization, so when the first requests run concurrently on
+        // virtual threads they can deadlock the carrier pool. Initialize it up front on this thread.
+        try {
+            Class.forName("org.codehaus.groovy.control.ResolveVisitor");
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("Groovy runtime required by RestAssured is missing", e);
+        }
+    }
+
+    private final RequestSpecification requestSpec;
+    /**
+     * The client's spec with each endpoint's content type merged in, built on first use. Paths arrive
+     * already expanded and encoded, so RestAssured must not encode them again.
+     */
+    private final Map<Endpoint, RequestSpecification> endpointSpecs = new ConcurrentHashMap<>();
+    /** Same for requests to a route the registry does not know */
+    private final RequestSpecification adHocSpec;
+    /** Host every request goes to, for the pool's per-route gate */
+    private final URI target;
+    /** Same config without content decoders, which otherwise add gzip and deflate to every Accept-Encoding */
+    private final RestAssuredConfig identityConfig;
+
+    public RestAssuredTransport(RequestSpecification requestSpec) {
+        this.requestSpec = requestSpec;
+        this.target = URI.create(SpecificationQuerier.query(requestSpec).getBaseUri());
+        this.adHocSpec = compile(null);
+        RestAssuredConfig config = SpecificationQuerier.query(requestSpec).getConfig();
+        this.identityConfig = (config != null ? config : RestAssuredConfig.config())
+                .decoderConfig(DecoderConfig.decoderConfig().noContentDecoders());
+    }
+
+    @Override
+    public Response execute(ApiRequest request) {
+        Endpoint endpoint = request.getEndpoint();
+        RequestSpecification spec = RestAssured.given()
+                .spec(endpoint == null ? adHocSpec : endpointSpecs.computeIfAbsent(endpoint, this::compile));
+        if ("identity".equals(request.getHeaders().get("Accept-Encoding"))) {
+            spec.config(identityConfig);
+        }
+
+        if (request.getContentType() != null
+                && (endpoint == null || !Objects.equals(request.getContentType(), endpoint.getContentType()))) {
+            spec.contentType(request.getContentType());
+        }
+        request.getHeaders().forEach(spec::header);
+        // Encoded along with the path, as the spec leaves URL encoding off
+        String query = PathTemplates.query(request.getQueryParams());
+        String url = query.isEmpty() ? request.expandedPath() : request.expandedPath() + "?" + query;
+        if (!request.getFormParams().isEmpty()) {
+            spec.body(PathTemplates.form(request.getFormParams())); // RestAssured would not encode the fields either
+        }
+        for (MultiPart part : request.getMultiParts()) {
+            if (part.isFile()) {
+                spec.multiPart(part.getName(), part.getFile(), part.getMimeType());
+            } else if (part.isText()) {
+                spec.multiPart(part.getName(), part.getText());
+            } else {
+                // Written to the connection from the stream, without buffering the content first
+                spec.multiPart(new MultiPartSpecBuilder(openPart(part))
+                        .controlName(part.getName())
+                        .fileName(part.getFileName())
+                        .mimeType(part.getMimeType())
+                        .build());
+            }
+        }
+        if (request.getBody() instanceof byte[] bytes) {
+            spec.body(bytes); // Already encoded; as an Object it would be serialized to a JSON string
+        } else if (request.getBody() != null) {
+            spec.body(request.getBody());
+        }
+
+        return ConnectionPool.shared().withConnection(target, () -> {
+            PhaseRecorder phases = PhaseRecorder.begin();
+            Response response;
+            byte[] body;
+            try {
+                response = spec
+                        .when()
+                        .request(Method.valueOf(request.getMethod()), url)
+                        .then()
+                        .extract()
+                        .response();
+                // The connection only goes back to the pool once the body is read, and callers
+                // that just check the status code never read it
+                body = response.asByteArray();
+            } catch (RuntimeException e) {
+                phases.discard();
+                throw e;
+            }
+            PhaseTimings timings = phases.finish(System.nanoTime());
+            ApiMetrics.global().recordPhases(request, timings);
+            // RestAssured has already decoded the body; the wire size is only known from Content-Length
+            String encoding = response.getHeader("Content-Encoding");
+            String wireLength = response.getHeader("Content-Length");
+            if (Compression.isCompressed(encoding) && wireLength != null) {
+                CompressionStats.global().recordResponse(Long.parseLong(wireLength.trim()), body.length);
+            }
+            return new TimedResponse(response, timings);
+        });
+    }
+
+    private RequestSpecification compile(Endpoint endpoint) {
+        RequestSpecBuilder builder = new RequestSpecBuilder()
+                .addRequestSpecification(requestSpec)
+                .setUrlEncodingEnabled(false);
+        if (endpoint != null && endpoint.getContentType() != null) {
+            builder.setContentType(endpoint.getContentType());
+        }
+        return builder.build();
+    }
+
+    private static InputStream openPart(MultiPart part) {
+        try {
+            return part.openStream();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open content of part " + part.getName(), e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Response> executeAsync(ApiRequest request) {
+        return CompletableFuture.supplyAsync(() -> execute(request), ASYNC_EXECUTOR);
+    }
+
+    /**
+     * Streams the body straight from the pooled Apache connection, bypassing RestAssured, which always
+     * buffers the full body. Requests with a body fall back to the buffered default.
+     */
+    @Override
+    @SuppressWarnings("deprecation") // ConnectionPool exposes the AbstractHttpClient API RestAssured needs
+    public StreamingResponse executeStreaming(ApiRequest request) {
+        if (request.getBody() != null || !request.getFormParams().isEmpty() || !request.getMultiParts().isEmpty()) {
+            return ApiTransport.super.executeStreaming(request);
+        }
+        QueryableRequestSpecification spec = SpecificationQuerier.query(requestSpec);
+        String query = PathTemplates.query(request.getQueryParams());
+        HttpRequestBase httpRequest = new HttpRequestBase() {
+            @Override
+            public String getMethod() {
+                return request.getMethod();
+            }
+        };
+        httpRequest.setURI(URI.create(spec.getBaseUri() + spec.getBasePath() + request.expandedPath()
+                + (query.isEmpty() ? "" : "?" + query)));
+        spec.getHeaders().forEach(header -> httpRequest.setHeader(header.getName(), header.getValue()));
+        request.getHeaders().forEach(httpRequest::setHeader);
+
+        ConnectionPool pool = ConnectionPool.shared();
+        Closeable slot = pool.reserveConnection(target);
+        try {
+            HttpResponse response = pool.httpClient().execute(httpRequest);
+            HttpEntity entity = response.getEntity();
+            // Closing the entity stream hands the connection back to the pool
+            InputStream body = entity == null ? InputStream.nullInputStream()
+                    : Compression.decode(entity.getContentEncoding() == null ? null : entity.getContentEncoding().getValue(), entity.getContent());
+            return new StreamingResponse(response.getStatusLine().getStatusCode(), body, slot);
+        } catch (IOException | RuntimeException e) {
+            try {
+                slot.close();
+            } catch (IOException ignored) {
+                // Releasing a slot cannot fail
+            }
+            if (e instanceof IOException io) {
+                throw new UncheckedIOException(io);
+            }
+            throw (RuntimeException) e;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package zoran.api;
+
+import zoran.config.Config;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps how many retries a test run may spend, so retries cannot multiply load while the server is struggling.
+ *
+ * <p>A retry is allowed while the total number of retries stays below
+ * {@code minRetries + ratio * firstAttempts}. With the defaults ({@code api.retry.budget.min=20},
+ * {@code api.retry.budget.ratio=0.2}) a run may always retry a handful of flaky calls, but once the
+ * server fails broadly retries add at most 20% on top of the normal traffic.</p>
+ */
+public final class RetryBudget {
+    private static final RetryBudget SHARED = fromConfig(new Config());
+
+    private final long minRetries;
+    private final double ratio;
+    private final LongAdder firstAttempts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    public RetryBudget(long minRetries, double ratio) {
+        this.minRetries = minRetries;
+        this.ratio = ratio;
+    }
+
+    /**
+     * @return The budget shared by all retry policies in this JVM
+     */
+    public static RetryBudget shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return A budget that never refuses a retry
+     */
+    public static RetryBudget unlimited() {
+        return new RetryBudget(Long.MAX_VALUE, 0);
+    }
+
+    static RetryBudget fromConfig(Config config) {
+        return new RetryBudget(config.getLong("api.retry.budget.min", 20),
+                Double.parseDouble(config.get("api.retry.budget.ratio", "0.2")));
+    }
+
+    void recordFirstAttempt() {
+        firstAttempts.increment();
+    }
+
+    /**
+     * Reserves one retry if the budget allows it
+     * @return True when the caller may retry
+     */
+    synchronized boolean tryAcquireRetry() {
+        if (minRetries == Long.MAX_VALUE) {
+            retries.increment();
+            return true;
+        }
+        if (retries.sum() >= minRetries + (long) (ratio * firstAttempts.sum())) {
+            return false;
+        }
+        retries.increment();
+        return true;
+    }
+
+    /**
+     * @return Number of retries spent so far
+     */
+    public long retriesSpent() {
+        return retries.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RetryBudget[spent=%d, firstAttempts=%d, min=%d, ratio=%.2f]",
+                retries.sum(), firstAttempts.sum(), minRetries, ratio);
+    }
+}
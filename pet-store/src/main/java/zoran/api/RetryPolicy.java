@@ -0,0 +1,230 @@
+package zoran.api;
+
+import io.restassured.response.Response;
+import lombok.Builder;
+import lombok.Value;
+import zoran.config.Config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Retries a call with exponential backoff and decorrelated jitter.
+ *
+ * <p>Each wait is drawn at random between {@code baseDelay} and three times the previous wait, capped at
+ * {@code maxDelay}. Compared to fixed sleeps this retries quickly when a hiccup is short, and the jitter
+ * keeps parallel callers from retrying in lockstep. Every retry also needs a token from the
+ * {@link RetryBudget}. Attempts and time spent sleeping are counted in {@link RetryStats#global()}.</p>
+ *
+ * <p>The API clients apply a policy through {@link #forMethod}, so POST and PATCH calls get a single attempt
+ * unless {@code retryNonIdempotent} is set: a timeout or a 502 does not say whether the server already
+ * created the order or pet.</p>
+ *
+ * <pre>{@code
+ * RetryPolicy.builder()
+ *         .maxAttempts(5)
+ *         .retryOnStatus(status -> status == 404)
+ *         .build()
+ *         .execute(() -> get("/pet/{petId}", petId));
+ * }</pre>
+ */
+@Value
+@Builder(toBuilder = true)
+public class RetryPolicy {
+    private static final Set<Integer> TRANSIENT_STATUSES = Set.of(429, 502, 503, 504);
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+    private static final RetryPolicy SINGLE_ATTEMPT = none();
+
+    /** Total attempts, first try included */
+    @Builder.Default
+    int maxAttempts = 3;
+    @Builder.Default
+    Duration baseDelay = Duration.ofMillis(100);
+    @Builder.Default
+    Duration maxDelay = Duration.ofSeconds(2);
+    /** Status codes that make {@link #execute} try again */
+    @Builder.Default
+    IntPredicate retryOnStatus = status -> false;
+    /** Failures that are worth another attempt; anything else is rethrown straight away */
+    @Builder.Default
+    Predicate<Throwable> retryOn = error -> false;
+    @Builder.Default
+    RetryBudget budget = RetryBudget.shared();
+    /** Whether {@link #forMethod} also retries POST and PATCH, which may repeat a write the server already made */
+    @Builder.Default
+    boolean retryNonIdempotent = false;
+
+    /**
+     * @return A policy that makes exactly one attempt
+     */
+    public static RetryPolicy none() {
+        return builder().maxAttempts(1).build();
+    }
+
+    /**
+     * Builds the default client policy from {@code api.retry.*} settings. It retries network failures
+     * and 429/502/503/504 responses, for POST and PATCH only with {@code api.retry.non.idempotent=true}.
+     */
+    public static RetryPolicy fromConfig(Config config) {
+        return builder()
+                .maxAttempts(config.getInt("api.retry.max.attempts", 3))
+                .baseDelay(Duration.ofMillis(config.getLong("api.retry.base.delay.ms", 100)))
+                .maxDelay(Duration.ofMillis(config.getLong("api.retry.max.delay.ms", 2_000)))
+                .retryOnStatus(TRANSIENT_STATUSES::contains)
+                .retryOn(RetryPolicy::isNetworkFailure)
+                .retryNonIdempotent(config.getBoolean("api.retry.non.idempotent", false))
+                .build();
+    }
+
+    /**
+     * @return True for methods that can be repeated without changing the outcome: GET, HEAD, PUT, DELETE and OPTIONS
+     */
+    public static boolean isIdempotent(String method) {
+        return IDEMPOTENT_METHODS.contains(method);
+    }
+
+    /**
+     * @return This policy for idempotent methods, or for any method when {@code retryNonIdempotent} is set;
+     * otherwise a policy that makes one attempt
+     */
+    public RetryPolicy forMethod(String method) {
+        return retryNonIdempotent || isIdempotent(method) ? this : SINGLE_ATTEMPT;
+    }
+
+    /**
+     * @return True when the failure, or anything in its cause chain, is an I/O error
+     */
+    public static boolean isNetworkFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs an HTTP call, retrying failures accepted by {@code retryOn} and responses whose status is
+     * accepted by {@code retryOnStatus}
+     * @return The first response that should not be retried, or the last one when attempts run out
+     */
+    public Response execute(Supplier<Response> call) {
+        return call(call, response -> retryOnStatus.test(response.getStatusCode()));
+    }
+
+    /**
+     * Runs a call, retrying failures accepted by {@code retryOn}
+     * @return The result of the first successful attempt
+     */
+    public <T> T call(Supplier<T> call) {
+        return call(call, result -> false);
+    }
+
+    /**
+     * Runs a call, retrying failures accepted by {@code retryOn} and results accepted by {@code retryOnResult}
+     * @param call The call to attempt
+     * @param retryOnResult Returns true for results that call for another attempt, e.g. a pet not yet updated
+     * @return The first result that should not be retried, or the last one when attempts or budget run out
+     */
+    public <T> T call(Supplier<T> call, Predicate<? super T> retryOnResult) {
+        RetryStats stats = RetryStats.global();
+        stats.recordCall();
+        budget.recordFirstAttempt();
+        long previousDelay = baseDelay.toNanos();
+
+        for (int attempt = 1; ; attempt++) {
+            stats.recordAttempt();
+            T result;
+            try {
+                result = call.get();
+            } catch (RuntimeException | AssertionError e) {
+                if (attempt >= maxAttempts || !retryOn.test(e) || !acquireRetry(stats)) {
+                    throw e;
+                }
+                previousDelay = backOff(previousDelay, stats);
+                continue;
+            }
+            if (attempt >= maxAttempts || !retryOnResult.test(result) || !acquireRetry(stats)) {
+                return result;
+            }
+            previousDelay = backOff(previousDelay, stats);
+        }
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #execute}: waits between attempts on a timer instead of a sleeping thread
+     * @param call Starts one attempt
+     * @return Completes with the first response that should not be retried, or the last one when attempts run out
+     */
+    public CompletableFuture<Response> executeAsync(Supplier<CompletableFuture<Response>> call) {
+        RetryStats stats = RetryStats.global();
+        stats.recordCall();
+        budget.recordFirstAttempt();
+        return attemptAsync(call, 1, baseDelay.toNanos(), stats);
+    }
+
+    private CompletableFuture<Response> attemptAsync(Supplier<CompletableFuture<Response>> call, int attempt,
+                                                     long previousDelay, RetryStats stats) {
+        stats.recordAttempt();
+        CompletableFuture<Response> pending;
+        try {
+            pending = call.get();
+        } catch (RuntimeException e) {
+            pending = CompletableFuture.failedFuture(e);
+        }
+        return pending.handle((response, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            boolean retry = attempt < maxAttempts
+                    && (cause != null ? retryOn.test(cause) : retryOnStatus.test(response.getStatusCode()))
+                    && acquireRetry(stats);
+            if (!retry) {
+                return cause != null ? CompletableFuture.<Response>failedFuture(cause) : CompletableFuture.completedFuture(response);
+            }
+            long delay = nextDelay(previousDelay);
+            stats.recordRetry(delay);
+            return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS))
+                    .thenCompose(ignored -> attemptAsync(call, attempt + 1, delay, stats));
+        }).thenCompose(Function.identity());
+    }
+
+    private boolean acquireRetry(RetryStats stats) {
+        if (budget.tryAcquireRetry()) {
+            return true;
+        }
+        stats.recordBudgetDenial();
+        return false;
+    }
+
+    /**
+     * Decorrelated jitter: random between the base delay and three times the previous delay, capped at the max delay
+     */
+    long nextDelay(long previousDelay) {
+        long base = baseDelay.toNanos();
+        long upper = Math.max(base + 1, Math.min(maxDelay.toNanos(), previousDelay * 3));
+        return Math.min(maxDelay.toNanos(), ThreadLocalRandom.current().nextLong(base, upper));
+    }
+
+    /**
+     * @return The delay that was slept, in nanoseconds
+     */
+    private long backOff(long previousDelay, RetryStats stats) {
+        long delay = nextDelay(previousDelay);
+        try {
+            Thread.sleep(Duration.ofNanos(delay));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to retry", e);
+        }
+        stats.recordRetry(delay);
+        return delay;
+    }
+}
@@ -0,0 +1,79 @@
+package zoran.api;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JVM-wide counters for every {@link RetryPolicy}, to see how much of a run went into retrying
+ */
+public final class RetryStats {
+    private static final RetryStats GLOBAL = new RetryStats();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder budgetDenials = new LongAdder();
+    private final LongAdder sleepNanos = new LongAdder();
+
+    private RetryStats() {
+    }
+
+    public static RetryStats global() {
+        return GLOBAL;
+    }
+
+    void recordCall() {
+        calls.increment();
+    }
+
+    void recordAttempt() {
+        attempts.increment();
+    }
+
+    void recordRetry(long sleptNanos) {
+        retries.increment();
+        sleepNanos.add(sleptNanos);
+    }
+
+    void recordBudgetDenial() {
+        budgetDenials.increment();
+    }
+
+    /**
+     * @return Number of calls made through a retry policy
+     */
+    public long calls() {
+        return calls.sum();
+    }
+
+    /**
+     * @return Number of attempts, first tries included
+     */
+    public long attempts() {
+        return attempts.sum();
+    }
+
+    public long retries() {
+        return retries.sum();
+    }
+
+    /**
+     * @return Number of retries refused because the {@link RetryBudget} was used up
+     */
+    public long budgetDenials() {
+        return budgetDenials.sum();
+    }
+
+    /**
+     * @return Total time spent sleeping between attempts
+     */
+    public Duration timeSleeping() {
+        return Duration.ofNanos(sleepNanos.sum());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RetryStats[calls=%d, attempts=%d, retries=%d, budgetDenials=%d, slept=%dms]",
+                calls(), attempts(), retries(), budgetDenials(), timeSleeping().toMillis());
+    }
+}
@@ -0,0 +1,173 @@
+package zoran.api;
+
+import io.restassured.response.Response;
+import lombok.Value;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Merges identical GETs that are in flight at the same time into one network request.
+ *
+ * <p>The first caller for a key (the leader) sends the request; everyone who asks for the same key before
+ * it completes waits for that response instead of sending their own, and gets their own copy of it.
+ * The body is only copied when someone did join; a leader alone keeps its response as it came.
+ * Parallel scenarios that all hit {@code /pet/findByStatus} or {@code /store/inventory} at once then
+ * cost the server one request. Nothing is cached: once the response arrives the next caller sends anew.</p>
+ *
+ * <p>Flights are keyed by a write generation as well, bumped by {@link #invalidateAfterWrite()}, so a GET
+ * never joins one that started before a write that has since completed and reads its own writes.</p>
+ */
+public final class SingleFlight {
+    private static final SingleFlight SHARED = new SingleFlight();
+
+    private final Map<FlightKey, Flight> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong writeGeneration = new AtomicLong();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public static SingleFlight shared() {
+        return SHARED;
+    }
+
+    /**
+     * Sends the request unless an identical one is already in flight, in which case its response is shared
+     * @param request Identifies identical requests
+     * @param call Sends the request on the calling thread
+     */
+    Response execute(String request, Supplier<Response> call) {
+        FlightKey key = new FlightKey(writeGeneration.get(), request);
+        Flight flight = new Flight();
+        Flight leader;
+        while ((leader = inFlight.putIfAbsent(key, flight)) != null) {
+            if (leader.join()) {
+                coalesced.increment();
+                try {
+                    return leader.result.join().toResponse();
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+            }
+            // That leader finished just now and has left the map; lead a new flight
+        }
+        sent.increment();
+        try {
+            Response response = call.get();
+            inFlight.remove(key, flight);
+            flight.share(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Async counterpart of {@link #execute}
+     * @param call Starts the request
+     */
+    CompletableFuture<Response> executeAsync(String request, Supplier<CompletableFuture<Response>> call) {
+        FlightKey key = new FlightKey(writeGeneration.get(), request);
+        Flight flight = new Flight();
+        Flight leader;
+        while ((leader = inFlight.putIfAbsent(key, flight)) != null) {
+            if (leader.join()) {
+                coalesced.increment();
+                return leader.result.thenApply(ResponseSnapshot::toResponse);
+            }
+        }
+        sent.increment();
+        CompletableFuture<Response> pending;
+        try {
+            pending = call.get();
+        } catch (RuntimeException e) {
+            pending = CompletableFuture.failedFuture(e);
+        }
+        return pending.whenComplete((response, error) -> {
+            inFlight.remove(key, flight);
+            if (error != null) {
+                flight.result.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                flight.share(response);
+            }
+        });
+    }
+
+    /**
+     * Called once a write has completed: GETs from then on no longer join flights that started before it
+     */
+    void invalidateAfterWrite() {
+        writeGeneration.incrementAndGet();
+    }
+
+    /**
+     * @return Number of requests actually sent by a leader
+     */
+    public long sent() {
+        return sent.sum();
+    }
+
+    /**
+     * @return Number of requests that shared a leader's response instead of being sent
+     */
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SingleFlight[sent=%d, coalesced=%d, inFlight=%d]", sent(), coalesced(), inFlight.size());
+    }
+
+    /**
+     * A leader's request and the callers waiting on it. Once the leader is done and has left the map it
+     * closes the flight; if nobody joined by then, there is no one to copy the response for.
+     */
+    private static final class Flight {
+        private static final int CLOSED = -1;
+
+        final CompletableFuture<ResponseSnapshot> result = new CompletableFuture<>();
+        private final AtomicInteger followers = new AtomicInteger();
+
+        /**
+         * @return True when the caller will get this flight's result, false when the flight has closed
+         */
+        boolean join() {
+            for (int count = followers.get(); count != CLOSED; count = followers.get()) {
+                if (followers.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Hands a snapshot of the leader's response to the followers, if there are any
+         */
+        void share(Response response) {
+            if (followers.compareAndSet(0, CLOSED)) {
+                return;
+            }
+            try {
+                result.complete(ResponseSnapshot.of(response));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    @Value
+    private static class FlightKey {
+        long generation;
+        String request;
+    }
+}
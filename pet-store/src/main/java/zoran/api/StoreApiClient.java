@@ -1,7 +1,10 @@
 package zoran.api;
 
 import zoran.models.Order;
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 public class StoreApiClient extends BaseApiClient {
     
@@ -35,4 +38,45 @@ public class StoreApiClient extends BaseApiClient {
                 .then()
                 .statusCode(200);
     }
+
+    public CompletableFuture<Map<String, Integer>> getInventoryAsync() {
+        return async("getInventory", this::getInventory);
+    }
+
+    public CompletableFuture<Order> placeOrderAsync(Order order) {
+        return async("placeOrder", () -> placeOrder(order));
+    }
+
+    public CompletableFuture<Order> getOrderByIdAsync(Long orderId) {
+        return async("getOrderById", () -> getOrderById(orderId));
+    }
+
+    public CompletableFuture<Void> deleteOrderAsync(Long orderId) {
+        return async("deleteOrder", () -> {
+            deleteOrder(orderId);
+            return null;
+        });
+    }
+
+    /**
+     * Waits until the store serves the order in a state that satisfies the condition
+     * @param orderId ID of the order to watch
+     * @param condition e.g. {@code order -> "delivered".equals(order.getStatus())}
+     * @param timeout How long to keep polling
+     * @return Completes with the matching order, or exceptionally with a {@link Poller.PollTimeoutException}
+     */
+    public CompletableFuture<Order> awaitOrder(Long orderId, Predicate<Order> condition, Duration timeout) {
+        return await("order " + orderId + " to match the condition",
+                () -> getFreshAsync("/store/order/{orderId}", orderId)
+                        .thenApply(response -> response.getStatusCode() == 200 ? response.as(Order.class) : null),
+                order -> order != null && condition.test(order),
+                timeout);
+    }
+
+    /**
+     * Waits, up to {@code api.poll.timeout.ms}, until the order can be read
+     */
+    public CompletableFuture<Order> awaitOrder(Long orderId) {
+        return awaitOrder(orderId, order -> true, awaitTimeout());
+    }
 }
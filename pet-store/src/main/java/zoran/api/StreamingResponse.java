@@ -0,0 +1,38 @@
+package zoran.api;
+
+import lombok.Value;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Response whose body has not been read yet. Must be closed to give the connection back.
+ */
+@Value
+public class StreamingResponse implements Closeable {
+    int statusCode;
+    InputStream body;
+    Closeable onClose;
+
+    StreamingResponse(int statusCode, InputStream body, Closeable onClose) {
+        this.statusCode = statusCode;
+        this.body = body;
+        this.onClose = onClose;
+    }
+
+    StreamingResponse(int statusCode, InputStream body) {
+        this(statusCode, body, null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            body.close();
+        } finally {
+            if (onClose != null) {
+                onClose.close();
+            }
+        }
+    }
+}
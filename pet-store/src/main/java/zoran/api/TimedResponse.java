@@ -0,0 +1,39 @@
+package zoran.api;
+
+import io.restassured.response.Response;
+import lombok.experimental.Delegate;
+
+/**
+ * A {@link Response} that also carries the {@link PhaseTimings} of the exchange that produced it.
+ * Both transports return these. Responses that did not come from an exchange, such as cache hits,
+ * replayed cassettes and coalesced copies, have no timings.
+ */
+public final class TimedResponse implements Response {
+    @Delegate(types = Response.class)
+    private final Response response;
+    private final PhaseTimings phaseTimings;
+
+    TimedResponse(Response response, PhaseTimings phaseTimings) {
+        this.response = response;
+        this.phaseTimings = phaseTimings;
+    }
+
+    /**
+     * @return Where the time of the exchange went, or null when the response did not come from one
+     */
+    public PhaseTimings phaseTimings() {
+        return phaseTimings;
+    }
+
+    /**
+     * @return The timings carried by the response, or null when it has none
+     */
+    public static PhaseTimings phaseTimings(Response response) {
+        return response instanceof TimedResponse timed ? timed.phaseTimings : null;
+    }
+
+    @Override
+    public String toString() {
+        return response.toString();
+    }
+}
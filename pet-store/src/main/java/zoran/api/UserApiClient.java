@@ -2,9 +2,13 @@ package zoran.api;
 
 import zoran.models.User;
 import io.restassured.response.Response;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 public class UserApiClient extends BaseApiClient {
+    private static final ApiLogger LOG = ApiLogger.getLogger(UserApiClient.class);
     
     public User createUser(User user) {
         return post(user, "/user")
@@ -82,20 +86,22 @@ public class UserApiClient extends BaseApiClient {
         }
         
         // For other status codes, log the error and return false
-        System.err.println("Failed to delete user " + username + 
-                          ". Status code: " + response.getStatusCode() + 
-                          ", Response: " + response.getBody().asString());
+        LOG.warn(() -> "Failed to delete user " + username +
+                          ". Status code: " + response.getStatusCode() +
+                          ", Response: " + response.asString());
         return false;
     }
     
     public String loginUser(String username, String password) {
         try {
             // The login endpoint returns a JSON with code, type, and message fields
-            Response response = get("/user/login?username={username}&password={password}", username, password);
+            ApiRequest request = Endpoints.LOGIN_USER.request()
+                    .queryParam("username", List.of(username))
+                    .queryParam("password", List.of(password))
+                    .build();
+            Response response = execute(request);
             
-            // Extract the response body as string for logging
-            String responseBody = response.getBody().asString();
-            System.out.println("Login response: " + response.getStatusCode() + " - " + responseBody);
+            LOG.debug(() -> "Login response: " + response.getStatusCode() + " - " + response.asString());
             
             // If successful (200), return the message
             if (response.getStatusCode() == 200) {
@@ -104,10 +110,10 @@ public class UserApiClient extends BaseApiClient {
             
             // For error responses, throw an exception with the response details
             throw new RuntimeException("Login failed with status " + response.getStatusCode() + 
-                                    ". Response: " + responseBody);
+                                    ". Response: " + response.asString());
                                     
         } catch (Exception e) {
-            System.err.println("Error during login: " + e.getMessage());
+            LOG.warn(() -> "Error during login: " + e.getMessage());
             throw new RuntimeException("Failed to login: " + e.getMessage(), e);
         }
     }
@@ -117,4 +123,53 @@ public class UserApiClient extends BaseApiClient {
             .then()
             .statusCode(200);
     }
+
+    public CompletableFuture<User> createUserAsync(User user) {
+        return async("createUser", () -> createUser(user));
+    }
+
+    public CompletableFuture<User> getUserByUsernameAsync(String username) {
+        return async("getUserByName", () -> getUserByUsername(username));
+    }
+
+    public CompletableFuture<User> updateUserAsync(String username, User user) {
+        return async("updateUser", () -> updateUser(username, user));
+    }
+
+    public CompletableFuture<Boolean> deleteUserAsync(String username) {
+        return async("deleteUser", () -> deleteUser(username));
+    }
+
+    /**
+     * Waits until the store serves the user in a state that satisfies the condition
+     * @param username Username of the user to watch
+     * @param condition e.g. {@code user -> "new@example.com".equals(user.getEmail())}
+     * @param timeout How long to keep polling
+     * @return Completes with the matching user, or exceptionally with a {@link Poller.PollTimeoutException}
+     */
+    public CompletableFuture<User> awaitUser(String username, Predicate<User> condition, Duration timeout) {
+        return await("user " + username + " to match the condition",
+                () -> getFreshAsync("/user/{username}", username)
+                        .thenApply(response -> response.getStatusCode() == 200 ? response.as(User.class) : null),
+                user -> user != null && condition.test(user),
+                timeout);
+    }
+
+    /**
+     * Waits, up to {@code api.poll.timeout.ms}, until the user can be read
+     */
+    public CompletableFuture<User> awaitUser(String username) {
+        return awaitUser(username, user -> true, awaitTimeout());
+    }
+
+    /**
+     * Waits, up to {@code api.poll.timeout.ms}, until reading the user returns 404
+     */
+    public CompletableFuture<Void> awaitUserAbsent(String username) {
+        return await("user " + username + " to be gone",
+                () -> getFreshAsync("/user/{username}", username).thenApply(Response::getStatusCode),
+                status -> status == 404,
+                awaitTimeout())
+                .thenApply(status -> null);
+    }
 }
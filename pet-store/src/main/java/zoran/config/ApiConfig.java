@@ -3,17 +3,25 @@ package zoran.config;
 import io.restassured.builder.RequestSpecBuilder;
 import io.restassured.http.ContentType;
 import io.restassured.specification.RequestSpecification;
+import zoran.stub.PetStoreStub;
 
 /**
  * Configuration class for API settings
  */
 public class ApiConfig {
-    // Base URL for the Petstore API
-    public static final String BASE_URI = "https://petstore.swagger.io/v2";
+    // Base URL for the Petstore API: api.base.url, or the in-process stub when api.stub.enabled is true
+    public static final String BASE_URI = baseUri(new Config());
     
     // JSESSIONID for authentication
     public static final String JSESSIONID = "1fvtg340s8g1cjzf3ae3jx1tz";
     
+    /**
+     * @return The shared in-process stub's URL when api.stub.enabled is true, otherwise api.base.url
+     */
+    public static String baseUri(Config config) {
+        return config.getBoolean("api.stub.enabled", false) ? PetStoreStub.shared().getBaseUrl() : config.getBaseUrl();
+    }
+
     /**
      * @return Default request specification with common settings
      */
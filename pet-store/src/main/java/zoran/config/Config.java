@@ -5,20 +5,52 @@ import java.io.InputStream;
 import java.util.Properties;
 
 public class Config {
+    private final Properties properties = new Properties();
     private final String baseUrl;
     private final String apiKey;
 
     public Config() {
-        Properties prop = new Properties();
         try (InputStream input = getClass().getClassLoader().getResourceAsStream("config.properties")) {
-            prop.load(input);
-            this.baseUrl = prop.getProperty("api.base.url");
-            this.apiKey = prop.getProperty("api.key");
+            properties.load(input);
+            this.baseUrl = properties.getProperty("api.base.url");
+            this.apiKey = properties.getProperty("api.key");
         } catch (IOException ex) {
             throw new RuntimeException("Failed to load configuration", ex);
         }
     }
 
-    public String getBaseUrl() { return baseUrl; }
+    /**
+     * @return api.base.url; a system property of that name overrides config.properties
+     */
+    public String getBaseUrl() {
+        return get("api.base.url", baseUrl);
+    }
+
+
     public String getApiKey() { return apiKey; }
-}
\ No newline at end of file
+
+    /**
+     * Looks up a setting, letting a JVM system property of the same name override config.properties
+     * @param key The property name
+     * @param defaultValue Value to use when the property is not set anywhere
+     * @return The configured value
+     */
+    public String get(String key, String defaultValue) {
+        return System.getProperty(key, properties.getProperty(key, defaultValue));
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = get(key, null);
+        return value == null || value.isBlank() ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key, null);
+        return value == null || value.isBlank() ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+}
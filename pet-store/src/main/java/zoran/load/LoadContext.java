@@ -0,0 +1,105 @@
+package zoran.load;
+
+import zoran.api.BaseApiClient;
+import zoran.api.PetApiClient;
+import zoran.api.RetryPolicy;
+import zoran.api.StoreApiClient;
+import zoran.api.UserApiClient;
+
+import java.util.SplittableRandom;
+
+/**
+ * What an operation works with: the API clients, shared by the whole run and set to send each request
+ * exactly once, the ids of pets and orders created so far, and a random generator of its own.
+ */
+public final class LoadContext {
+    private final Shared shared;
+    private final SplittableRandom random;
+
+    LoadContext(Shared shared, SplittableRandom random) {
+        this.shared = shared;
+        this.random = random;
+    }
+
+    public PetApiClient pets() {
+        return shared.pets;
+    }
+
+    public StoreApiClient store() {
+        return shared.store;
+    }
+
+    public UserApiClient users() {
+        return shared.users;
+    }
+
+    /**
+     * @return Randomness for this operation only; split from the run's seed, so the mix of operations and
+     * their choices repeat between runs with the same seed
+     */
+    public SplittableRandom random() {
+        return random;
+    }
+
+    /**
+     * Makes the pet available to {@link #randomPetId()}
+     */
+    public void rememberPet(long petId) {
+        shared.petIds.add(petId);
+    }
+
+    /**
+     * @return One of the recently remembered pets
+     * @throws IllegalStateException When none was remembered yet; remember some in the scenario's setup
+     */
+    public long randomPetId() {
+        return pick(shared.petIds, "pet");
+    }
+
+    /**
+     * Makes the order available to {@link #randomOrderId()}
+     */
+    public void rememberOrder(long orderId) {
+        shared.orderIds.add(orderId);
+    }
+
+    /**
+     * @return One of the recently remembered orders
+     * @throws IllegalStateException When none was remembered yet
+     */
+    public long randomOrderId() {
+        return pick(shared.orderIds, "order");
+    }
+
+    private long pick(RecentIds ids, String kind) {
+        long id = ids.pick(random);
+        if (id < 0) {
+            throw new IllegalStateException("No " + kind + " remembered yet; remember some in the scenario's setup");
+        }
+        return id;
+    }
+
+    /**
+     * State shared by every operation of one run
+     */
+    static final class Shared {
+        private static final int REMEMBERED_IDS = 4_096;
+
+        final PetApiClient pets = forLoad(new PetApiClient());
+        final StoreApiClient store = forLoad(new StoreApiClient());
+        final UserApiClient users = forLoad(new UserApiClient());
+        final RecentIds petIds = new RecentIds(REMEMBERED_IDS);
+        final RecentIds orderIds = new RecentIds(REMEMBERED_IDS);
+
+        /**
+         * Makes every operation send its own requests, once each: retries, cached responses and coalesced
+         * GETs would all report a latency and a rate the server never saw
+         */
+        private static <T extends BaseApiClient> T forLoad(T client) {
+            client.setRetryPolicy(RetryPolicy.none());
+            client.setResponseCache(null);
+            client.setCoalesceGets(false);
+            return client;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package zoran.load;
+
+import lombok.Builder;
+import lombok.Value;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import zoran.api.ApiLogger;
+import zoran.api.ApiMetrics;
+import zoran.api.EndpointStats;
+import zoran.api.ExchangeRecorder;
+import zoran.config.Config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Drives a {@link Scenario} through the API clients at the arrival rate of a {@link LoadProfile}.
+ *
+ * <p>This is an open model: one thread sends arrivals when they are due and each runs on a virtual thread
+ * of its own, so a slow response holds up nothing but itself and the rate stays what the profile says.
+ * The operations call the clients' blocking methods rather than their async ones, which would cap each
+ * operation at {@code api.concurrency.*} calls in flight and hold the rest back. The only cap is
+ * {@code maxInFlight} across the run; an arrival over it is dropped and counted, so a stalled server
+ * cannot pile up threads without bound.</p>
+ *
+ * <p>Calls still wait for a connection from the shared {@link zoran.api.ConnectionPool}. Size
+ * {@code api.pool.max.per.route} to at least the rate times the latency, or the run measures the wait for
+ * the pool rather than the server.</p>
+ *
+ * <p>Each operation's latency is recorded twice. The corrected latency runs from when the arrival was due
+ * until the operation finished; the uncorrected one runs from when the operation actually started. Arrivals
+ * sent late count the delay only in the corrected latency. That happens when the generator falls behind or
+ * virtual threads wait for a carrier, e.g. during a GC pause or while carriers are pinned by blocking calls
+ * inside {@code synchronized}. A closed loop that sends the next request only after the last one answered
+ * never sees that delay ("coordinated omission"). The first call of each operation is recorded the same way in
+ * {@link ApiMetrics}, per endpoint. The metrics are reset once the setup is done, so the endpoint stats in the
+ * result cover the run alone.</p>
+ *
+ * <pre>{@code
+ * LoadResult result = LoadGenerator.builder()
+ *         .profile(LoadProfile.ramp(10, 200, Duration.ofSeconds(30)).thenConstant(200, Duration.ofMinutes(2)))
+ *         .build()
+ *         .run(Scenarios.browseAndBuy(100));
+ * System.out.print(result.report());
+ * }</pre>
+ */
+@Value
+@Builder(toBuilder = true)
+public class LoadGenerator {
+    private static final ApiLogger LOG = ApiLogger.getLogger(LoadGenerator.class);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    @Builder.Default
+    LoadProfile profile = LoadProfile.constant(10, Duration.ofMinutes(1));
+    /** Operations allowed to run at once; arrivals beyond it are dropped */
+    @Builder.Default
+    int maxInFlight = 10_000;
+    /** How long to wait for operations still running once the last arrival was sent */
+    @Builder.Default
+    Duration drainTimeout = Duration.ofSeconds(30);
+    /** Seeds the choice of operation for each arrival and the random generator each one gets */
+    @Builder.Default
+    long seed = 42;
+
+    /**
+     * Builds the generator from {@code load.*} settings
+     */
+    public static LoadGenerator fromConfig(Config config) {
+        return builder()
+                .profile(LoadProfile.parse(config.get("load.profile", "constant:10,60")))
+                .maxInFlight(config.getInt("load.max.in.flight", 10_000))
+                .drainTimeout(Duration.ofMillis(config.getLong("load.drain.timeout.ms", 30_000)))
+                .seed(config.getLong("load.seed", 42))
+                .build();
+    }
+
+    /**
+     * Runs the scenario's setup, then sends arrivals until the profile is over and waits for them to finish.
+     * Blocks the calling thread, which does the pacing; interrupting it ends the run early.
+     */
+    public LoadResult run(Scenario scenario) {
+        LoadContext.Shared shared = new LoadContext.Shared();
+        SplittableRandom random = new SplittableRandom(seed);
+        scenario.setup(new LoadContext(shared, random.split()));
+
+        ApiMetrics.global().reset();
+        OperationRecorder[] recorders = new OperationRecorder[scenario.size()];
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i] = new OperationRecorder(scenario.operationName(i));
+        }
+        RunWindow window = new RunWindow(maxInFlight);
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("load-", 0).factory());
+        LoadProfile.Schedule schedule = profile.schedule();
+        LOG.info(() -> "Starting " + scenario.getName() + ": " + profile.arrivals() + " arrivals over " + profile.getDuration());
+
+        long arrivals = 0;
+        long maxSendDelay = 0;
+        long start = System.nanoTime();
+        for (long due = schedule.next(); due >= 0 && !Thread.currentThread().isInterrupted(); due = schedule.next()) {
+            long dueAt = start + due;
+            for (long wait = dueAt - System.nanoTime(); wait > 0; wait = dueAt - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+            }
+            maxSendDelay = Math.max(maxSendDelay, System.nanoTime() - dueAt);
+            arrivals++;
+            int index = scenario.pick(random);
+            OperationRecorder recorder = recorders[index];
+            if (!window.tryStart()) {
+                recorder.dropped.increment();
+                continue;
+            }
+            LoadOperation operation = scenario.operation(index);
+            LoadContext context = new LoadContext(shared, random.split());
+            executor.execute(() -> recorder.run(operation, context, dueAt, window));
+        }
+
+        awaitDrain(executor);
+        // Taken before the stragglers are interrupted, so operations that end because of it count nowhere
+        long unfinished = window.close();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        List<OperationStats> operations = new ArrayList<>(recorders.length);
+        for (OperationRecorder recorder : recorders) {
+            operations.add(recorder.stats());
+        }
+        List<EndpointStats> endpoints = ApiMetrics.global().snapshot();
+        executor.shutdownNow();
+        LoadResult result = new LoadResult(scenario.getName(), elapsed, arrivals, unfinished,
+                Duration.ofNanos(maxSendDelay), List.copyOf(operations), endpoints);
+        LOG.info(result::report);
+        return result;
+    }
+
+    /**
+     * Waits up to the drain timeout for the operations still running
+     */
+    private void awaitDrain(ExecutorService executor) {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(drainTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Decides which operations count towards the result. An operation records its outcome and frees its
+     * in-flight slot in one step, under the read lock; closing takes the write lock. The stats read after
+     * closing then see every operation either recorded or still running, and operations that end later,
+     * e.g. because they were interrupted, are not recorded at all.
+     */
+    private static final class RunWindow {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Semaphore inFlight;
+        private final int maxInFlight;
+        private boolean closed;
+
+        RunWindow(int maxInFlight) {
+            this.inFlight = new Semaphore(maxInFlight);
+            this.maxInFlight = maxInFlight;
+        }
+
+        /**
+         * @return False when {@code maxInFlight} operations are already running
+         */
+        boolean tryStart() {
+            return inFlight.tryAcquire();
+        }
+
+        void finish(Runnable record) {
+            lock.readLock().lock();
+            try {
+                if (!closed) {
+                    record.run();
+                }
+                inFlight.release();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * @return Operations still running; they will not be recorded
+         */
+        long close() {
+            lock.writeLock().lock();
+            try {
+                closed = true;
+                return maxInFlight - inFlight.availablePermits();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static final class OperationRecorder {
+        private final String name;
+        private final Recorder latencies = new Recorder(SIGNIFICANT_DIGITS);
+        private final Recorder correctedLatencies = new Recorder(SIGNIFICANT_DIGITS);
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final AtomicReference<Throwable> firstError = new AtomicReference<>();
+
+        OperationRecorder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @param dueAt When the arrival was due; the corrected latency is measured from it
+         */
+        void run(LoadOperation operation, LoadContext context, long dueAt, RunWindow window) {
+            long start = System.nanoTime();
+            ApiMetrics.setIntendedStart(dueAt);
+            // Each arrival runs on a fresh thread; a diagnostics ring for it would only be garbage
+            ExchangeRecorder.pauseRecording();
+            Throwable error = null;
+            try {
+                operation.run(context);
+            } catch (RuntimeException | AssertionError e) {
+                // The clients report unexpected statuses as assertion failures
+                error = e;
+            } finally {
+                long end = System.nanoTime();
+                ApiMetrics.clearIntendedStart();
+                ExchangeRecorder.resumeRecording();
+                Throwable failure = error;
+                window.finish(() -> record(start, end, dueAt, failure));
+            }
+        }
+
+        private void record(long start, long end, long dueAt, Throwable error) {
+            if (error != null) {
+                errors.increment();
+                firstError.compareAndSet(null, error);
+            }
+            latencies.recordValue(end - start);
+            correctedLatencies.recordValue(Math.max(0, end - dueAt));
+            completed.increment();
+        }
+
+        OperationStats stats() {
+            Histogram histogram = latencies.getIntervalHistogram();
+            Histogram corrected = correctedLatencies.getIntervalHistogram();
+            return new OperationStats(name, completed.sum(), errors.sum(), dropped.sum(), histogram, corrected,
+                    firstError.get());
+        }
+    }
+}
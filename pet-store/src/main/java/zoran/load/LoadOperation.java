@@ -0,0 +1,10 @@
+package zoran.load;
+
+/**
+ * One unit of work in a {@link Scenario}, e.g. fetching a pet. Timed as a whole, so an operation may make
+ * several calls. Throwing anything counts it as an error.
+ */
+@FunctionalInterface
+public interface LoadOperation {
+    void run(LoadContext context);
+}
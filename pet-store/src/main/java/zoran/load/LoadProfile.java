@@ -0,0 +1,168 @@
+package zoran.load;
+
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arrival rate over the course of a load run, as a series of stages that each hold the rate steady or ramp
+ * it linearly. Arrivals follow the rate whatever the responses do: a slow server gets the same requests per
+ * second, and the requests pile up in flight instead of being held back.
+ *
+ * <pre>{@code
+ * LoadProfile.ramp(0, 200, Duration.ofSeconds(30))
+ *         .thenConstant(200, Duration.ofMinutes(5))
+ *         .thenRamp(200, 0, Duration.ofSeconds(10));
+ * }</pre>
+ */
+@Value
+public class LoadProfile {
+    List<Stage> stages;
+
+    private LoadProfile(List<Stage> stages) {
+        this.stages = List.copyOf(stages);
+    }
+
+    public static LoadProfile constant(double requestsPerSecond, Duration duration) {
+        return ramp(requestsPerSecond, requestsPerSecond, duration);
+    }
+
+    public static LoadProfile ramp(double fromRequestsPerSecond, double toRequestsPerSecond, Duration duration) {
+        return new LoadProfile(List.of(new Stage(fromRequestsPerSecond, toRequestsPerSecond, duration)));
+    }
+
+    public LoadProfile thenConstant(double requestsPerSecond, Duration duration) {
+        return thenRamp(requestsPerSecond, requestsPerSecond, duration);
+    }
+
+    public LoadProfile thenRamp(double fromRequestsPerSecond, double toRequestsPerSecond, Duration duration) {
+        List<Stage> next = new ArrayList<>(stages);
+        next.add(new Stage(fromRequestsPerSecond, toRequestsPerSecond, duration));
+        return new LoadProfile(next);
+    }
+
+    /**
+     * Reads a profile from its settings form: stages separated by {@code ;}, each {@code constant:rate,seconds}
+     * or {@code ramp:from,to,seconds}, e.g. {@code ramp:0,200,30;constant:200,300}
+     */
+    public static LoadProfile parse(String spec) {
+        List<Stage> stages = new ArrayList<>();
+        for (String stage : spec.split(";")) {
+            String trimmed = stage.trim();
+            int colon = trimmed.indexOf(':');
+            String kind = colon < 0 ? trimmed : trimmed.substring(0, colon).toLowerCase();
+            String[] args = colon < 0 ? new String[0] : trimmed.substring(colon + 1).split(",");
+            try {
+                switch (kind) {
+                    case "constant":
+                        stages.add(new Stage(number(args[0]), number(args[0]), seconds(args[1])));
+                        break;
+                    case "ramp":
+                        stages.add(new Stage(number(args[0]), number(args[1]), seconds(args[2])));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown load stage: " + stage);
+                }
+            } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid load stage: " + stage, e);
+            }
+        }
+        return new LoadProfile(stages);
+    }
+
+    public Duration getDuration() {
+        return stages.stream().map(Stage::getDuration).reduce(Duration.ZERO, Duration::plus);
+    }
+
+    /**
+     * @return Number of arrivals the whole profile makes
+     */
+    public long arrivals() {
+        return (long) Math.ceil(stages.stream().mapToDouble(Stage::arrivals).sum());
+    }
+
+    Schedule schedule() {
+        return new Schedule();
+    }
+
+    private static double number(String value) {
+        return Double.parseDouble(value.trim());
+    }
+
+    private static Duration seconds(String value) {
+        return Duration.ofNanos(Math.round(number(value) * 1_000_000_000));
+    }
+
+    /**
+     * A rate that goes linearly from {@code startRate} to {@code endRate} requests per second over {@code duration}
+     */
+    @Value
+    public static class Stage {
+        double startRate;
+        double endRate;
+        Duration duration;
+
+        public Stage(double startRate, double endRate, Duration duration) {
+            if (startRate < 0 || endRate < 0 || duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("A load stage needs rates of at least 0 and a positive duration, was "
+                        + startRate + " to " + endRate + " over " + duration);
+            }
+            this.startRate = startRate;
+            this.endRate = endRate;
+            this.duration = duration;
+        }
+
+        double arrivals() {
+            return (startRate + endRate) / 2 * seconds();
+        }
+
+        /**
+         * @return Seconds into the stage at which {@code count} arrivals are due, from the integral of the rate
+         */
+        double secondsUntil(double count) {
+            double seconds = seconds();
+            double slope = (endRate - startRate) / seconds;
+            if (Math.abs(slope) < 1e-12) {
+                return count / startRate;
+            }
+            // startRate * t + slope * t^2 / 2 = count
+            return (Math.sqrt(Math.max(0, startRate * startRate + 2 * slope * count)) - startRate) / slope;
+        }
+
+        private double seconds() {
+            return duration.toNanos() / 1e9;
+        }
+    }
+
+    /**
+     * When each arrival is due, in nanoseconds from the start of the run. The n-th arrival is due when the
+     * rate integrated from the start reaches n, so arrivals are evenly spaced at a constant rate and carry
+     * over smoothly from one stage to the next.
+     */
+    final class Schedule {
+        private int stage;
+        private long stageStartNanos;
+        private double arrivalsBeforeStage;
+        private long next;
+
+        /**
+         * @return When the next arrival is due, or -1 once the profile is over
+         */
+        long next() {
+            while (stage < stages.size()) {
+                Stage current = stages.get(stage);
+                double count = next - arrivalsBeforeStage;
+                if (count < current.arrivals()) {
+                    next++;
+                    return stageStartNanos + Math.round(current.secondsUntil(count) * 1e9);
+                }
+                arrivalsBeforeStage += current.arrivals();
+                stageStartNanos += current.getDuration().toNanos();
+                stage++;
+            }
+            return -1;
+        }
+    }
+}
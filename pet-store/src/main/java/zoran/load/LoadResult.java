@@ -0,0 +1,73 @@
+package zoran.load;
+
+import lombok.Value;
+import zoran.api.EndpointStats;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of a {@link LoadGenerator} run
+ */
+@Value
+public class LoadResult {
+    String scenario;
+    /** From the first arrival until the last operation finished or the drain timeout passed */
+    Duration elapsed;
+    /** Arrivals the profile scheduled, dropped ones included */
+    long arrivals;
+    /** Operations still running when the drain timeout passed; they are in no other count */
+    long unfinished;
+    /**
+     * Longest an arrival was sent after it was due. Small next to the latencies when the generator kept up;
+     * large means the machine running it, not the server, limited the rate.
+     */
+    Duration maxSendDelay;
+    /** In the order the scenario declares them */
+    List<OperationStats> operations;
+    /** Per endpoint, from {@link zoran.api.ApiMetrics}; empty when metrics are off */
+    List<EndpointStats> endpoints;
+
+    public long completed() {
+        return operations.stream().mapToLong(OperationStats::getCompleted).sum();
+    }
+
+    public long errors() {
+        return operations.stream().mapToLong(OperationStats::getErrors).sum();
+    }
+
+    public long dropped() {
+        return operations.stream().mapToLong(OperationStats::getDropped).sum();
+    }
+
+    /**
+     * @return Completed operations per second
+     */
+    public double throughput() {
+        return elapsed.isZero() ? 0 : completed() * 1e9 / elapsed.toNanos();
+    }
+
+    /**
+     * @return Stats for the named operation, or null when the scenario has no such operation
+     */
+    public OperationStats operation(String name) {
+        return operations.stream().filter(stats -> stats.getName().equals(name)).findFirst().orElse(null);
+    }
+
+    /**
+     * @return A summary line followed by one line per operation, for logs and reports
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder(String.format(
+                "%s: arrivals=%d completed=%d errors=%d dropped=%d unfinished=%d in %.1fs (%.1f/s), max send delay %.1fms",
+                scenario, arrivals, completed(), errors(), dropped(), unfinished, elapsed.toNanos() / 1e9,
+                throughput(), maxSendDelay.toNanos() / 1e6)).append(System.lineSeparator());
+        for (OperationStats stats : operations) {
+            report.append("  ").append(stats).append(System.lineSeparator());
+        }
+        for (EndpointStats stats : endpoints) {
+            report.append("  ").append(stats).append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package zoran.load;
+
+import lombok.Value;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+
+/**
+ * How one operation of a scenario fared in a load run
+ */
+@Value
+public class OperationStats {
+    String name;
+    /** Operations that ran to the end, errors included */
+    long completed;
+    long errors;
+    /** Arrivals that were not run because {@code maxInFlight} operations were already running */
+    long dropped;
+    /** Nanoseconds each completed operation took from when it started; a copy, so it can be merged or exported freely */
+    Histogram latencies;
+    /** Nanoseconds from when each arrival was due until its operation finished, waits to be sent included */
+    Histogram correctedLatencies;
+    /** The first error, to show what went wrong; null when there was none */
+    Throwable firstError;
+
+    /**
+     * @param percentile e.g. 99.9
+     */
+    public Duration latencyAt(double percentile) {
+        return Duration.ofNanos(latencies.getValueAtPercentile(percentile));
+    }
+
+    public Duration p50() {
+        return latencyAt(50);
+    }
+
+    public Duration p99() {
+        return latencyAt(99);
+    }
+
+    public Duration max() {
+        return Duration.ofNanos(latencies.getMaxValue());
+    }
+
+    /**
+     * @param percentile e.g. 99.9
+     */
+    public Duration correctedLatencyAt(double percentile) {
+        return Duration.ofNanos(correctedLatencies.getValueAtPercentile(percentile));
+    }
+
+    public Duration correctedP99() {
+        return correctedLatencyAt(99);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: completed=%d errors=%d dropped=%d p50=%.1fms p90=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms"
+                        + " | corrected p50=%.1fms p90=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms%s",
+                name, completed, errors, dropped, millis(p50()), millis(latencyAt(90)), millis(p99()),
+                millis(latencyAt(99.9)), millis(max()), millis(correctedLatencyAt(50)), millis(correctedLatencyAt(90)),
+                millis(correctedP99()), millis(correctedLatencyAt(99.9)),
+                millis(Duration.ofNanos(correctedLatencies.getMaxValue())),
+                firstError == null ? "" : " first error: " + firstError);
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1_000_000.0;
+    }
+}
@@ -0,0 +1,41 @@
+package zoran.load;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The most recent ids a run has created, for operations that need an existing pet or order to work on.
+ * Once full, new ids overwrite the oldest. Picking is lock-free; adding takes a lock, since adds are the
+ * rare side of a load mix.
+ */
+final class RecentIds {
+    private final AtomicLongArray ids;
+    private final int mask;
+    private long added;
+    /** Slots filled so far; written after the slot, so a pick never sees an empty one */
+    private volatile int size;
+
+    RecentIds(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.ids = new AtomicLongArray(slots);
+        this.mask = slots - 1;
+    }
+
+    synchronized void add(long id) {
+        ids.set((int) (added & mask), id);
+        added++;
+        size = (int) Math.min(added, ids.length());
+    }
+
+    /**
+     * @return A random id among those remembered, or -1 when there are none yet
+     */
+    long pick(SplittableRandom random) {
+        int filled = size;
+        return filled == 0 ? -1 : ids.get(random.nextInt(filled));
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,150 @@
+package zoran.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * A weighted mix of operations. Each arrival runs one operation, picked at random in proportion to the
+ * weights, so the mix holds at any rate.
+ *
+ * <pre>{@code
+ * Scenario.builder("browse")
+ *         .setup(context -> ...)
+ *         .operation("getPetById", 70, context -> context.pets().getPetById(context.randomPetId()))
+ *         .operation("findByStatus", 20, context -> context.pets().findPetsByStatus("available"))
+ *         .operation("placeOrder", 10, context -> ...)
+ *         .build();
+ * }</pre>
+ */
+public final class Scenario {
+    private final String name;
+    private final Consumer<LoadContext> setup;
+    private final List<Entry> operations;
+    /** Running total of the weights, for picking by binary search */
+    private final double[] cumulativeWeights;
+
+    private Scenario(String name, Consumer<LoadContext> setup, List<Entry> operations) {
+        this.name = name;
+        this.setup = setup;
+        this.operations = List.copyOf(operations);
+        this.cumulativeWeights = new double[operations.size()];
+        double total = 0;
+        for (int i = 0; i < operations.size(); i++) {
+            total += operations.get(i).weight;
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Operation names, in the order they were added
+     */
+    public List<String> getOperationNames() {
+        return operations.stream().map(entry -> entry.name).toList();
+    }
+
+    /**
+     * @return Share of arrivals that run the operation, between 0 and 1
+     */
+    public double share(String operation) {
+        double total = cumulativeWeights[cumulativeWeights.length - 1];
+        return operations.stream().filter(entry -> entry.name.equals(operation))
+                .mapToDouble(entry -> entry.weight / total).sum();
+    }
+
+    void setup(LoadContext context) {
+        setup.accept(context);
+    }
+
+    /**
+     * @return Index of an operation picked in proportion to the weights
+     */
+    int pick(SplittableRandom random) {
+        double draw = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        int low = 0;
+        int high = cumulativeWeights.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulativeWeights[middle] > draw) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    String operationName(int index) {
+        return operations.get(index).name;
+    }
+
+    LoadOperation operation(int index) {
+        return operations.get(index).operation;
+    }
+
+    int size() {
+        return operations.size();
+    }
+
+    private static final class Entry {
+        final String name;
+        final double weight;
+        final LoadOperation operation;
+
+        Entry(String name, double weight, LoadOperation operation) {
+            this.name = name;
+            this.weight = weight;
+            this.operation = operation;
+        }
+    }
+
+    public static final class Builder {
+        private final String name;
+        private final List<Entry> operations = new ArrayList<>();
+        private Consumer<LoadContext> setup = context -> {
+        };
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Runs once before the clock starts, e.g. to create the pets the operations read
+         */
+        public Builder setup(Consumer<LoadContext> setup) {
+            this.setup = setup;
+            return this;
+        }
+
+        /**
+         * @param name Name the operation is reported under
+         * @param weight Relative share of arrivals, e.g. 70 for 70 in every 100 when the weights add up to 100
+         */
+        public Builder operation(String name, double weight, LoadOperation operation) {
+            if (!(weight > 0)) {
+                throw new IllegalArgumentException("Weight of " + name + " must be positive, was " + weight);
+            }
+            if (operations.stream().anyMatch(entry -> entry.name.equals(name))) {
+                throw new IllegalArgumentException("Scenario " + this.name + " already has an operation named " + name);
+            }
+            operations.add(new Entry(name, weight, operation));
+            return this;
+        }
+
+        public Scenario build() {
+            if (operations.isEmpty()) {
+                throw new IllegalStateException("Scenario " + name + " has no operations");
+            }
+            return new Scenario(name, setup, operations);
+        }
+    }
+}
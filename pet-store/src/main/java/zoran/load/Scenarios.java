@@ -0,0 +1,58 @@
+package zoran.load;
+
+import zoran.api.BulkResult;
+import zoran.models.Order;
+import zoran.models.Pet;
+import zoran.utils.TestDataSeed;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ready-made scenarios against the Petstore
+ */
+public final class Scenarios {
+    private static final long MAX_ID = 1_000_000_000_000L;
+
+    private Scenarios() {
+    }
+
+    /**
+     * Shoppers browsing and buying: 70% look up a pet, 20% list the available pets and 10% place an order.
+     * @param pets Pets to create before the run for the lookups and orders to use
+     */
+    public static Scenario browseAndBuy(int pets) {
+        return Scenario.builder("browseAndBuy")
+                .setup(context -> addPets(context, pets))
+                .operation("getPetById", 70, context -> context.pets().getPetById(context.randomPetId()))
+                .operation("findByStatus", 20, context -> context.pets().findPetsByStatus("available"))
+                .operation("placeOrder", 10, context -> {
+                    Order order = context.store().placeOrder(Order.builder()
+                            .id(context.random().nextLong(1, MAX_ID))
+                            .petId(context.randomPetId())
+                            .quantity(1)
+                            .shipDate(TestDataSeed.now())
+                            .status("placed")
+                            .complete(false)
+                            .build());
+                    context.rememberOrder(order.getId());
+                })
+                .build();
+    }
+
+    /**
+     * Creates available pets and remembers the ones the server accepted
+     */
+    public static void addPets(LoadContext context, int count) {
+        List<Pet> pets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = context.random().nextLong(1, MAX_ID);
+            pets.add(Pet.builder().id(id).name("load-" + id).photoUrls(List.of()).status("available").build());
+        }
+        for (BulkResult<Pet> result : context.pets().addPets(pets)) {
+            if (result.isSuccess()) {
+                context.rememberPet(result.getItem().getId());
+            }
+        }
+    }
+}
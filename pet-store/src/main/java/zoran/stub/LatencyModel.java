@@ -0,0 +1,84 @@
+package zoran.stub;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+/**
+ * Distribution the stub draws each response delay from
+ */
+@FunctionalInterface
+public interface LatencyModel {
+    /**
+     * @param random Source of randomness; the stub seeds one per request, so runs repeat exactly
+     * @return Delay before the request is handled, in nanoseconds
+     */
+    long sampleNanos(SplittableRandom random);
+
+    static LatencyModel none() {
+        return random -> 0;
+    }
+
+    static LatencyModel fixed(Duration delay) {
+        long nanos = delay.toNanos();
+        return random -> nanos;
+    }
+
+    /**
+     * Normal distribution; draws below zero are cut to zero
+     */
+    static LatencyModel normal(Duration mean, Duration stdDev) {
+        long meanNanos = mean.toNanos();
+        long stdDevNanos = stdDev.toNanos();
+        return random -> Math.max(0, Math.round(meanNanos + random.nextGaussian() * stdDevNanos));
+    }
+
+    /**
+     * Pareto distribution: mostly close to {@code scale}, with a long tail that gets heavier as {@code shape}
+     * goes down (1.16 gives the 80/20 rule). Draws are capped at {@code max}.
+     */
+    static LatencyModel pareto(Duration scale, double shape, Duration max) {
+        if (shape <= 0) {
+            throw new IllegalArgumentException("Pareto shape must be positive: " + shape);
+        }
+        double scaleNanos = scale.toNanos();
+        long maxNanos = max.toNanos();
+        return random -> {
+            // Inverse CDF; 1 - u keeps the base away from zero
+            double draw = scaleNanos / Math.pow(1 - random.nextDouble(), 1 / shape);
+            return (long) Math.min(draw, maxNanos);
+        };
+    }
+
+    /**
+     * Reads a model from its settings form, with durations in milliseconds:
+     * {@code none}, {@code fixed:20}, {@code normal:50,10} (mean, standard deviation) or
+     * {@code pareto:10,1.5,2000} (scale, shape, cap)
+     */
+    static LatencyModel parse(String spec) {
+        String trimmed = spec.trim();
+        int colon = trimmed.indexOf(':');
+        String kind = (colon < 0 ? trimmed : trimmed.substring(0, colon)).toLowerCase();
+        String[] args = colon < 0 ? new String[0] : trimmed.substring(colon + 1).split(",");
+        try {
+            switch (kind) {
+                case "none":
+                case "":
+                    return none();
+                case "fixed":
+                    return fixed(millis(args[0]));
+                case "normal":
+                    return normal(millis(args[0]), millis(args[1]));
+                case "pareto":
+                    return pareto(millis(args[0]), Double.parseDouble(args[1].trim()), millis(args[2]));
+                default:
+                    throw new IllegalArgumentException("Unknown latency model: " + spec);
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid latency model: " + spec, e);
+        }
+    }
+
+    private static Duration millis(String value) {
+        return Duration.ofNanos(Math.round(Double.parseDouble(value.trim()) * 1_000_000));
+    }
+}
@@ -0,0 +1,285 @@
+package zoran.stub;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Concurrent map from primitive {@code long} keys to values, so millions of stub pets and orders do not each
+ * cost a boxed {@code Long} key and a {@code HashMap.Node}. Keys are spread over lock-striped segments; each
+ * segment is an open-addressing table (linear probing, backward-shift deletion) behind a {@link StampedLock}.
+ * Lookups are optimistic and only take the read lock when a writer got in the way.
+ * {@link #keys()} is weakly consistent, like {@code ConcurrentHashMap} iteration: each segment is copied as of one moment.
+ * Null values are not allowed, since a null value marks an empty slot.
+ */
+final class LongKeyedMap<V> {
+    private static final int SEGMENTS = 64;
+    private static final int SEGMENT_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(SEGMENTS);
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Segment<V>[] segments;
+
+    @SuppressWarnings("unchecked")
+    LongKeyedMap() {
+        segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>();
+        }
+    }
+
+    /**
+     * @return The value for the key, or null when there is none
+     */
+    V get(long key) {
+        long hash = mix(key);
+        return segmentFor(hash).get(key, hash);
+    }
+
+    boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return The previous value, or null when the key was absent
+     */
+    V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        return compute(key, previous -> value, true);
+    }
+
+    /**
+     * @return The removed value, or null when the key was absent
+     */
+    V remove(long key) {
+        return compute(key, previous -> null, true);
+    }
+
+    /**
+     * Replaces the value for the key with what the function returns for the current one (null when absent);
+     * returning null removes the entry. The function runs under the segment's write lock, so calls for the same
+     * key never interleave; it must be quick and must not touch this map.
+     * @return The new value, or null when there is none
+     */
+    V compute(long key, UnaryOperator<V> remapping) {
+        return compute(key, remapping, false);
+    }
+
+    /**
+     * @return Number of entries, summed segment by segment
+     */
+    int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return A copy of the keys, for callers that go on to take other locks per key
+     */
+    long[] keys() {
+        long[][] parts = new long[SEGMENTS][];
+        int total = 0;
+        for (int i = 0; i < SEGMENTS; i++) {
+            parts[i] = segments[i].keys();
+            total += parts[i].length;
+        }
+        long[] keys = new long[total];
+        int offset = 0;
+        for (long[] part : parts) {
+            System.arraycopy(part, 0, keys, offset, part.length);
+            offset += part.length;
+        }
+        return keys;
+    }
+
+    void clear() {
+        for (Segment<V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    private V compute(long key, UnaryOperator<V> remapping, boolean returnPrevious) {
+        long hash = mix(key);
+        return segmentFor(hash).compute(key, hash, remapping, returnPrevious);
+    }
+
+    private Segment<V> segmentFor(long hash) {
+        return segments[(int) (hash >>> SEGMENT_SHIFT)];
+    }
+
+    /**
+     * Murmur3's 64-bit finalizer; sequential IDs would otherwise pile into neighbouring slots
+     */
+    static long mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Table {
+        final long[] keys;
+        final Object[] values;
+        final int mask;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+            mask = capacity - 1;
+        }
+    }
+
+    private static final class Segment<V> {
+        private final StampedLock lock = new StampedLock();
+        private Table table = new Table(INITIAL_CAPACITY);
+        private int size;
+
+        V get(long key, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                V value = find(table, key, hash);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return find(table, key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        V compute(long key, long hash, UnaryOperator<V> remapping, boolean returnPrevious) {
+            long stamp = lock.writeLock();
+            try {
+                Table t = table;
+                int slot = (int) hash & t.mask;
+                while (t.values[slot] != null && t.keys[slot] != key) {
+                    slot = (slot + 1) & t.mask;
+                }
+                @SuppressWarnings("unchecked")
+                V previous = (V) t.values[slot];
+                V next = remapping.apply(previous);
+                if (next == null) {
+                    if (previous != null) {
+                        delete(t, slot);
+                        size--;
+                    }
+                } else if (previous != null) {
+                    t.values[slot] = next;
+                } else {
+                    t.keys[slot] = key;
+                    t.values[slot] = next;
+                    if (++size * 4 > t.values.length * 3) {
+                        resize(t);
+                    }
+                }
+                return returnPrevious ? previous : next;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        long[] keys() {
+            long stamp = lock.readLock();
+            try {
+                Table t = table;
+                long[] keys = new long[size];
+                int n = 0;
+                for (int i = 0; i < t.values.length; i++) {
+                    if (t.values[i] != null) {
+                        keys[n++] = t.keys[i];
+                    }
+                }
+                return keys;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        void clear() {
+            long stamp = lock.writeLock();
+            try {
+                table = new Table(INITIAL_CAPACITY);
+                size = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Probes at most the whole table, so an optimistic read racing a writer still ends; its result is
+         * thrown away unless the stamp validates
+         */
+        @SuppressWarnings("unchecked")
+        private static <V> V find(Table t, long key, long hash) {
+            int slot = (int) hash & t.mask;
+            for (int probes = 0; probes <= t.mask; probes++) {
+                Object value = t.values[slot];
+                if (value == null) {
+                    return null;
+                }
+                if (t.keys[slot] == key) {
+                    return (V) value;
+                }
+                slot = (slot + 1) & t.mask;
+            }
+            return null;
+        }
+
+        /**
+         * Backward-shift deletion: pulls later entries of the probe run into the hole, so lookups
+         * can keep stopping at the first empty slot without tombstones
+         */
+        private static void delete(Table t, int hole) {
+            t.values[hole] = null;
+            int slot = hole;
+            while (true) {
+                slot = (slot + 1) & t.mask;
+                if (t.values[slot] == null) {
+                    return;
+                }
+                int home = (int) mix(t.keys[slot]) & t.mask;
+                // Move the entry unless its home lies cyclically in (hole, slot]
+                boolean stays = hole <= slot ? hole < home && home <= slot : hole < home || home <= slot;
+                if (!stays) {
+                    t.keys[hole] = t.keys[slot];
+                    t.values[hole] = t.values[slot];
+                    t.values[slot] = null;
+                    hole = slot;
+                }
+            }
+        }
+
+        private void resize(Table old) {
+            Table grown = new Table(old.values.length * 2);
+            for (int i = 0; i < old.values.length; i++) {
+                if (old.values[i] != null) {
+                    int slot = (int) mix(old.keys[i]) & grown.mask;
+                    while (grown.values[slot] != null) {
+                        slot = (slot + 1) & grown.mask;
+                    }
+                    grown.keys[slot] = old.keys[i];
+                    grown.values[slot] = old.values[i];
+                }
+            }
+            table = grown;
+        }
+    }
+}
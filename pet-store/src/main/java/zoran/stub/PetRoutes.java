@@ -0,0 +1,139 @@
+package zoran.stub;
+
+import zoran.models.Pet;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@code /pet} operations: add, update, find by status, get, update with form, delete and upload image
+ */
+final class PetRoutes {
+    private static final Set<String> STATUSES = Set.of("available", "pending", "sold");
+
+    private final ReplicatedStore store;
+
+    PetRoutes(ReplicatedStore store) {
+        this.store = store;
+    }
+
+    void handle(StubExchange exchange) throws IOException {
+        String method = exchange.method();
+        int segments = exchange.segmentCount();
+        if (segments == 1 && ("POST".equals(method) || "PUT".equals(method))) {
+            save(exchange);
+        } else if (segments == 2 && "findByStatus".equals(exchange.segment(1)) && "GET".equals(method)) {
+            findByStatus(exchange);
+        } else if (segments == 2) {
+            Long petId = exchange.idSegment(1);
+            if (petId == null) {
+                exchange.sendError(400, "Invalid ID supplied");
+                return;
+            }
+            switch (method) {
+                case "GET" -> get(exchange, petId);
+                case "POST" -> updateWithForm(exchange, petId);
+                case "DELETE" -> delete(exchange, petId);
+                default -> exchange.sendError(405, "Method not allowed");
+            }
+        } else if (segments == 3 && "uploadImage".equals(exchange.segment(2)) && "POST".equals(method)) {
+            Long petId = exchange.idSegment(1);
+            if (petId == null) {
+                exchange.sendError(400, "Invalid ID supplied");
+                return;
+            }
+            uploadImage(exchange, petId);
+        } else {
+            exchange.sendError(404, "Unknown operation");
+        }
+    }
+
+    /**
+     * POST and PUT both store the pet as sent, as the Petstore does; a pet without an ID gets one
+     */
+    private void save(StubExchange exchange) throws IOException {
+        Pet pet = exchange.json(Pet.class);
+        if (pet == null) {
+            exchange.sendError(405, "Invalid input");
+            return;
+        }
+        if (pet.getId() == null || pet.getId() == 0) {
+            pet.setId(store.nextId());
+        }
+        store.write(data -> {
+            data.savePet(pet);
+            return pet;
+        });
+        exchange.sendJson(200, pet);
+    }
+
+    private void findByStatus(StubExchange exchange) throws IOException {
+        List<String> statuses = exchange.queryParams("status");
+        if (statuses.isEmpty() || !STATUSES.containsAll(statuses)) {
+            exchange.sendError(400, "Invalid status value");
+            return;
+        }
+        exchange.sendJson(200, store.reads().petsByStatus(statuses));
+    }
+
+    private void get(StubExchange exchange, long petId) throws IOException {
+        Pet pet = store.reads().pet(petId);
+        if (pet == null) {
+            exchange.sendError(404, "Pet not found");
+        } else {
+            exchange.sendJson(200, pet);
+        }
+    }
+
+    private void updateWithForm(StubExchange exchange, long petId) throws IOException {
+        Map<String, String> form = exchange.form();
+        Pet updated = store.write(data -> data.updatePet(petId, pet -> {
+            // Replaced rather than changed in place: other requests may be serializing the stored pet
+            Pet copy = new Pet(pet.getId(), pet.getCategory(), pet.getName(), pet.getPhotoUrls(), pet.getTags(), pet.getStatus());
+            if (form.containsKey("name")) {
+                copy.setName(form.get("name"));
+            }
+            if (form.containsKey("status")) {
+                copy.setStatus(form.get("status"));
+            }
+            return copy;
+        }));
+        if (updated == null) {
+            exchange.sendError(404, "Pet not found");
+        } else {
+            exchange.sendMessage(200, "unknown", String.valueOf(petId));
+        }
+    }
+
+    private void delete(StubExchange exchange, long petId) throws IOException {
+        if (store.write(data -> data.removePet(petId)) == null) {
+            exchange.sendError(404, "Pet not found");
+        } else {
+            exchange.sendMessage(200, "unknown", String.valueOf(petId));
+        }
+    }
+
+    private void uploadImage(StubExchange exchange, long petId) throws IOException {
+        List<StubMultipart.Part> parts = exchange.multipart();
+        if (parts == null) {
+            exchange.sendError(415, "Expected multipart/form-data");
+            return;
+        }
+        if (!store.primary().hasPet(petId)) {
+            exchange.sendError(404, "Pet not found");
+            return;
+        }
+        StringBuilder message = new StringBuilder();
+        for (StubMultipart.Part part : parts) {
+            if ("additionalMetadata".equals(part.getName())) {
+                message.insert(0, "additionalMetadata: " + part.text() + "\n");
+            } else if (part.getFileName() != null) {
+                message.append("File uploaded to ./").append(part.getFileName())
+                        .append(", ").append(part.getContent().length).append(" bytes");
+            }
+        }
+        exchange.sendMessage(200, "unknown", message.toString());
+    }
+}
@@ -0,0 +1,191 @@
+package zoran.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import zoran.config.Config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process Petstore v2 server with in-memory state, for running the suites offline and at high rate.
+ * Implements the /pet, /store and /user operations the API clients use, with the same JSON shapes
+ * as {@code zoran.models}. Starts in a few milliseconds on a free port:
+ * <pre>
+ * try (PetStoreStub stub = PetStoreStub.start()) {
+ *     String baseUrl = stub.getBaseUrl(); // e.g. http://127.0.0.1:53412/v2
+ * }
+ * </pre>
+ * Setting {@code api.stub.enabled=true} points every client at {@link #shared()} instead of api.base.url.
+ * A {@link StubProfile} adds latency, errors, dropped connections, slow bodies and lagging reads;
+ * the shared stub takes its profile from the {@code api.stub.*} settings.
+ */
+public final class PetStoreStub implements AutoCloseable {
+    private static final String BASE_PATH = "/v2";
+
+    static {
+        // The JDK server writes headers and body separately; without TCP_NODELAY, Nagle's algorithm and
+        // delayed ACKs hold each small response back ~40 ms. Read once, when the server classes load.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ReplicatedStore store = new ReplicatedStore();
+    private final PetRoutes petRoutes = new PetRoutes(store);
+    private final StoreRoutes storeRoutes = new StoreRoutes(store);
+    private final UserRoutes userRoutes = new UserRoutes(store);
+    private final AtomicLong requestSequence = new AtomicLong();
+    private volatile StubProfile profile = StubProfile.NONE;
+
+    private PetStoreStub(int port) {
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start Petstore stub on port " + port, e);
+        }
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext(BASE_PATH, this::handle);
+        server.start();
+    }
+
+    /**
+     * @return A running stub on a free port
+     */
+    public static PetStoreStub start() {
+        return start(0);
+    }
+
+    /**
+     * @param port Port to listen on, 0 for any free port
+     * @return A running stub
+     */
+    public static PetStoreStub start(int port) {
+        return new PetStoreStub(port);
+    }
+
+    /**
+     * @return The stub shared by every client in this JVM, started on first use and stopped on exit
+     */
+    public static PetStoreStub shared() {
+        return Shared.INSTANCE;
+    }
+
+    private static final class Shared {
+        private static final PetStoreStub INSTANCE = createShared();
+
+        private static PetStoreStub createShared() {
+            Config config = new Config();
+            PetStoreStub stub = start(config.getInt("api.stub.port", 0));
+            stub.setProfile(StubProfile.fromConfig(config));
+            Thread hook = new Thread(stub::close, "petstore-stub-shutdown");
+            Runtime.getRuntime().addShutdownHook(hook);
+            return stub;
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return Base URL to give the clients, including the /v2 base path
+     */
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getAddress().getHostAddress() + ":" + getPort() + BASE_PATH;
+    }
+
+    public StubProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Switches latency and fault injection for the requests that arrive from now on, and restarts the
+     * fault sequence so the same profile replays the same faults
+     */
+    public void setProfile(StubProfile profile) {
+        store.setLag(profile.getReplicationLag());
+        requestSequence.set(0);
+        this.profile = profile;
+    }
+
+    /**
+     * Drops all pets, orders and users
+     */
+    public void reset() {
+        store.clear();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        store.close();
+    }
+
+    private void handle(HttpExchange httpExchange) throws IOException {
+        try (httpExchange) {
+            StubExchange exchange = new StubExchange(httpExchange, BASE_PATH);
+            try {
+                if (!injectFaults(exchange)) {
+                    return;
+                }
+                String resource = exchange.segmentCount() == 0 ? "" : exchange.segment(0);
+                switch (resource) {
+                    case "pet" -> petRoutes.handle(exchange);
+                    case "store" -> storeRoutes.handle(exchange);
+                    case "user" -> userRoutes.handle(exchange);
+                    default -> exchange.sendError(404, "Unknown operation");
+                }
+            } catch (RuntimeException e) {
+                exchange.sendError(500, "Stub failure: " + e);
+            }
+        }
+    }
+
+    /**
+     * Applies the current profile: waits out the drawn latency, then may drop the connection, answer with an
+     * error, or mark the response body to be trickled out
+     * @return True when the request should still be handled
+     */
+    private boolean injectFaults(StubExchange exchange) throws IOException {
+        StubProfile current = profile;
+        if (current == StubProfile.NONE) {
+            return true;
+        }
+        SplittableRandom random = new SplittableRandom(current.getSeed() + requestSequence.getAndIncrement());
+        long delay = current.getLatency().sampleNanos(random);
+        if (delay > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        double draw = random.nextDouble();
+        if (draw < current.getResetRate()) {
+            return false; // Closing the exchange unanswered drops the connection
+        }
+        if (draw < current.getResetRate() + current.getErrorRate()) {
+            List<Integer> statuses = current.getErrorStatuses();
+            exchange.sendError(statuses.get(random.nextInt(statuses.size())), "Injected fault");
+            return false;
+        }
+        if (random.nextDouble() < current.getSlowBodyRate()) {
+            exchange.throttle(current.getSlowBodyBytesPerSecond());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,105 @@
+package zoran.stub;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Primary store plus an optional lagging replica, to model a Petstore whose reads trail its writes.
+ * Writes are applied to the primary and answered from it; with a lag set, each write is replayed on the
+ * replica that much later and reads are served from the replica, index and inventory included.
+ * Without a lag there is no replica and reads go to the primary.
+ */
+final class ReplicatedStore {
+    private final StubStore primary = new StubStore();
+    /** Writes share the read side; changing the lag takes the write side, so no write straddles the change */
+    private final ReentrantReadWriteLock modeLock = new ReentrantReadWriteLock();
+    /** With a lag, held while a write is applied and its replay scheduled, so replays keep the primary's order */
+    private final Object replayOrder = new Object();
+    private volatile StubStore replica;
+    private long lagNanos;
+    private ScheduledExecutorService replayer;
+
+    /**
+     * Changes the lag for writes from now on. Turning the lag on starts the replica as a copy of the primary.
+     */
+    void setLag(Duration lag) {
+        long nanos = lag.toNanos();
+        modeLock.writeLock().lock();
+        try {
+            if (nanos > 0 && replica == null) {
+                StubStore copy = new StubStore();
+                copy.copyFrom(primary);
+                replayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "petstore-stub-replica");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                replica = copy;
+            } else if (nanos <= 0 && replica != null) {
+                replayer.shutdownNow();
+                replayer = null;
+                replica = null;
+            }
+            lagNanos = nanos;
+        } finally {
+            modeLock.writeLock().unlock();
+        }
+    }
+
+    long nextId() {
+        return primary.nextId();
+    }
+
+    /**
+     * @return The store reads are served from: the replica when a lag is set, otherwise the primary
+     */
+    StubStore reads() {
+        StubStore current = replica;
+        return current == null ? primary : current;
+    }
+
+    /**
+     * @return The primary, for the existence checks writes make on their own data
+     */
+    StubStore primary() {
+        return primary;
+    }
+
+    /**
+     * Applies the write to the primary now and, when a lag is set, to the replica after the lag. The write must
+     * give the same result when replayed on the same state. Replays run one at a time, in the order the writes
+     * hit the primary, since the lag is the same for all of them.
+     * @return What the write returned on the primary
+     */
+    <T> T write(Function<StubStore, T> mutation) {
+        modeLock.readLock().lock();
+        try {
+            StubStore current = replica;
+            if (current == null) {
+                return mutation.apply(primary);
+            }
+            synchronized (replayOrder) {
+                T result = mutation.apply(primary);
+                replayer.schedule(() -> mutation.apply(current), lagNanos, TimeUnit.NANOSECONDS);
+                return result;
+            }
+        } finally {
+            modeLock.readLock().unlock();
+        }
+    }
+
+    void clear() {
+        write(store -> {
+            store.clear();
+            return null;
+        });
+    }
+
+    void close() {
+        setLag(Duration.ZERO);
+    }
+}
@@ -0,0 +1,82 @@
+package zoran.stub;
+
+import zoran.models.Order;
+
+import java.io.IOException;
+
+/**
+ * {@code /store} operations: inventory, place, get and delete order
+ */
+final class StoreRoutes {
+    private final ReplicatedStore store;
+
+    StoreRoutes(ReplicatedStore store) {
+        this.store = store;
+    }
+
+    void handle(StubExchange exchange) throws IOException {
+        String method = exchange.method();
+        int segments = exchange.segmentCount();
+        if (segments == 2 && "inventory".equals(exchange.segment(1)) && "GET".equals(method)) {
+            inventory(exchange);
+        } else if (segments == 2 && "order".equals(exchange.segment(1)) && "POST".equals(method)) {
+            placeOrder(exchange);
+        } else if (segments == 3 && "order".equals(exchange.segment(1))) {
+            Long orderId = exchange.idSegment(2);
+            if (orderId == null) {
+                exchange.sendError(400, "Invalid ID supplied");
+                return;
+            }
+            switch (method) {
+                case "GET" -> getOrder(exchange, orderId);
+                case "DELETE" -> deleteOrder(exchange, orderId);
+                default -> exchange.sendError(405, "Method not allowed");
+            }
+        } else {
+            exchange.sendError(404, "Unknown operation");
+        }
+    }
+
+    /**
+     * Pet counts by status, e.g. {@code {"available": 3, "sold": 1}}
+     */
+    private void inventory(StubExchange exchange) throws IOException {
+        exchange.sendJson(200, store.reads().inventory());
+    }
+
+    private void placeOrder(StubExchange exchange) throws IOException {
+        Order order = exchange.json(Order.class);
+        if (order == null) {
+            exchange.sendError(400, "Invalid Order");
+            return;
+        }
+        if (order.getId() == null || order.getId() == 0) {
+            order.setId(store.nextId());
+        }
+        if (order.getComplete() == null) {
+            order.setComplete(false);
+        }
+        store.write(data -> {
+            data.saveOrder(order);
+            return order;
+        });
+        exchange.sendJson(200, order);
+    }
+
+    private void getOrder(StubExchange exchange, long orderId) throws IOException {
+        Order order = store.reads().order(orderId);
+        if (order == null) {
+            exchange.sendError(404, "Order not found");
+        } else {
+            exchange.sendJson(200, order);
+        }
+    }
+
+    private void deleteOrder(StubExchange exchange, long orderId) throws IOException {
+        if (store.write(data -> data.removeOrder(orderId)) == null) {
+            exchange.sendError(404, "Order Not Found");
+        } else {
+            exchange.sendMessage(200, "unknown", String.valueOf(orderId));
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package zoran.stub;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.sun.net.httpserver.HttpExchange;
+import zoran.api.Json;
+import zoran.models.ApiResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * One request to the stub, with helpers to read it and to answer in the Petstore's JSON shapes
+ */
+final class StubExchange {
+    /** Smaller responses are not worth gzipping, the same trade-off the clients make */
+    private static final int GZIP_MIN_BYTES = 1_024;
+
+    private final HttpExchange exchange;
+    private final String[] segments;
+    private byte[] body;
+    private int throttleBytesPerSecond;
+
+    StubExchange(HttpExchange exchange, String basePath) {
+        this.exchange = exchange;
+        String path = exchange.getRequestURI().getRawPath();
+        if (path.startsWith(basePath)) {
+            path = path.substring(basePath.length());
+        }
+        this.segments = path.isEmpty() || path.equals("/") ? new String[0] : path.substring(1).split("/");
+    }
+
+    String method() {
+        return exchange.getRequestMethod();
+    }
+
+    /**
+     * @return The decoded path segments after the base path, e.g. [pet, 42] for /v2/pet/42
+     */
+    int segmentCount() {
+        return segments.length;
+    }
+
+    String segment(int index) {
+        return URLDecoder.decode(segments[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return The segment as a numeric ID, or null when it is not one
+     */
+    Long idSegment(int index) {
+        try {
+            return Long.parseLong(segment(index));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    String header(String name) {
+        return exchange.getRequestHeaders().getFirst(name);
+    }
+
+    /**
+     * @return Values of the query parameter; repeated and comma-separated values are both split out
+     */
+    List<String> queryParams(String name) {
+        List<String> values = new ArrayList<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return values;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            if (key.equals(name) && eq >= 0) {
+                for (String value : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8).split(",")) {
+                    if (!value.isBlank()) {
+                        values.add(value.trim());
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    String queryParam(String name) {
+        List<String> values = queryParams(name);
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * @return The request body, gunzipped when it was sent with Content-Encoding: gzip
+     */
+    byte[] body() throws IOException {
+        if (body == null) {
+            try (InputStream in = exchange.getRequestBody()) {
+                byte[] raw = in.readAllBytes();
+                body = "gzip".equalsIgnoreCase(header("Content-Encoding"))
+                        ? new GZIPInputStream(new ByteArrayInputStream(raw)).readAllBytes() : raw;
+            }
+        }
+        return body;
+    }
+
+    /**
+     * @return The JSON body bound to the type, or null when it is empty or not valid JSON for it
+     */
+    <T> T json(Class<T> type) throws IOException {
+        byte[] bytes = body();
+        if (bytes.length == 0) {
+            return null;
+        }
+        try {
+            return Json.reader(type).readValue(bytes);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return The JSON array body bound to a list, or null when it is empty or not valid JSON for it
+     */
+    <T> List<T> jsonList(Class<T> elementType) throws IOException {
+        byte[] bytes = body();
+        if (bytes.length == 0) {
+            return null;
+        }
+        try {
+            return Json.mapper().readerForListOf(elementType).readValue(bytes);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return Fields of an application/x-www-form-urlencoded body
+     */
+    Map<String, String> form() throws IOException {
+        Map<String, String> fields = new LinkedHashMap<>();
+        String text = new String(body(), StandardCharsets.UTF_8);
+        for (String pair : text.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            fields.put(URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8),
+                    eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return fields;
+    }
+
+    /**
+     * @return Parts of a multipart/form-data body, or null when the request is not multipart
+     */
+    List<StubMultipart.Part> multipart() throws IOException {
+        String contentType = header("Content-Type");
+        return contentType == null ? null : StubMultipart.parse(contentType, body());
+    }
+
+    void sendJson(int status, Object value) throws IOException {
+        send(status, Json.mapper().writeValueAsBytes(value));
+    }
+
+    /**
+     * Answers with the Petstore's {@code {code, type, message}} envelope
+     */
+    void sendMessage(int status, String type, String message) throws IOException {
+        sendJson(status, ApiResponse.builder().code(status).type(type).message(message).build());
+    }
+
+    void sendError(int status, String message) throws IOException {
+        sendMessage(status, "error", message);
+    }
+
+    /**
+     * Makes the response body go out at about this rate, in small timed chunks
+     */
+    void throttle(int bytesPerSecond) {
+        this.throttleBytesPerSecond = bytesPerSecond;
+    }
+
+    void setHeader(String name, String value) {
+        exchange.getResponseHeaders().set(name, value);
+    }
+
+    private void send(int status, byte[] json) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        String accept = header("Accept-Encoding");
+        if (accept != null && accept.contains("gzip") && json.length >= GZIP_MIN_BYTES) {
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4);
+            try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+                out.write(json);
+            }
+            json = gzipped.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            if (throttleBytesPerSecond > 0) {
+                writeSlowly(out, json);
+            } else {
+                out.write(json);
+            }
+        }
+    }
+
+    /**
+     * Writes the body in chunks every 50 ms, sized to keep to the throttled rate
+     */
+    private void writeSlowly(OutputStream out, byte[] data) throws IOException {
+        int chunk = Math.max(1, throttleBytesPerSecond / 20);
+        for (int offset = 0; offset < data.length; offset += chunk) {
+            out.write(data, offset, Math.min(chunk, data.length - offset));
+            out.flush();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while sending a throttled body", e);
+            }
+        }
+    }
+}
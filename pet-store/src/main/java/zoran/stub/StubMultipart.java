@@ -0,0 +1,83 @@
+package zoran.stub;
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Just enough multipart/form-data parsing for the upload endpoint: part names, file names and content
+ */
+final class StubMultipart {
+    private static final Pattern BOUNDARY = Pattern.compile("boundary=\"?([^\";]+)\"?");
+    private static final Pattern NAME = Pattern.compile("[; ]name=\"([^\"]*)\"");
+    private static final Pattern FILE_NAME = Pattern.compile("filename=\"([^\"]*)\"");
+
+    @Value
+    static class Part {
+        String name;
+        String fileName;
+        byte[] content;
+
+        String text() {
+            return new String(content, StandardCharsets.UTF_8);
+        }
+    }
+
+    private StubMultipart() {
+    }
+
+    /**
+     * @return The parts, or null when the content type is not multipart with a boundary
+     */
+    static List<Part> parse(String contentType, byte[] body) {
+        Matcher boundaryMatch = BOUNDARY.matcher(contentType);
+        if (!contentType.toLowerCase().startsWith("multipart/") || !boundaryMatch.find()) {
+            return null;
+        }
+        byte[] delimiter = ("--" + boundaryMatch.group(1)).getBytes(StandardCharsets.ISO_8859_1);
+        List<Part> parts = new ArrayList<>();
+        int start = indexOf(body, delimiter, 0);
+        while (start >= 0) {
+            int headersStart = start + delimiter.length;
+            if (headersStart + 1 < body.length && body[headersStart] == '-' && body[headersStart + 1] == '-') {
+                break; // Closing delimiter
+            }
+            headersStart += 2; // CRLF after the delimiter
+            int headersEnd = indexOf(body, "\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1), headersStart);
+            int next = indexOf(body, delimiter, Math.max(headersStart, headersEnd));
+            if (headersEnd < 0 || next < 0) {
+                break;
+            }
+            String headers = new String(body, headersStart, headersEnd - headersStart, StandardCharsets.UTF_8);
+            int contentStart = headersEnd + 4;
+            int contentEnd = Math.max(contentStart, next - 2); // CRLF before the next delimiter
+            byte[] content = new byte[contentEnd - contentStart];
+            System.arraycopy(body, contentStart, content, 0, content.length);
+            parts.add(new Part(group(NAME, headers), group(FILE_NAME, headers), content));
+            start = next;
+        }
+        return parts;
+    }
+
+    private static String group(Pattern pattern, String text) {
+        Matcher matcher = pattern.matcher(text);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static int indexOf(byte[] data, byte[] target, int from) {
+        outer:
+        for (int i = Math.max(0, from); i <= data.length - target.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (data[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,69 @@
+package zoran.stub;
+
+import lombok.Builder;
+import lombok.Value;
+import zoran.config.Config;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * How the stub misbehaves: response delays, injected errors, dropped connections, slow bodies and reads
+ * that trail writes. Every request draws from its own random generator seeded from {@code seed} and the
+ * request's sequence number, so a run with the same seed and request order sees the same faults.
+ *
+ * <pre>{@code
+ * stub.setProfile(StubProfile.builder()
+ *         .latency(LatencyModel.pareto(Duration.ofMillis(5), 1.5, Duration.ofSeconds(2)))
+ *         .errorRate(0.05)
+ *         .replicationLag(Duration.ofMillis(200))
+ *         .build());
+ * }</pre>
+ */
+@Value
+@Builder(toBuilder = true)
+public class StubProfile {
+    /** Well-behaved: no delay, no faults, reads see writes at once */
+    public static final StubProfile NONE = builder().build();
+
+    @Builder.Default
+    LatencyModel latency = LatencyModel.none();
+    /** Share of requests answered with one of {@code errorStatuses} instead of being handled */
+    @Builder.Default
+    double errorRate = 0;
+    @Builder.Default
+    List<Integer> errorStatuses = List.of(500, 502, 503);
+    /** Share of requests whose connection is closed without any response */
+    @Builder.Default
+    double resetRate = 0;
+    /** Share of responses whose body is trickled out at {@code slowBodyBytesPerSecond} */
+    @Builder.Default
+    double slowBodyRate = 0;
+    @Builder.Default
+    int slowBodyBytesPerSecond = 1_024;
+    /** How long a write takes to show up in reads; zero makes reads see writes at once */
+    @Builder.Default
+    Duration replicationLag = Duration.ZERO;
+    @Builder.Default
+    long seed = 42;
+
+    /**
+     * Builds the profile from {@code api.stub.*} settings
+     */
+    public static StubProfile fromConfig(Config config) {
+        return builder()
+                .latency(LatencyModel.parse(config.get("api.stub.latency", "none")))
+                .errorRate(Double.parseDouble(config.get("api.stub.error.rate", "0")))
+                .errorStatuses(Arrays.stream(config.get("api.stub.error.statuses", "500,502,503").split(","))
+                        .map(status -> Integer.parseInt(status.trim()))
+                        .collect(Collectors.toList()))
+                .resetRate(Double.parseDouble(config.get("api.stub.reset.rate", "0")))
+                .slowBodyRate(Double.parseDouble(config.get("api.stub.slow.body.rate", "0")))
+                .slowBodyBytesPerSecond(config.getInt("api.stub.slow.body.bytes.per.second", 1_024))
+                .replicationLag(Duration.ofMillis(config.getLong("api.stub.replication.lag.ms", 0)))
+                .seed(config.getLong("api.stub.seed", 42))
+                .build();
+    }
+}
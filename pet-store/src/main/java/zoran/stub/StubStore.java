@@ -0,0 +1,187 @@
+package zoran.stub;
+
+import zoran.models.Order;
+import zoran.models.Pet;
+import zoran.models.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory pets, orders and users behind the stub. Pets and orders are kept by primitive ID in
+ * {@link LongKeyedMap}s, users by username. Pets are also indexed by status, with a counter per status,
+ * so find-by-status is an index lookup and the inventory never scans the pets. Everything is safe for
+ * parallel scenarios and load tests hitting the stub at once.
+ */
+final class StubStore {
+    private final LongKeyedMap<Pet> pets = new LongKeyedMap<>();
+    private final LongKeyedMap<Order> orders = new LongKeyedMap<>();
+    final Map<String, User> users = new ConcurrentHashMap<>();
+
+    /** IDs of the pets with each status; a pet without a status is in none */
+    private final Map<String, LongKeyedMap<Boolean>> petIdsByStatus = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> petCountsByStatus = new ConcurrentHashMap<>();
+
+    /** IDs handed out when a request leaves them empty; far above the small IDs tests pick themselves */
+    private final AtomicLong nextId = new AtomicLong(9_223_372_000_000_000L);
+
+    long nextId() {
+        return nextId.incrementAndGet();
+    }
+
+    Pet pet(long id) {
+        return pets.get(id);
+    }
+
+    boolean hasPet(long id) {
+        return pets.containsKey(id);
+    }
+
+    /**
+     * Stores the pet under its ID, replacing any pet already there
+     */
+    void savePet(Pet pet) {
+        pets.compute(pet.getId(), previous -> {
+            reindex(pet.getId(), previous, pet);
+            return pet;
+        });
+    }
+
+    /**
+     * @return The pet the function made of the stored one, or null when there is no pet with the ID
+     */
+    Pet updatePet(long id, UnaryOperator<Pet> update) {
+        return pets.compute(id, previous -> {
+            if (previous == null) {
+                return null;
+            }
+            Pet updated = update.apply(previous);
+            reindex(id, previous, updated);
+            return updated;
+        });
+    }
+
+    /**
+     * @return The removed pet, or null when there was none
+     */
+    Pet removePet(long id) {
+        Pet[] removed = new Pet[1];
+        pets.compute(id, previous -> {
+            reindex(id, previous, null);
+            removed[0] = previous;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * @return The pets with any of the statuses, found through the status index
+     */
+    List<Pet> petsByStatus(Collection<String> statuses) {
+        List<Pet> matches = new ArrayList<>();
+        for (String status : new LinkedHashSet<>(statuses)) {
+            LongKeyedMap<Boolean> ids = petIdsByStatus.get(status);
+            if (ids == null) {
+                continue;
+            }
+            // Keys are copied out first: looking pets up while holding index locks could deadlock with reindex
+            for (long id : ids.keys()) {
+                Pet pet = pets.get(id);
+                // The pet may have moved on since the index was read
+                if (pet != null && status.equals(pet.getStatus())) {
+                    matches.add(pet);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return Number of pets per status, from the maintained counters; statuses with no pets are left out
+     */
+    Map<String, Long> inventory() {
+        Map<String, Long> counts = new TreeMap<>();
+        petCountsByStatus.forEach((status, count) -> {
+            long value = count.sum();
+            if (value > 0) {
+                counts.put(status, value);
+            }
+        });
+        return counts;
+    }
+
+    Order order(long id) {
+        return orders.get(id);
+    }
+
+    void saveOrder(Order order) {
+        orders.put(order.getId(), order);
+    }
+
+    /**
+     * @return The removed order, or null when there was none
+     */
+    Order removeOrder(long id) {
+        return orders.remove(id);
+    }
+
+    /**
+     * Copies every pet, order and user of the other store into this one
+     */
+    void copyFrom(StubStore other) {
+        for (long id : other.pets.keys()) {
+            Pet pet = other.pets.get(id);
+            if (pet != null) {
+                savePet(pet);
+            }
+        }
+        for (long id : other.orders.keys()) {
+            Order order = other.orders.get(id);
+            if (order != null) {
+                orders.put(id, order);
+            }
+        }
+        users.putAll(other.users);
+    }
+
+    void clear() {
+        pets.clear();
+        orders.clear();
+        users.clear();
+        petIdsByStatus.clear();
+        petCountsByStatus.clear();
+    }
+
+    /**
+     * Moves the pet between status index entries and counters; runs under the pet's map lock,
+     * so updates of one pet are applied in order
+     */
+    private void reindex(long id, Pet previous, Pet next) {
+        String from = previous == null ? null : previous.getStatus();
+        String to = next == null ? null : next.getStatus();
+        if (Objects.equals(from, to)) {
+            return;
+        }
+        if (from != null) {
+            LongKeyedMap<Boolean> ids = petIdsByStatus.get(from);
+            LongAdder count = petCountsByStatus.get(from);
+            // Both are missing only when clear() ran in between
+            if (ids != null && ids.remove(id) != null && count != null) {
+                count.decrement();
+            }
+        }
+        if (to != null) {
+            petIdsByStatus.computeIfAbsent(to, status -> new LongKeyedMap<>()).put(id, Boolean.TRUE);
+            petCountsByStatus.computeIfAbsent(to, status -> new LongAdder()).increment();
+        }
+    }
+}
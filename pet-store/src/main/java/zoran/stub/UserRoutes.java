@@ -0,0 +1,124 @@
+package zoran.stub;
+
+import zoran.models.User;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * {@code /user} operations: create (one, array, list), login, logout, get, update and delete
+ */
+final class UserRoutes {
+    private final ReplicatedStore store;
+
+    UserRoutes(ReplicatedStore store) {
+        this.store = store;
+    }
+
+    void handle(StubExchange exchange) throws IOException {
+        String method = exchange.method();
+        int segments = exchange.segmentCount();
+        if (segments == 1 && "POST".equals(method)) {
+            create(exchange);
+        } else if (segments == 2 && "POST".equals(method)
+                && ("createWithArray".equals(exchange.segment(1)) || "createWithList".equals(exchange.segment(1)))) {
+            createMany(exchange);
+        } else if (segments == 2 && "login".equals(exchange.segment(1)) && "GET".equals(method)) {
+            login(exchange);
+        } else if (segments == 2 && "logout".equals(exchange.segment(1)) && "GET".equals(method)) {
+            exchange.sendMessage(200, "unknown", "ok");
+        } else if (segments == 2) {
+            String username = exchange.segment(1);
+            switch (method) {
+                case "GET" -> get(exchange, username);
+                case "PUT" -> update(exchange, username);
+                case "DELETE" -> delete(exchange, username);
+                default -> exchange.sendError(405, "Method not allowed");
+            }
+        } else {
+            exchange.sendError(404, "Unknown operation");
+        }
+    }
+
+    /**
+     * Answers with the stored user; the clients read the created user back from the response
+     */
+    private void create(StubExchange exchange) throws IOException {
+        User user = exchange.json(User.class);
+        if (user == null || user.getUsername() == null) {
+            exchange.sendError(400, "Invalid user supplied");
+            return;
+        }
+        save(user);
+        exchange.sendJson(200, user);
+    }
+
+    private void createMany(StubExchange exchange) throws IOException {
+        List<User> users = exchange.jsonList(User.class);
+        if (users == null || users.stream().anyMatch(user -> user == null || user.getUsername() == null)) {
+            exchange.sendError(400, "Invalid user supplied");
+            return;
+        }
+        users.forEach(this::save);
+        exchange.sendMessage(200, "unknown", "ok");
+    }
+
+    private void save(User user) {
+        if (user.getId() == null || user.getId() == 0) {
+            user.setId(store.nextId());
+        }
+        store.write(data -> data.users.put(user.getUsername(), user));
+    }
+
+    /**
+     * Like the live Petstore, opens a session for any username and password
+     */
+    private void login(StubExchange exchange) throws IOException {
+        if (exchange.queryParam("username") == null || exchange.queryParam("password") == null) {
+            exchange.sendError(400, "Invalid username/password supplied");
+            return;
+        }
+        exchange.setHeader("X-Rate-Limit", "5000");
+        exchange.setHeader("X-Expires-After", OffsetDateTime.now(ZoneOffset.UTC).plusHours(1).toString());
+        exchange.sendMessage(200, "unknown", "logged in user session:" + System.nanoTime());
+    }
+
+    private void get(StubExchange exchange, String username) throws IOException {
+        User user = store.reads().users.get(username);
+        if (user == null) {
+            exchange.sendError(404, "User not found");
+        } else {
+            exchange.sendJson(200, user);
+        }
+    }
+
+    private void update(StubExchange exchange, String username) throws IOException {
+        User user = exchange.json(User.class);
+        if (user == null) {
+            exchange.sendError(400, "Invalid user supplied");
+            return;
+        }
+        if (!store.primary().users.containsKey(username)) {
+            exchange.sendError(404, "User not found");
+            return;
+        }
+        if (user.getUsername() == null) {
+            user.setUsername(username);
+        }
+        if (!username.equals(user.getUsername())) {
+            store.write(data -> data.users.remove(username));
+        }
+        save(user);
+        exchange.sendJson(200, user);
+    }
+
+    private void delete(StubExchange exchange, String username) throws IOException {
+        if (store.write(data -> data.users.remove(username)) == null) {
+            exchange.sendError(404, "User not found");
+        } else {
+            exchange.sendMessage(200, "unknown", username);
+        }
+    }
+}
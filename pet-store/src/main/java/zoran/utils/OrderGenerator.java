@@ -3,10 +3,8 @@ package zoran.utils;
 import com.github.javafaker.Faker;
 import zoran.models.Order;
 
-import java.time.OffsetDateTime;
-
 public class OrderGenerator {
-    private static final Faker faker = new Faker();
+    private static final Faker faker = new Faker(TestDataSeed.random("orders"));
     
     public static long generateRandomId() {
         return faker.number().randomNumber(6, true);
@@ -17,7 +15,7 @@ public class OrderGenerator {
                 .id(generateRandomId())
                 .petId(faker.number().randomNumber(6, true))
                 .quantity(faker.number().numberBetween(1, 10))
-                .shipDate(OffsetDateTime.now().plusDays(faker.number().numberBetween(1, 30)))
+                .shipDate(TestDataSeed.now().plusDays(faker.number().numberBetween(1, 30)))
                 .status("placed")
                 .complete(faker.bool().bool())
                 .build();
@@ -10,7 +10,7 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 public class PetGenerator {
-    private static final Faker faker = new Faker();
+    private static final Faker faker = new Faker(TestDataSeed.random("pets"));
 
     /**
      * Generates a random Pet with all required fields
@@ -0,0 +1,34 @@
+package zoran.utils;
+
+import zoran.config.Config;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+/**
+ * Randomness and clock for the test data generators. With {@code test.data.seed} set, every run generates
+ * the same data, which replaying a recorded cassette relies on; without it each run gets fresh data.
+ */
+public final class TestDataSeed {
+    private static final String SEED = new Config().get("test.data.seed", "");
+    private static final OffsetDateTime FIXED_NOW = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private TestDataSeed() {
+    }
+
+    /**
+     * @param stream Name of the generator, so generators do not all draw the same sequence
+     * @return A generator seeded from {@code test.data.seed}, or an unseeded one when it is not set
+     */
+    public static Random random(String stream) {
+        return SEED.isBlank() ? new Random() : new Random(Long.parseLong(SEED.trim()) ^ stream.hashCode());
+    }
+
+    /**
+     * @return The current time, or a fixed one when {@code test.data.seed} is set
+     */
+    public static OffsetDateTime now() {
+        return SEED.isBlank() ? OffsetDateTime.now() : FIXED_NOW;
+    }
+}
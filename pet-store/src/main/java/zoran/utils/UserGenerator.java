@@ -4,7 +4,7 @@ import com.github.javafaker.Faker;
 import zoran.models.User;
 
 public class UserGenerator {
-    private static final Faker faker = new Faker();
+    private static final Faker faker = new Faker(TestDataSeed.random("users"));
     
     public static long generateRandomId() {
         return faker.number().randomNumber(6, true);
@@ -9,7 +9,7 @@ import static io.cucumber.junit.platform.engine.Constants.*;
 @IncludeEngines("cucumber")
 @SelectClasspathResource("features")
 @ConfigurationParameters({
-        @ConfigurationParameter(key = GLUE_PROPERTY_NAME, value = "zoran.steps"),
+        @ConfigurationParameter(key = GLUE_PROPERTY_NAME, value = "zoran.steps,zoran.hooks"),
         @ConfigurationParameter(key = PLUGIN_PUBLISH_QUIET_PROPERTY_NAME, value = "true"),
         @ConfigurationParameter(key = PLUGIN_PROPERTY_NAME, 
             value = "pretty, " +
@@ -3,6 +3,7 @@ package zoran;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
+import zoran.api.RetryPolicy;
 import zoran.base.BaseApiTest;
 import zoran.models.Pet;
 
@@ -22,6 +23,7 @@ import static io.restassured.config.EncoderConfig.encoderConfig;
 
 import java.io.FileWriter;
 import java.io.PrintWriter;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -64,39 +66,33 @@ class PetApiTests extends BaseApiTest {
         assertNotNull(createdPetId, "Pet ID should not be null after creation");
     }
 
-    private Response getPetWithRetry(long petId, int maxRetries, long delayMs) throws InterruptedException {
+    private Response getPetWithRetry(long petId, int maxRetries, long delayMs) {
         logToFile("Attempting to retrieve pet with ID: " + petId);
-        Response response = null;
+        RetryPolicy policy = RetryPolicy.builder()
+            .maxAttempts(maxRetries)
+            .baseDelay(Duration.ofMillis(Math.max(1, delayMs / 8)))
+            .maxDelay(Duration.ofMillis(delayMs))
+            .retryOnStatus(status -> status != 200)
+            .retryOn(error -> true)
+            .build();
         
-        for (int attempt = 1; attempt <= maxRetries; attempt++) {
-            try {
-                logToFile(String.format("Attempt %d/%d to get pet with ID: %d", attempt, maxRetries, petId));
-                response = given()
+        try {
+            Response response = policy.execute(() -> {
+                Response attempt = given()
                     .header("api_key", "testApiKey")
                     .when()
                     .get("/pet/" + petId);
-                
-                if (response.getStatusCode() == 200) {
-                    logToFile("Successfully retrieved pet on attempt " + attempt);
-                    return response;
-                }
-                
-                logToFile(String.format("Attempt %d failed with status %d. Response: %s", 
-                    attempt, response.getStatusCode(), response.getBody().asString()));
-                
-                if (attempt < maxRetries) {
-                    logToFile("Waiting " + delayMs + "ms before next retry...");
-                    Thread.sleep(delayMs);
-                }
-            } catch (Exception e) {
-                logToFile("Error during attempt " + attempt + ": " + e.getMessage());
-                if (attempt == maxRetries) {
-                    throw new AssertionError("Failed to retrieve pet after " + maxRetries + " attempts", e);
-                }
-                Thread.sleep(delayMs);
-            }
+                logToFile(String.format("Get pet with ID %d returned status %d", petId, attempt.getStatusCode()));
+                return attempt;
+            });
+            logToFile(response.getStatusCode() == 200
+                ? "Successfully retrieved pet"
+                : "Giving up with status " + response.getStatusCode() + ". Response: " + response.getBody().asString());
+            return response;
+        } catch (Exception e) {
+            logToFile("Error retrieving pet: " + e.getMessage());
+            throw new AssertionError("Failed to retrieve pet after " + maxRetries + " attempts", e);
         }
-        return response;
     }
     
     private Response addPetWithRetry(Pet pet, int maxRetries, long delayMs) throws InterruptedException {
@@ -0,0 +1,61 @@
+package zoran.api;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import zoran.models.Pet;
+import zoran.stub.PetStoreStub;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApiMetricsTest {
+    private static PetStoreStub stub;
+    private static PetApiClient client;
+
+    @BeforeAll
+    static void startStub() {
+        stub = PetStoreStub.start();
+        client = new PetApiClient(stub.getBaseUrl());
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void recordsPhasesOfEveryExchangePerEndpoint() {
+        long petId = client.addPet(Pet.builder().id(4_018L).name("Timed").status("available").build()).getId();
+        EndpointStats before = ApiMetrics.global().snapshot("GET", "/pet/{petId}");
+        long requestsBefore = before == null ? 0 : before.getRequests();
+
+        for (int i = 0; i < 5; i++) {
+            client.getPetById(petId);
+        }
+
+        EndpointStats stats = ApiMetrics.global().snapshot("GET", "/pet/{petId}");
+        assertEquals(requestsBefore + 5, stats.getRequests());
+        assertNotNull(stats.phaseAt(PhaseTimings.Phase.TIME_TO_FIRST_BYTE, 50));
+        assertNotNull(stats.phaseAt(PhaseTimings.Phase.TRANSFER, 50));
+    }
+
+    @Test
+    void correctedLatencyOfTheNextCallRunsFromWhenItWasDue() {
+        long petId = client.addPet(Pet.builder().id(4_024L).name("Late").status("available").build()).getId();
+        ApiMetrics.global().reset();
+
+        ApiMetrics.setIntendedStart(System.nanoTime() - Duration.ofMillis(200).toNanos());
+        client.getPetById(petId);
+        client.getPetById(petId);
+
+        EndpointStats stats = ApiMetrics.global().snapshot("GET", "/pet/{petId}");
+        assertEquals(2, stats.getCorrectedLatencies().getTotalCount());
+        assertTrue(stats.max().toMillis() < 200, "sent at once, so measured from when it was sent: " + stats);
+        assertTrue(stats.correctedLatencyAt(100).toMillis() >= 200, "the late call includes its 200 ms wait: " + stats);
+        assertTrue(stats.correctedLatencyAt(50).toMillis() < 200, "only the next call takes the mark: " + stats);
+    }
+}
@@ -0,0 +1,90 @@
+package zoran.api;
+
+import org.junit.jupiter.api.Test;
+import zoran.config.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncExecutorTest {
+
+    @Test
+    void capsInFlightCallsPerOperation() throws Exception {
+        AsyncExecutor executor = new AsyncExecutor(config(Map.of("api.concurrency.addPet", "2")));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> calls = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int call = i;
+            calls.add(executor.submit("addPet", () -> {
+                mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    running.decrementAndGet();
+                }
+                return call;
+            }));
+        }
+        waitFor(() -> executor.inFlight("addPet") == 2);
+
+        // Another operation has its own limit and is not held up behind addPet
+        assertEquals("found", executor.submit("getPetById", () -> "found").get(5, TimeUnit.SECONDS));
+        assertEquals(2, executor.limit("addPet"));
+        assertEquals(64, executor.limit("getPetById"));
+
+        release.countDown();
+        for (int i = 0; i < calls.size(); i++) {
+            assertEquals(i, calls.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(2, mostRunning.get());
+        assertEquals(0, executor.inFlight("addPet"));
+    }
+
+    @Test
+    void failedCallsCompleteExceptionallyAndGiveBackTheirPermit() throws Exception {
+        AsyncExecutor executor = new AsyncExecutor(config(Map.of("api.concurrency.deletePet", "1")));
+        IllegalStateException failure = new IllegalStateException("down");
+
+        CompletableFuture<Object> failed = executor.submit("deletePet", () -> {
+            throw failure;
+        });
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertSame(failure, thrown.getCause());
+        assertEquals("next", executor.submit("deletePet", () -> "next").get(5, TimeUnit.SECONDS));
+        assertEquals(0, executor.inFlight("deletePet"));
+    }
+
+    private static Config config(Map<String, String> settings) {
+        return new Config() {
+            @Override
+            public String get(String key, String defaultValue) {
+                return settings.getOrDefault(key, key.startsWith("api.concurrency.") ? null : super.get(key, defaultValue));
+            }
+        };
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
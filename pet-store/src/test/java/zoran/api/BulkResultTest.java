@@ -0,0 +1,107 @@
+package zoran.api;
+
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkResultTest {
+    private static final Executor LATER = CompletableFuture.delayedExecutor(5, TimeUnit.MILLISECONDS);
+
+    @Test
+    void keepsAtMostTheWindowInFlight() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger mostInFlight = new AtomicInteger();
+        BulkClient client = new BulkClient(request -> {
+            mostInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                inFlight.decrementAndGet();
+                return response(200);
+            }, LATER);
+        });
+        List<Long> ids = IntStream.rangeClosed(1, 20).mapToObj(Long::valueOf).toList();
+
+        List<BulkResult<Long>> results = client.getAll(ids, 3);
+
+        assertEquals(3, mostInFlight.get());
+        assertEquals(ids, results.stream().map(BulkResult::getItem).toList());
+        assertTrue(BulkResult.allSucceeded(results));
+    }
+
+    @Test
+    void reportsEachFailureWithoutStoppingTheRest() {
+        IOException reset = new IOException("Connection reset");
+        BulkClient client = new BulkClient(request -> switch (((Long) request.getPathParams()[0]).intValue()) {
+            case 2 -> CompletableFuture.supplyAsync(() -> {
+                throw new CompletionException(reset);
+            }, LATER);
+            case 3 -> throw new IllegalStateException("Circuit open");
+            case 4 -> CompletableFuture.completedFuture(response(404));
+            default -> CompletableFuture.supplyAsync(() -> response(200), LATER);
+        });
+
+        List<BulkResult<Long>> results = client.getAll(List.of(1L, 2L, 3L, 4L, 5L), 2);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), results.stream().map(BulkResult::getItem).toList());
+        assertEquals(List.of(2L, 3L, 4L), BulkResult.failures(results).stream().map(BulkResult::getItem).toList());
+        assertFalse(BulkResult.allSucceeded(results));
+
+        BulkResult<Long> transportFailure = results.get(1);
+        assertEquals(-1, transportFailure.getStatusCode());
+        assertEquals(reset, transportFailure.getError(), "unwrapped from the CompletionException");
+        assertInstanceOf(IllegalStateException.class, results.get(2).getError());
+
+        BulkResult<Long> rejected = results.get(3);
+        assertEquals(404, rejected.getStatusCode());
+        assertNull(rejected.getError());
+        assertEquals(200, results.get(4).getStatusCode());
+    }
+
+    @Test
+    void rejectsAnEmptyWindow() {
+        BulkClient client = new BulkClient(request -> CompletableFuture.completedFuture(response(200)));
+
+        assertThrows(IllegalArgumentException.class, () -> client.getAll(List.of(1L), 0));
+    }
+
+    private static Response response(int status) {
+        return Responses.of(status, Map.of(), new byte[0]);
+    }
+
+    /**
+     * Client whose async calls are answered by the test instead of a transport
+     */
+    private static final class BulkClient extends BaseApiClient {
+        private final Function<ApiRequest, CompletableFuture<Response>> answers;
+
+        BulkClient(Function<ApiRequest, CompletableFuture<Response>> answers) {
+            super("http://localhost:1/v2");
+            this.answers = answers;
+        }
+
+        @Override
+        protected CompletableFuture<Response> executeAsync(ApiRequest request) {
+            return answers.apply(request);
+        }
+
+        List<BulkResult<Long>> getAll(List<Long> ids, int concurrency) {
+            return executeBulk(ids, id -> Endpoints.GET_PET_BY_ID.request(id).build(), status -> status == 200, concurrency);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package zoran.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CircuitBreakerTest {
+    private static final Duration OPEN = Duration.ofMillis(50);
+
+    @Test
+    void opensAfterConsecutiveFailuresAndClosesAfterASuccessfulProbe() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("/pet/{petId}", 3, OPEN, 1);
+
+        failTimes(breaker, 2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        failTimes(breaker, 1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(CircuitBreaker.CircuitOpenException.class, breaker::acquirePermission);
+        assertEquals(1, breaker.getRejected());
+
+        Thread.sleep(OPEN.toMillis() * 2);
+        breaker.acquirePermission();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertThrows(CircuitBreaker.CircuitOpenException.class, breaker::acquirePermission, "only one probe at a time");
+
+        breaker.onResponse(200);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertDoesNotThrow(breaker::acquirePermission);
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        CircuitBreaker breaker = new CircuitBreaker("/pet/{petId}", 3, OPEN, 1);
+
+        failTimes(breaker, 2);
+        breaker.onResponse(404);
+        failTimes(breaker, 2);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void failedProbeReopens() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("/pet/{petId}", 1, OPEN, 1);
+        failTimes(breaker, 1);
+
+        Thread.sleep(OPEN.toMillis() * 2);
+        breaker.acquirePermission();
+        breaker.onResponse(503);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(CircuitBreaker.CircuitOpenException.class, breaker::acquirePermission);
+    }
+
+    @Test
+    void probeWithoutVerdictFreesItsSlot() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("/pet/{petId}", 1, OPEN, 1);
+        failTimes(breaker, 1);
+
+        Thread.sleep(OPEN.toMillis() * 2);
+        breaker.acquirePermission();
+        breaker.onIgnored();
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertDoesNotThrow(breaker::acquirePermission);
+    }
+
+    @Test
+    void probeSlotsAreFreshAfterEachReopen() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("/pet/{petId}", 1, OPEN, 2);
+        failTimes(breaker, 1);
+
+        for (int round = 0; round < 3; round++) {
+            Thread.sleep(OPEN.toMillis() * 2);
+            breaker.acquirePermission();
+            breaker.acquirePermission();
+            assertThrows(CircuitBreaker.CircuitOpenException.class, breaker::acquirePermission);
+            breaker.onFailure();
+        }
+        Thread.sleep(OPEN.toMillis() * 2);
+        breaker.acquirePermission();
+        breaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private static void failTimes(CircuitBreaker breaker, int failures) {
+        for (int i = 0; i < failures; i++) {
+            breaker.acquirePermission();
+            breaker.onFailure();
+        }
+    }
+}
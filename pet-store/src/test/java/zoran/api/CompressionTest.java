@@ -0,0 +1,99 @@
+package zoran.api;
+
+import org.junit.jupiter.api.Test;
+import zoran.models.Pet;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressionTest {
+    private static final Compression GZIP_REQUESTS = Compression.builder().gzipRequests(true).minRequestBytes(1_024).build();
+
+    @Test
+    void largeBodiesRoundTripThroughGzip() throws Exception {
+        Pet pet = Pet.builder().id(14L).name("Rex").status("available")
+                .photoUrls(Collections.nCopies(100, "https://example.com/photos/rex.png")).build();
+        byte[] json = Json.mapper().writeValueAsBytes(pet);
+
+        ApiRequest wire = GZIP_REQUESTS.encode(Endpoints.ADD_PET.request().body(pet).build());
+
+        assertEquals("gzip", wire.getHeaders().get("Content-Encoding"));
+        byte[] sent = (byte[]) wire.getBody();
+        assertTrue(sent.length < json.length / 4, sent.length + " bytes gzipped of " + json.length);
+        assertArrayEquals(json, Compression.decode("gzip", sent));
+        try (InputStream streamed = Compression.decode("gzip", new ByteArrayInputStream(sent))) {
+            assertArrayEquals(json, streamed.readAllBytes());
+        }
+    }
+
+    @Test
+    void smallBodiesAreSentAsTheyAre() {
+        ApiRequest wire = GZIP_REQUESTS.encode(Endpoints.ADD_PET.request().body("{\"name\":\"Rex\"}").build());
+
+        assertNull(wire.getHeaders().get("Content-Encoding"));
+        assertArrayEquals("{\"name\":\"Rex\"}".getBytes(StandardCharsets.UTF_8), (byte[]) wire.getBody());
+    }
+
+    @Test
+    void requestsAreNotGzippedUnlessEnabled() {
+        String large = "x".repeat(20_000);
+
+        ApiRequest wire = Compression.builder().build().encode(Endpoints.ADD_PET.request().body(large).build());
+
+        assertNull(wire.getHeaders().get("Content-Encoding"));
+        assertEquals(large.length(), ((byte[]) wire.getBody()).length);
+    }
+
+    @Test
+    void negotiatesResponseEncodingUnlessTheRequestDoes() {
+        ApiRequest getPet = Endpoints.GET_PET_BY_ID.request(14L).build();
+
+        assertEquals("gzip, deflate", Compression.builder().build().encode(getPet).getHeaders().get("Accept-Encoding"));
+        assertEquals("identity", Compression.none().encode(getPet).getHeaders().get("Accept-Encoding"));
+        ApiRequest ownHeader = getPet.toBuilder().header("Accept-Encoding", "br").build();
+        assertSame(ownHeader, Compression.builder().build().encode(ownHeader));
+    }
+
+    @Test
+    void decodesDeflateBodies() throws Exception {
+        byte[] original = "{\"available\":3,\"sold\":1}".repeat(50).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(out)) {
+            deflate.write(original);
+        }
+
+        assertArrayEquals(original, Compression.decode("deflate", out.toByteArray()));
+    }
+
+    @Test
+    void leavesBodiesAloneThatAreAlreadyDecoded() throws Exception {
+        byte[] plain = "{\"id\":14}".getBytes(StandardCharsets.UTF_8);
+
+        assertSame(plain, Compression.decode(null, plain));
+        assertArrayEquals(plain, Compression.decode("gzip", plain), "no gzip magic, so the client already decoded it");
+        try (InputStream streamed = Compression.decode("gzip", new ByteArrayInputStream(plain))) {
+            assertArrayEquals(plain, streamed.readAllBytes());
+        }
+        assertArrayEquals(new byte[0], Compression.decode("gzip", new byte[0]));
+    }
+
+    @Test
+    void recognizesCompressedEncodings() {
+        assertTrue(Compression.isCompressed("gzip"));
+        assertTrue(Compression.isCompressed(" Deflate "));
+        assertTrue(Compression.isCompressed("x-gzip"));
+        assertFalse(Compression.isCompressed("identity"));
+        assertFalse(Compression.isCompressed(null));
+    }
+}
@@ -0,0 +1,95 @@
+package zoran.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionPoolTest {
+    private static final URI HOST_A = URI.create("http://a.example:8080/v2");
+    private static final URI HOST_B = URI.create("https://b.example/v2");
+
+    @Test
+    void eachHostGetsItsOwnSlots() throws Exception {
+        ConnectionPool pool = new ConnectionPool(10, 1, 30_000, 60_000);
+        Closeable a = pool.reserveConnection(HOST_A);
+
+        // Another host is not held up by the first one's limit
+        Closeable b = pool.reserveConnection(HOST_B);
+        Waiter second = Waiter.start(pool, HOST_A);
+
+        assertFalse(second.reserved.await(100, TimeUnit.MILLISECONDS));
+        assertPending(1, pool);
+        assertEquals(1, pool.stats(HOST_A.toString()).getPending());
+        assertEquals(0, pool.stats(HOST_B.toString()).getPending());
+
+        a.close();
+        assertTrue(second.reserved.await(5, TimeUnit.SECONDS));
+        second.finish();
+        b.close();
+        assertPending(0, pool);
+    }
+
+    @Test
+    void maxTotalCapsAllHostsTogether() throws Exception {
+        ConnectionPool pool = new ConnectionPool(2, 5, 30_000, 60_000);
+        Closeable first = pool.reserveConnection(HOST_A);
+        Closeable second = pool.reserveConnection(HOST_A);
+        Waiter third = Waiter.start(pool, HOST_B);
+
+        assertFalse(third.reserved.await(100, TimeUnit.MILLISECONDS));
+        assertPending(1, pool);
+
+        second.close();
+        second.close(); // Closing twice gives back one slot, not two
+        assertTrue(third.reserved.await(5, TimeUnit.SECONDS));
+        Waiter fourth = Waiter.start(pool, HOST_B);
+        assertFalse(fourth.reserved.await(100, TimeUnit.MILLISECONDS));
+
+        first.close();
+        assertTrue(fourth.reserved.await(5, TimeUnit.SECONDS));
+        third.finish();
+        fourth.finish();
+    }
+
+    private static void assertPending(int expected, ConnectionPool pool) throws InterruptedException {
+        // A waiter registers just before it parks; give it a moment
+        for (int i = 0; i < 100 && pool.stats().getPending() != expected; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, pool.stats().getPending(), pool::toString);
+    }
+
+    /**
+     * Reserves a slot on its own thread and holds it until finished
+     */
+    private static final class Waiter {
+        final CountDownLatch reserved = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        Thread thread;
+
+        static Waiter start(ConnectionPool pool, URI host) {
+            Waiter waiter = new Waiter();
+            waiter.thread = Thread.ofVirtual().start(() -> {
+                try (Closeable slot = pool.reserveConnection(host)) {
+                    waiter.reserved.countDown();
+                    waiter.done.await();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            return waiter;
+        }
+
+        void finish() throws InterruptedException {
+            done.countDown();
+            thread.join();
+        }
+    }
+}
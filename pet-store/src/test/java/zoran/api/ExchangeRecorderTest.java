@@ -0,0 +1,57 @@
+package zoran.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExchangeRecorderTest {
+    private static final ApiRequest GET_PET = Endpoints.GET_PET_BY_ID.request(1L).build();
+
+    @AfterEach
+    void forgetRing() {
+        ExchangeRecorder.resumeRecording();
+    }
+
+    @Test
+    void keepsTheLatestExchangesOldestFirst() {
+        ExchangeRecorder recorder = new ExchangeRecorder(2, 8);
+        for (int i = 1; i <= 3; i++) {
+            recorder.record(GET_PET, Responses.of(200, Map.of(), ("{\"id\":" + i + "}").getBytes(StandardCharsets.UTF_8)), System.nanoTime());
+        }
+
+        String dump = recorder.dump();
+        assertEquals(2, recorder.size());
+        assertTrue(dump.indexOf("{\"id\":2}") < dump.indexOf("{\"id\":3}"), dump);
+        assertFalse(dump.contains("{\"id\":1}"), dump);
+    }
+
+    @Test
+    void pausedThreadsShareOneRecorderThatKeepsNothing() throws Exception {
+        ExchangeRecorder.pauseRecording();
+        ExchangeRecorder paused = ExchangeRecorder.current();
+        paused.record(GET_PET, Responses.of(200, Map.of(), new byte[16]), System.nanoTime());
+        assertEquals(0, paused.size());
+
+        ExchangeRecorder[] other = new ExchangeRecorder[1];
+        Thread thread = Thread.ofVirtual().start(() -> {
+            ExchangeRecorder.pauseRecording();
+            other[0] = ExchangeRecorder.current();
+        });
+        thread.join();
+        assertSame(paused, other[0]);
+
+        ExchangeRecorder.resumeRecording();
+        ExchangeRecorder resumed = ExchangeRecorder.current();
+        assertNotSame(paused, resumed);
+        resumed.record(GET_PET, Responses.of(200, Map.of(), new byte[16]), System.nanoTime());
+        assertEquals(1, resumed.size());
+    }
+}
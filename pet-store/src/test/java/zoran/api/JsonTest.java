@@ -0,0 +1,43 @@
+package zoran.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import zoran.models.Order;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JsonTest {
+    private static final Order ORDER = Order.builder()
+            .id(7L)
+            .shipDate(OffsetDateTime.of(2024, 5, 1, 10, 15, 30, 0, ZoneOffset.ofHours(2)))
+            .build();
+
+    @Test
+    void writesShipDateWithMillisAndOffset() throws Exception {
+        assertEquals("{\"id\":7,\"shipDate\":\"2024-05-01T10:15:30.000+02:00\"}", Json.mapper().writeValueAsString(ORDER));
+    }
+
+    @Test
+    void otherMappersWriteShipDateTheSameWay() throws Exception {
+        ObjectMapper plain = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        assertEquals(Json.mapper().writeValueAsString(ORDER), plain.writeValueAsString(ORDER));
+    }
+
+    @Test
+    void readsShipDatesWithOrWithoutMillis() throws Exception {
+        for (String shipDate : new String[] {"2024-05-01T10:15:30.000+02:00", "2024-05-01T10:15:30+0200", "2024-05-01T08:15:30Z"}) {
+            Order order = Json.reader(Order.class).readValue("{\"shipDate\":\"" + shipDate + "\"}");
+            assertEquals(ORDER.getShipDate().toInstant(), order.getShipDate().toInstant(), shipDate);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package zoran.api;
+
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+import zoran.models.Pet;
+import zoran.models.User;
+import zoran.stub.PetStoreStub;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PathTemplateTest {
+
+    @Test
+    void encodesEachValueAsOnePathSegment() {
+        PathTemplate user = PathTemplate.of("/user/{username}");
+
+        assertEquals("/user/ann-marie_1.2*", user.expand("ann-marie_1.2*"));
+        assertEquals("/user/ann%20marie", user.expand("ann marie"));
+        assertEquals("/user/a%2Fb%3Fc%23d", user.expand("a/b?c#d"));
+        assertEquals("/user/1%2B1%3D2%25", user.expand("1+1=2%"));
+        assertEquals("/user/J%C3%BCrgen", user.expand("Jürgen"));
+    }
+
+    @Test
+    void expandsPlaceholdersInOrder() {
+        PathTemplate template = PathTemplate.of("/a/{first}/b/{second}.json");
+
+        assertEquals("/a/9223372036854775807/b/x%20y.json", template.expand(Long.MAX_VALUE, "x y"));
+        assertEquals("/a/null/b/1.json", template.expand(null, 1), "a null value is expanded like String.valueOf");
+        assertEquals("/a/1/b/2.json", template.expand(1, 2, 3), "extra values are ignored");
+    }
+
+    @Test
+    void leavesTheTemplateAloneWithoutPlaceholdersOrValues() {
+        assertSame("/store/inventory", PathTemplate.of("/store/inventory").expand("unused"));
+        assertEquals("/pet/{petId}", PathTemplate.of("/pet/{petId}").expand());
+        assertEquals("/pet/{petId}", PathTemplate.of("/pet/{petId}").expand((Object[]) null));
+    }
+
+    @Test
+    void rejectsTooFewValuesAndUnclosedPlaceholders() {
+        assertThrows(IllegalArgumentException.class, () -> PathTemplate.of("/a/{first}/b/{second}").expand("only one"));
+        assertThrows(IllegalArgumentException.class, () -> PathTemplate.of("/pet/{petId"));
+    }
+
+    @Test
+    void compilesEachTemplateOnce() {
+        assertSame(PathTemplate.of("/pet/{petId}/uploadImage"), PathTemplate.of("/pet/{petId}/uploadImage"));
+        assertSame(Endpoints.GET_PET_BY_ID.template(), PathTemplate.of("/pet/{petId}"));
+    }
+
+    @Test
+    void encodesQueryAndFormValuesLikePathValues() {
+        ApiRequest request = Endpoints.FIND_PETS_BY_STATUS.request()
+                .queryParam("status", List.of("available", "on hold&more"))
+                .build();
+
+        assertEquals("GET /pet/findByStatus?status=available&status=on%20hold%26more", request.requestLine());
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("name", "Rex & Max");
+        form.put("status", "sold");
+        assertEquals("name=Rex%20%26%20Max&status=sold", PathTemplates.form(form));
+    }
+
+    @Test
+    void findsEndpointsByRouteAndOperation() {
+        assertSame(Endpoints.UPDATE_PET_WITH_FORM, Endpoints.find("POST", "/pet/{petId}"));
+        assertSame(Endpoints.GET_PET_BY_ID, Endpoints.byOperationId("getPetById"));
+        assertNull(Endpoints.find("PATCH", "/pet/{petId}"));
+        assertNull(Endpoints.find("GET", "/pet/42"), "routes are looked up by template, not by expanded path");
+        assertThrows(IllegalArgumentException.class, () -> Endpoints.byOperationId("getPetByName"));
+    }
+
+    @Test
+    void aRequestWhosePathChangedExpandsItsOwnTemplate() {
+        ApiRequest moved = Endpoints.GET_PET_BY_ID.request(7L).build().toBuilder().path("/v3/pet/{petId}").build();
+
+        assertEquals("/v3/pet/7", moved.expandedPath());
+        assertEquals("GET /v3/pet/7", moved.requestLine());
+    }
+
+    @Test
+    void encodedValuesReachTheServerIntact() {
+        try (PetStoreStub stub = PetStoreStub.start()) {
+            RawClient client = new RawClient(stub.getBaseUrl());
+            String username = "ann marie/ü%+";
+            User user = User.builder().id(5L).username(username).build();
+            assertEquals(200, client.send(Endpoints.CREATE_USER.request().body(user).build()).getStatusCode());
+
+            Response found = client.send(Endpoints.GET_USER_BY_NAME.request(username).build());
+            assertEquals(username, found.as(User.class).getUsername());
+
+            Pet pet = Pet.builder().id(4_016L).name("Rex").status("available").build();
+            client.send(Endpoints.ADD_PET.request().body(pet).build());
+            client.send(Endpoints.UPDATE_PET_WITH_FORM.request(4_016L)
+                    .formParam("name", "Rex & Max+1 ü")
+                    .formParam("status", "sold")
+                    .build());
+            Response sold = client.send(Endpoints.FIND_PETS_BY_STATUS.request()
+                    .queryParam("status", List.of("sold"))
+                    .build());
+            assertEquals(List.of("Rex & Max+1 ü"), sold.jsonPath().getList("name"));
+        }
+    }
+
+    /**
+     * Client that sends requests as they are built, to check what arrives on the other side
+     */
+    private static final class RawClient extends BaseApiClient {
+        RawClient(String baseUrl) {
+            super(baseUrl);
+        }
+
+        Response send(ApiRequest request) {
+            return execute(request);
+        }
+    }
+}
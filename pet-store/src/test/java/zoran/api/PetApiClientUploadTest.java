@@ -0,0 +1,103 @@
+package zoran.api;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import zoran.models.Pet;
+import zoran.stub.PetStoreStub;
+import zoran.stub.StubProfile;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PetApiClientUploadTest {
+    private static final byte[] IMAGE = "not really a png".getBytes();
+    private static final StubProfile ALWAYS_UNAVAILABLE = StubProfile.builder()
+            .errorRate(1)
+            .errorStatuses(List.of(503))
+            .build();
+
+    private static PetStoreStub stub;
+    private static PetApiClient client;
+    private static long petId;
+
+    @BeforeAll
+    static void startStub() {
+        stub = PetStoreStub.start();
+        client = new PetApiClient(stub.getBaseUrl());
+        petId = client.addPet(Pet.builder().id(4_015L).name("Upload").status("available").build()).getId();
+    }
+
+    @AfterEach
+    void healStub() {
+        stub.setProfile(StubProfile.NONE);
+        // A success resets the endpoint's consecutive failure count, so the circuit stays closed for other tests
+        client.uploadPetImage(petId, ByteBuffer.wrap(IMAGE), "pet.png", null);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void streamUploadIsSentOnceAndReportsTheServerError() {
+        stub.setProfile(ALWAYS_UNAVAILABLE);
+        long attemptsBefore = RetryStats.global().attempts();
+
+        AssertionError error = assertThrows(AssertionError.class,
+                () -> client.uploadPetImage(petId, new ByteArrayInputStream(IMAGE), "pet.png", null));
+
+        assertTrue(error.getMessage().contains("503"), error.getMessage());
+        assertEquals(1, RetryStats.global().attempts() - attemptsBefore);
+    }
+
+    @Test
+    void streamUploadIsSentOnceEvenWhenPostsAreRetried() {
+        RetryPolicy defaults = client.getRetryPolicy();
+        client.setRetryPolicy(defaults.toBuilder().retryNonIdempotent(true).build());
+        stub.setProfile(ALWAYS_UNAVAILABLE);
+        long attemptsBefore = RetryStats.global().attempts();
+        try {
+            assertThrows(AssertionError.class,
+                    () -> client.uploadPetImage(petId, new ByteArrayInputStream(IMAGE), "pet.png", null));
+        } finally {
+            client.setRetryPolicy(defaults);
+        }
+
+        assertEquals(1, RetryStats.global().attempts() - attemptsBefore);
+    }
+
+    @Test
+    void repeatableUploadIsRetriedWhenPostsAreRetried() {
+        RetryPolicy defaults = client.getRetryPolicy();
+        client.setRetryPolicy(defaults.toBuilder().retryNonIdempotent(true).build());
+        stub.setProfile(ALWAYS_UNAVAILABLE);
+        long attemptsBefore = RetryStats.global().attempts();
+        try {
+            AssertionError error = assertThrows(AssertionError.class,
+                    () -> client.uploadPetImage(petId, ByteBuffer.wrap(IMAGE), "pet.png", null));
+            assertTrue(error.getMessage().contains("503"), error.getMessage());
+        } finally {
+            client.setRetryPolicy(defaults);
+        }
+
+        assertEquals(defaults.getMaxAttempts(), RetryStats.global().attempts() - attemptsBefore);
+    }
+
+    @Test
+    void repeatableUploadIsSentOnceByDefault() {
+        stub.setProfile(ALWAYS_UNAVAILABLE);
+        long attemptsBefore = RetryStats.global().attempts();
+
+        assertThrows(AssertionError.class, () -> client.uploadPetImage(petId, ByteBuffer.wrap(IMAGE), "pet.png", null));
+
+        assertEquals(1, RetryStats.global().attempts() - attemptsBefore);
+    }
+}
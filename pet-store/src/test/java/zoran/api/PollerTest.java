@@ -0,0 +1,97 @@
+package zoran.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PollerTest {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void intervalsGrowByTheBackoffUpToTheMax() throws Exception {
+        Poller poller = new Poller(Duration.ofMillis(10), Duration.ofMillis(40), 2);
+        List<Long> probedAt = new CopyOnWriteArrayList<>();
+
+        int found = poller.await("the sixth probe", () -> {
+            probedAt.add(System.nanoTime());
+            return CompletableFuture.completedFuture(probedAt.size());
+        }, probes -> probes == 6, Duration.ofSeconds(10)).get(10, TimeUnit.SECONDS);
+
+        assertEquals(6, found);
+        long[] expected = {10, 20, 40, 40, 40};
+        for (int i = 0; i < expected.length; i++) {
+            long gap = probedAt.get(i + 1) - probedAt.get(i);
+            assertTrue(gap >= expected[i] * MS, "gap " + i + " was " + gap / MS + " ms");
+            // Loose upper bound: the interval stops growing at the max
+            assertTrue(gap < (expected[i] + 200) * MS, "gap " + i + " was " + gap / MS + " ms");
+        }
+    }
+
+    @Test
+    void failedProbesCountAsNotYet() throws Exception {
+        Poller poller = new Poller(Duration.ofMillis(1), Duration.ofMillis(5), 1.5);
+        AtomicInteger probes = new AtomicInteger();
+
+        String status = poller.await("pet 42 to be sold", () -> probes.incrementAndGet() < 3
+                        ? CompletableFuture.failedFuture(new UncheckedIOException(new IOException("Connection reset")))
+                        : CompletableFuture.completedFuture("sold"),
+                "sold"::equals, Duration.ofSeconds(10)).get(10, TimeUnit.SECONDS);
+
+        assertEquals("sold", status);
+        assertEquals(3, probes.get());
+    }
+
+    @Test
+    void givesUpAtTheDeadlineWithTheLastValue() {
+        Poller poller = new Poller(Duration.ofMillis(20), Duration.ofSeconds(5), 2);
+        AtomicInteger probes = new AtomicInteger();
+        long start = System.nanoTime();
+
+        CompletableFuture<String> waiting = poller.await("pet 42 to be sold", () -> {
+            probes.incrementAndGet();
+            return CompletableFuture.completedFuture("pending");
+        }, "sold"::equals, Duration.ofMillis(150));
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> waiting.get(10, TimeUnit.SECONDS));
+        long elapsed = System.nanoTime() - start;
+        Poller.PollTimeoutException timeout = assertInstanceOf(Poller.PollTimeoutException.class, thrown.getCause());
+        assertEquals("pending", timeout.getLastValue());
+        assertTrue(timeout.getMessage().contains("pet 42 to be sold"), timeout.getMessage());
+        assertTrue(timeout.getMessage().contains("(" + probes.get() + " probes"), timeout.getMessage());
+        // Probes at 0, 20, 60 and 140 ms; the next wait is cut to the deadline rather than running to 300
+        assertTrue(elapsed >= 150 * MS && elapsed < 290 * MS, "gave up after " + elapsed / MS + " ms");
+    }
+
+    @Test
+    void aConditionThatThrowsEndsTheWait() {
+        Poller poller = new Poller(Duration.ofMillis(1), Duration.ofMillis(5), 1.5);
+        IllegalStateException broken = new IllegalStateException("unexpected body");
+
+        CompletableFuture<String> waiting = poller.await("a readable pet", () -> CompletableFuture.completedFuture("{"),
+                value -> {
+                    throw broken;
+                }, Duration.ofSeconds(10));
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> waiting.get(10, TimeUnit.SECONDS));
+        assertSame(broken, thrown.getCause());
+    }
+
+    @Test
+    void rejectsABackoffBelowOne() {
+        assertThrows(IllegalArgumentException.class, () -> new Poller(Duration.ofMillis(10), Duration.ofMillis(40), 0.5));
+    }
+}
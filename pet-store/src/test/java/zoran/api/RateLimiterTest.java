@@ -0,0 +1,57 @@
+package zoran.api;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    @Test
+    void allowsABurstThenRejects() {
+        RateLimiter limiter = new RateLimiter("/store/order", 1, 3);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertThrows(RateLimiter.RateLimitExceededException.class, limiter::acquire);
+        assertEquals(2, limiter.getRejected());
+    }
+
+    @Test
+    void refillsAtTheConfiguredRate() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter("/store/order", 20, 1);
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        // One token per 50 ms
+        Thread.sleep(120);
+
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void refillIsCappedAtTheBurst() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter("/store/order", 1_000, 2);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+
+        // Long enough for hundreds of tokens, but the bucket holds two
+        Thread.sleep(300);
+
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        assertTrue(acquired >= 2 && acquired <= 3, "acquired " + acquired);
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter("/store/order", 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter("/store/order", 1, 0.5));
+    }
+}
@@ -0,0 +1,202 @@
+package zoran.api;
+
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResponseCacheTest {
+    private static final Duration LONG_TTL = Duration.ofMinutes(1);
+
+    private final List<ApiRequest> sent = new ArrayList<>();
+
+    @Test
+    void servesFreshEntriesWithoutSending() {
+        ResponseCache cache = new ResponseCache(10, LONG_TTL);
+
+        assertEquals("rex", cache.get(getPet(1), answer(200, "rex")).asString());
+        assertEquals("rex", cache.get(getPet(1), answer(200, "changed")).asString());
+
+        assertEquals(1, sent.size());
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    void revalidatesAnExpiredEntryWithItsETag() {
+        ResponseCache cache = new ResponseCache(10, LONG_TTL);
+        cache.get(getPet(1), answer(200, "rex", "ETag", "\"v1\"", "Cache-Control", "max-age=0"));
+
+        Response revalidated = cache.get(getPet(1), answer(304, ""));
+
+        assertEquals(200, revalidated.getStatusCode());
+        assertEquals("rex", revalidated.asString());
+        assertEquals("\"v1\"", sent.get(1).getHeaders().get("If-None-Match"));
+        assertEquals(1, cache.revalidations());
+        assertNull(sent.get(0).getHeaders().get("If-None-Match"));
+    }
+
+    @Test
+    void aChangedResourceReplacesTheEntryOnRevalidation() {
+        ResponseCache cache = new ResponseCache(10, LONG_TTL);
+        cache.get(getPet(1), answer(200, "rex", "ETag", "\"v1\"", "Cache-Control", "max-age=0"));
+
+        assertEquals("max", cache.get(getPet(1), answer(200, "max", "ETag", "\"v2\"")).asString());
+        assertEquals("max", cache.get(getPet(1), answer(200, "unused")).asString());
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    void maxAgeOverridesTheDefaultTtl() {
+        ResponseCache cache = new ResponseCache(10, Duration.ZERO);
+
+        cache.get(getPet(1), answer(200, "rex", "Cache-Control", "public, max-age=60"));
+        cache.get(getPet(1), answer(200, "rex"));
+        cache.get(getPet(2), answer(200, "max"));
+        cache.get(getPet(2), answer(200, "max"));
+
+        assertEquals(3, sent.size(), "only the max-age response is served from the cache");
+    }
+
+    @Test
+    void expiredEntriesWithoutAnETagAreDropped() {
+        ResponseCache cache = new ResponseCache(10, Duration.ZERO);
+
+        cache.get(getPet(1), answer(200, "rex"));
+
+        assertEquals("max", cache.get(getPet(1), answer(200, "max")).asString());
+        assertEquals(2, sent.size());
+        assertNull(sent.get(1).getHeaders().get("If-None-Match"));
+    }
+
+    @Test
+    void noStoreIsNeverCached() {
+        ResponseCache cache = new ResponseCache(10, LONG_TTL);
+
+        cache.get(getPet(1), answer(200, "rex", "Cache-Control", "no-store"));
+        cache.get(getPet(1), answer(200, "rex", "Cache-Control", "no-store"));
+
+        assertEquals(2, sent.size());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void noCacheRevalidatesEveryTime() {
+        ResponseCache cache = new ResponseCache(10, LONG_TTL);
+        cache.get(getPet(1), answer(200, "rex", "Cache-Control", "no-cache", "ETag", "\"v1\""));
+        cache.get(getPet(2), answer(200, "max", "Cache-Control", "no-cache"));
+
+        assertEquals("rex", cache.get(getPet(1), answer(304, "")).asString());
+        assertEquals("\"v1\"", sent.get(2).getHeaders().get("If-None-Match"));
+        assertEquals(1, cache.size(), "no-cache without an ETag cannot be revalidated, so it is not kept");
+        assertEquals(0, cache.hits());
+    }
+
+    @Test
+    void aNoCacheRequestSkipsTheLookupButRefreshesTheEntry() {
+        ResponseCache cache = new ResponseCache(10, LONG_TTL);
+        cache.get(getPet(1), answer(200, "pending"));
+
+        ApiRequest probe = getPet(1).toBuilder().header("Cache-Control", "no-cache").build();
+        assertEquals("sold", cache.get(probe, answer(200, "sold")).asString());
+        assertEquals("sold", cache.get(getPet(1), answer(200, "unused")).asString());
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    void writesDropEntriesOfTheSameResource() {
+        ResponseCache cache = new ResponseCache(10, LONG_TTL);
+        cache.get(getPet(1), answer(200, "rex"));
+        cache.get(Endpoints.GET_INVENTORY.request().build(), answer(200, "{\"sold\":1}"));
+        cache.get(Endpoints.GET_ORDER_BY_ID.request(7L).build(), answer(200, "order"));
+        cache.get(Endpoints.GET_USER_BY_NAME.request("bob").build(), answer(200, "bob"));
+
+        cache.invalidateAfter(Endpoints.UPDATE_PET.request().body("{}").build());
+
+        // Pet writes also change the inventory's counts by status, but not orders or users
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.invalidations());
+        cache.get(Endpoints.GET_ORDER_BY_ID.request(7L).build(), answer(200, "unused"));
+        cache.get(Endpoints.GET_USER_BY_NAME.request("bob").build(), answer(200, "unused"));
+        assertEquals(4, sent.size());
+
+        cache.invalidateAfter(Endpoints.DELETE_ORDER.request(7L).build());
+        assertEquals(1, cache.size());
+        assertEquals("bob", cache.get(Endpoints.GET_USER_BY_NAME.request("bob").build(), answer(200, "unused")).asString());
+    }
+
+    @Test
+    void aReadThatRacedWithAWriteIsNotStored() {
+        ResponseCache cache = new ResponseCache(10, LONG_TTL);
+        Function<ApiRequest, Response> readBeforeWrite = request -> {
+            sent.add(request);
+            // The write completes while the read is still on its way back
+            cache.invalidateAfter(Endpoints.UPDATE_PET.request().body("{}").build());
+            return response(200, "pending");
+        };
+
+        assertEquals("pending", cache.get(getPet(1), readBeforeWrite).asString());
+        assertEquals(0, cache.size());
+        assertEquals("sold", cache.get(getPet(1), answer(200, "sold")).asString());
+    }
+
+    @Test
+    void aReadThatRacedWithAWriteIsNotStoredAsync() throws Exception {
+        ResponseCache cache = new ResponseCache(10, LONG_TTL);
+        CompletableFuture<Response> inFlight = new CompletableFuture<>();
+
+        CompletableFuture<Response> read = cache.getAsync(getPet(1), request -> inFlight);
+        cache.invalidateAfter(Endpoints.UPDATE_PET.request().body("{}").build());
+        inFlight.complete(response(200, "pending"));
+
+        assertEquals("pending", read.get(5, TimeUnit.SECONDS).asString());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        ResponseCache cache = new ResponseCache(2, LONG_TTL);
+        cache.get(getPet(1), answer(200, "rex"));
+        cache.get(getPet(2), answer(200, "max"));
+        cache.get(getPet(1), answer(200, "unused"));
+
+        cache.get(getPet(3), answer(200, "bo"));
+
+        assertEquals(1, cache.evictions());
+        assertEquals("rex", cache.get(getPet(1), answer(200, "unused")).asString());
+        assertEquals("max again", cache.get(getPet(2), answer(200, "max again")).asString());
+    }
+
+    private static ApiRequest getPet(long id) {
+        return Endpoints.GET_PET_BY_ID.request(id).build();
+    }
+
+    /**
+     * @param headers Alternating header names and values
+     */
+    private Function<ApiRequest, Response> answer(int status, String body, String... headers) {
+        return request -> {
+            sent.add(request);
+            return response(status, body, headers);
+        };
+    }
+
+    private static Response response(int status, String body, String... headers) {
+        Map<String, List<String>> map = new HashMap<>();
+        for (int i = 0; i < headers.length; i += 2) {
+            map.put(headers[i], List.of(headers[i + 1]));
+        }
+        return Responses.of(status, map, body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,49 @@
+package zoran.api;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryBudgetTest {
+
+    @Test
+    void allowsMinRetriesWithoutTraffic() {
+        RetryBudget budget = new RetryBudget(2, 0.5);
+
+        assertTrue(budget.tryAcquireRetry());
+        assertTrue(budget.tryAcquireRetry());
+        assertFalse(budget.tryAcquireRetry());
+        assertEquals(2, budget.retriesSpent());
+    }
+
+    @Test
+    void growsWithFirstAttempts() {
+        RetryBudget budget = new RetryBudget(1, 0.2);
+        for (int i = 0; i < 10; i++) {
+            budget.recordFirstAttempt();
+        }
+
+        // 1 + 0.2 * 10
+        for (int i = 0; i < 3; i++) {
+            assertTrue(budget.tryAcquireRetry(), "retry " + i);
+        }
+        assertFalse(budget.tryAcquireRetry());
+
+        for (int i = 0; i < 5; i++) {
+            budget.recordFirstAttempt();
+        }
+        assertTrue(budget.tryAcquireRetry());
+        assertFalse(budget.tryAcquireRetry());
+    }
+
+    @Test
+    void unlimitedNeverRefuses() {
+        RetryBudget budget = RetryBudget.unlimited();
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(budget.tryAcquireRetry());
+        }
+        assertEquals(10_000, budget.retriesSpent());
+    }
+}
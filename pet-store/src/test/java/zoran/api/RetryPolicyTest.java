@@ -0,0 +1,131 @@
+package zoran.api;
+
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+import zoran.config.Config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryPolicyTest {
+    private static final Duration BASE = Duration.ofMillis(10);
+    private static final Duration MAX = Duration.ofMillis(100);
+
+    private static RetryPolicy.RetryPolicyBuilder policy() {
+        return RetryPolicy.builder()
+                .baseDelay(Duration.ofMillis(1))
+                .maxDelay(Duration.ofMillis(2))
+                .budget(RetryBudget.unlimited());
+    }
+
+    @Test
+    void delaysStayBetweenBaseAndThreeTimesThePreviousDelay() {
+        RetryPolicy policy = RetryPolicy.builder().baseDelay(BASE).maxDelay(MAX).build();
+        long previous = BASE.toNanos();
+        for (int i = 0; i < 10_000; i++) {
+            long delay = policy.nextDelay(previous);
+            assertTrue(delay >= BASE.toNanos(), "below base: " + delay);
+            assertTrue(delay <= Math.max(BASE.toNanos() + 1, Math.min(MAX.toNanos(), previous * 3)),
+                    "above 3x previous (" + previous + "): " + delay);
+            previous = delay;
+        }
+    }
+
+    @Test
+    void delaysNeverExceedTheMax() {
+        RetryPolicy policy = RetryPolicy.builder().baseDelay(BASE).maxDelay(MAX).build();
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(policy.nextDelay(MAX.toNanos() * 10) <= MAX.toNanos());
+        }
+    }
+
+    @Test
+    void retriesAcceptedFailuresUpToMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+        IllegalStateException failure = new IllegalStateException("down");
+        RetryPolicy retrying = policy().maxAttempts(4).retryOn(error -> true).build();
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> retrying.call(() -> {
+            attempts.incrementAndGet();
+            throw failure;
+        }));
+
+        assertSame(failure, thrown);
+        assertEquals(4, attempts.get());
+    }
+
+    @Test
+    void rethrowsOtherFailuresAtOnce() {
+        AtomicInteger attempts = new AtomicInteger();
+        RetryPolicy retrying = policy().maxAttempts(4).retryOn(error -> error instanceof IllegalStateException).build();
+
+        assertThrows(IllegalArgumentException.class, () -> retrying.call(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("bad request");
+        }));
+
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void retriesResultsUntilOneIsAccepted() {
+        AtomicInteger attempts = new AtomicInteger();
+        RetryPolicy retrying = policy().maxAttempts(5).build();
+
+        int result = retrying.call(attempts::incrementAndGet, value -> value < 3);
+
+        assertEquals(3, result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void stopsRetryingWhenTheBudgetIsSpent() {
+        AtomicInteger attempts = new AtomicInteger();
+        RetryPolicy retrying = policy().maxAttempts(10).retryOn(error -> true).budget(new RetryBudget(2, 0)).build();
+
+        assertThrows(IllegalStateException.class, () -> retrying.call(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("down");
+        }));
+
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void doesNotRetryAPostByDefault() {
+        AtomicInteger attempts = new AtomicInteger();
+        RetryPolicy retrying = policy().maxAttempts(3).retryOnStatus(status -> status == 502).build();
+
+        Response created = retrying.forMethod("POST").execute(() -> badGateway(attempts));
+
+        assertEquals(502, created.getStatusCode());
+        assertEquals(1, attempts.get(), "the order may already exist; a retry would create it twice");
+        assertFalse(RetryPolicy.fromConfig(new Config()).isRetryNonIdempotent());
+    }
+
+    @Test
+    void retriesIdempotentMethodsAndPostsThatOptIn() {
+        RetryPolicy retrying = policy().maxAttempts(3).retryOnStatus(status -> status == 502).build();
+        for (String method : new String[] {"GET", "PUT", "DELETE"}) {
+            AtomicInteger attempts = new AtomicInteger();
+            retrying.forMethod(method).execute(() -> badGateway(attempts));
+            assertEquals(3, attempts.get(), method);
+        }
+
+        AtomicInteger attempts = new AtomicInteger();
+        retrying.toBuilder().retryNonIdempotent(true).build().forMethod("POST").execute(() -> badGateway(attempts));
+        assertEquals(3, attempts.get());
+    }
+
+    private static Response badGateway(AtomicInteger attempts) {
+        attempts.incrementAndGet();
+        return Responses.of(502, Map.of(), new byte[0]);
+    }
+}
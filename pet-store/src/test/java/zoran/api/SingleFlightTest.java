@@ -0,0 +1,113 @@
+package zoran.api;
+
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+    private static final String KEY = "GET /store/inventory";
+
+    @Test
+    void sharesTheLeadersResponse() throws Exception {
+        SingleFlight flights = new SingleFlight();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        AtomicInteger sent = new AtomicInteger();
+
+        CompletableFuture<Response> leader = CompletableFuture.supplyAsync(() -> flights.execute(KEY, () -> {
+            leaderStarted.countDown();
+            release.join();
+            return response("v" + sent.incrementAndGet());
+        }));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Response> follower = flights.executeAsync(KEY,
+                () -> CompletableFuture.completedFuture(response("v" + sent.incrementAndGet())));
+        release.complete(null);
+
+        assertEquals("v1", leader.get(5, TimeUnit.SECONDS).asString());
+        assertEquals("v1", follower.get(5, TimeUnit.SECONDS).asString());
+        assertEquals(1, flights.sent());
+        assertEquals(1, flights.coalesced());
+    }
+
+    @Test
+    void doesNotJoinAFlightThatStartedBeforeAWrite() throws Exception {
+        SingleFlight flights = new SingleFlight();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+
+        CompletableFuture<Response> stale = CompletableFuture.supplyAsync(() -> flights.execute(KEY, () -> {
+            leaderStarted.countDown();
+            release.join();
+            return response("before write");
+        }));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+        flights.invalidateAfterWrite();
+        Response fresh = flights.execute(KEY, () -> response("after write"));
+        release.complete(null);
+
+        assertEquals("after write", fresh.asString());
+        assertEquals("before write", stale.get(5, TimeUnit.SECONDS).asString());
+        assertEquals(2, flights.sent());
+        assertEquals(0, flights.coalesced());
+    }
+
+    @Test
+    void aLeaderAloneKeepsItsResponseUncopied() throws Exception {
+        SingleFlight flights = new SingleFlight();
+        Response original = uncopyable();
+
+        assertSame(original, flights.execute(KEY, () -> original));
+        assertSame(original, flights.executeAsync(KEY, () -> CompletableFuture.completedFuture(original)).get(5, TimeUnit.SECONDS));
+        assertEquals(2, flights.sent());
+    }
+
+    @Test
+    void followersOfAnAsyncLeaderGetTheirOwnCopy() throws Exception {
+        SingleFlight flights = new SingleFlight();
+        CompletableFuture<Response> inFlight = new CompletableFuture<>();
+
+        CompletableFuture<Response> leader = flights.executeAsync(KEY, () -> inFlight);
+        CompletableFuture<Response> follower = flights.executeAsync(KEY, () -> CompletableFuture.completedFuture(response("unused")));
+        Response original = response("v1");
+        inFlight.complete(original);
+
+        assertSame(original, leader.get(5, TimeUnit.SECONDS));
+        Response copy = follower.get(5, TimeUnit.SECONDS);
+        assertEquals("v1", copy.asString());
+        assertEquals(1, flights.coalesced());
+        // The flight is over, so the next caller leads a new one
+        assertEquals("v2", flights.execute(KEY, () -> response("v2")).asString());
+    }
+
+    /**
+     * A response that fails the test if anything copies its body
+     */
+    private static Response uncopyable() {
+        return (Response) Proxy.newProxyInstance(Response.class.getClassLoader(), new Class<?>[] {Response.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getStatusCode", "statusCode" -> 200;
+                    case "getHeaders", "headers" -> new Headers();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "uncopyable response";
+                    default -> throw new AssertionError("Response read: " + method.getName());
+                });
+    }
+
+    private static Response response(String body) {
+        return Responses.of(200, Map.of(), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
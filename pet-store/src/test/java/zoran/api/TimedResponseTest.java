@@ -0,0 +1,76 @@
+package zoran.api;
+
+import io.restassured.response.Response;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import zoran.models.Pet;
+import zoran.stub.PetStoreStub;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimedResponseTest {
+    private static PetStoreStub stub;
+
+    @BeforeAll
+    static void startStub() {
+        stub = PetStoreStub.start();
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void restAssuredResponsesCarryTheirExchangeTimings() {
+        PetApiClient client = new PetApiClient(stub.getBaseUrl());
+
+        // The stub is new, so the first exchange opens a connection to it
+        Response added = client.addPetWithResponse(Pet.builder().id(4_018L).name("Timed").status("available").build());
+        Response again = client.addPetWithResponse(Pet.builder().id(4_019L).name("Timed again").status("available").build());
+
+        PhaseTimings opened = TimedResponse.phaseTimings(added);
+        assertNotNull(opened);
+        assertTrue(opened.isNewConnection(), opened.toString());
+        assertNotNull(opened.get(PhaseTimings.Phase.CONNECT));
+        assertNotNull(opened.get(PhaseTimings.Phase.TIME_TO_FIRST_BYTE));
+
+        PhaseTimings reused = assertInstanceOf(TimedResponse.class, again).phaseTimings();
+        assertFalse(reused.isNewConnection(), reused.toString());
+        assertNotNull(reused.get(PhaseTimings.Phase.TIME_TO_FIRST_BYTE));
+        assertNotNull(reused.get(PhaseTimings.Phase.TRANSFER));
+        assertEquals("Timed again", again.jsonPath().getString("name"), "everything else is the wrapped response's");
+    }
+
+    @Test
+    void httpClientResponsesCarryFirstByteAndTransfer() {
+        HttpClientTransport transport = new HttpClientTransport(stub.getBaseUrl(), Map.of("Accept", "application/json"),
+                Duration.ofSeconds(10));
+
+        Response inventory = transport.execute(Endpoints.GET_INVENTORY.request().build());
+
+        PhaseTimings timings = TimedResponse.phaseTimings(inventory);
+        assertEquals(200, inventory.getStatusCode());
+        assertNotNull(timings.get(PhaseTimings.Phase.TIME_TO_FIRST_BYTE));
+        assertNotNull(timings.get(PhaseTimings.Phase.TRANSFER));
+        assertNull(timings.get(PhaseTimings.Phase.CONNECT), "the java.net.http client does not expose connection setup");
+    }
+
+    @Test
+    void builtResponsesHaveNoTimings() {
+        Response built = Responses.of(200, Map.of("Content-Type", List.of("application/json")), "{}".getBytes());
+
+        assertNull(TimedResponse.phaseTimings(built));
+        built.then().statusCode(200);
+    }
+}
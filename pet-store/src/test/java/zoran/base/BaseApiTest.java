@@ -1,5 +1,6 @@
 package zoran.base;
 
+import zoran.config.ApiConfig;
 import zoran.config.Config;
 import io.restassured.RestAssured;
 import org.junit.jupiter.api.BeforeAll;
@@ -9,7 +10,7 @@ public class BaseApiTest {
 
     @BeforeAll
     public static void setUp() {
-        RestAssured.baseURI = config.getBaseUrl();
+        RestAssured.baseURI = ApiConfig.BASE_URI;
         RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
     }
 }
\ No newline at end of file
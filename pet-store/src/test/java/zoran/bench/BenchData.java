@@ -0,0 +1,41 @@
+package zoran.bench;
+
+import zoran.models.Pet;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Models shaped like what the Petstore returns, for the benchmarks
+ */
+final class BenchData {
+    private static final String[] STATUSES = {"available", "pending", "sold"};
+
+    private BenchData() {
+    }
+
+    /**
+     * @return A pet with a category, {@code photoUrls} photo URLs and one tag per two of them, plus one
+     */
+    static Pet pet(long id, int photoUrls) {
+        return Pet.builder()
+                .id(id)
+                .category(Pet.Category.builder().id(id % 10).name("Category " + id % 10).build())
+                .name("doggie-" + id)
+                .photoUrls(IntStream.range(0, photoUrls)
+                        .mapToObj(i -> "https://images.example.com/pets/" + id + "/photo-" + i + ".jpg")
+                        .toList())
+                .tags(IntStream.rangeClosed(0, photoUrls / 2)
+                        .mapToObj(i -> Pet.Tag.builder().id((long) i).name("tag-" + i).build())
+                        .toList())
+                .status(STATUSES[(int) (id % STATUSES.length)])
+                .build();
+    }
+
+    /**
+     * @return Pets with 0 to 4 photo URLs each, like a {@code findByStatus} response
+     */
+    static List<Pet> pets(int count) {
+        return IntStream.range(0, count).mapToObj(i -> pet(i + 1, i % 5)).toList();
+    }
+}
@@ -0,0 +1,156 @@
+package zoran.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import zoran.api.Json;
+import zoran.models.Order;
+import zoran.models.Pet;
+import zoran.models.User;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson (de)serialization of single models, to and from bytes as the transports send and receive them.
+ * The {@code json*} benchmarks use the clients' tuned mapper from {@link Json}; the {@code default*} ones
+ * a plain mapper with only the Java time module, for comparison. {@code photoUrls} sets how many photo
+ * URLs each pet carries; it also has a category and one tag per two photo URLs, plus one.
+ * <p>
+ * Run with {@code mvn test-compile exec:exec -Pbench -Dbench.include=ModelSerialization}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelSerializationBenchmark {
+    @Param({"0", "3", "20"})
+    private int photoUrls;
+
+    private Pet pet;
+    private Order order;
+    private User user;
+    private byte[] petJson;
+    private byte[] orderJson;
+    private byte[] userJson;
+
+    private ObjectWriter petWriter;
+    private ObjectReader petReader;
+    private ObjectWriter orderWriter;
+    private ObjectReader orderReader;
+    private ObjectWriter userWriter;
+    private ObjectReader userReader;
+    private ObjectWriter defaultPetWriter;
+    private ObjectReader defaultPetReader;
+    private ObjectWriter defaultOrderWriter;
+    private ObjectReader defaultOrderReader;
+
+    @Setup
+    public void setUp() throws Exception {
+        pet = BenchData.pet(1, photoUrls);
+        order = Order.builder()
+                .id(7L)
+                .petId(1L)
+                .quantity(2)
+                .shipDate(OffsetDateTime.of(2024, 5, 1, 10, 15, 30, 0, ZoneOffset.ofHours(2)))
+                .status("placed")
+                .complete(false)
+                .build();
+        user = User.builder()
+                .id(3L)
+                .username("user3")
+                .firstName("Ada")
+                .lastName("Lovelace")
+                .email("ada@example.com")
+                .password("secret")
+                .phone("+44 20 7946 0000")
+                .userStatus(1)
+                .build();
+
+        petWriter = Json.writer(Pet.class);
+        petReader = Json.reader(Pet.class);
+        orderWriter = Json.writer(Order.class);
+        orderReader = Json.reader(Order.class);
+        userWriter = Json.writer(User.class);
+        userReader = Json.reader(User.class);
+        ObjectMapper defaultMapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        defaultPetWriter = defaultMapper.writerFor(Pet.class);
+        defaultPetReader = defaultMapper.readerFor(Pet.class);
+        defaultOrderWriter = defaultMapper.writerFor(Order.class);
+        defaultOrderReader = defaultMapper.readerFor(Order.class);
+
+        petJson = petWriter.writeValueAsBytes(pet);
+        orderJson = orderWriter.writeValueAsBytes(order);
+        userJson = userWriter.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] jsonWritePet() throws Exception {
+        return petWriter.writeValueAsBytes(pet);
+    }
+
+    @Benchmark
+    public Pet jsonReadPet() throws Exception {
+        return petReader.readValue(petJson);
+    }
+
+    @Benchmark
+    public byte[] defaultWritePet() throws Exception {
+        return defaultPetWriter.writeValueAsBytes(pet);
+    }
+
+    @Benchmark
+    public Pet defaultReadPet() throws Exception {
+        return defaultPetReader.readValue(petJson);
+    }
+
+    @Benchmark
+    public byte[] jsonWriteOrder() throws Exception {
+        return orderWriter.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public Order jsonReadOrder() throws Exception {
+        return orderReader.readValue(orderJson);
+    }
+
+    @Benchmark
+    public byte[] defaultWriteOrder() throws Exception {
+        return defaultOrderWriter.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public Order defaultReadOrder() throws Exception {
+        return defaultOrderReader.readValue(orderJson);
+    }
+
+    @Benchmark
+    public byte[] jsonWriteUser() throws Exception {
+        return userWriter.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public User jsonReadUser() throws Exception {
+        return userReader.readValue(userJson);
+    }
+}
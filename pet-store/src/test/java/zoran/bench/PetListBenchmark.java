@@ -0,0 +1,108 @@
+package zoran.bench;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.common.mapper.TypeRef;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.internal.RestAssuredResponseImpl;
+import io.restassured.path.json.JsonPath;
+import io.restassured.path.json.config.JsonPathConfig;
+import io.restassured.path.json.mapper.factory.Jackson2ObjectMapperFactory;
+import io.restassured.response.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import zoran.api.Json;
+import zoran.models.Pet;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binding a {@code findByStatus} response body, a JSON array of pets, in the ways the clients can:
+ * <ul>
+ *     <li>{@code restAssuredJsonPath} - {@code jsonPath().getList("", Pet.class)}: Groovy parses the body into
+ *     maps, which are then converted to pets</li>
+ *     <li>{@code restAssuredAs} - {@code as(new TypeRef<List<Pet>>() {})}, what {@code findPetsByStatus} does</li>
+ *     <li>{@code jacksonDatabind} - the {@link Json} mapper reading the bytes into a list directly</li>
+ *     <li>{@code jacksonStreaming} - a {@link MappingIterator} binding one pet at a time and keeping none, what
+ *     {@code streamPetsByStatus} does</li>
+ * </ul>
+ * The RestAssured benchmarks build a response around the body on each call, as a transport does.
+ * <p>
+ * Run with {@code mvn test-compile exec:exec -Pbench -Dbench.include=PetList}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PetListBenchmark {
+    private static final TypeRef<List<Pet>> PET_LIST_REF = new TypeRef<>() {};
+    private static final RestAssuredConfig CONFIG = RestAssuredConfig.config().objectMapperConfig(Json.objectMapperConfig());
+    private static final JsonPathConfig JSON_PATH_CONFIG = JsonPathConfig.jsonPathConfig()
+            .jackson2ObjectMapperFactory((Jackson2ObjectMapperFactory) (type, charset) -> Json.mapper());
+
+    @Param({"10", "1000", "10000"})
+    private int pets;
+
+    private byte[] body;
+    private ObjectReader listReader;
+    private ObjectReader petReader;
+
+    @Setup
+    public void setUp() throws Exception {
+        body = Json.mapper().writeValueAsBytes(BenchData.pets(pets));
+        listReader = Json.mapper().readerFor(new TypeReference<List<Pet>>() {});
+        petReader = Json.reader(Pet.class);
+    }
+
+    @Benchmark
+    public List<Pet> restAssuredJsonPath() {
+        return new JsonPath(new ByteArrayInputStream(body)).using(JSON_PATH_CONFIG).getList("", Pet.class);
+    }
+
+    @Benchmark
+    public List<Pet> restAssuredAs() {
+        return response().as(PET_LIST_REF);
+    }
+
+    @Benchmark
+    public List<Pet> jacksonDatabind() throws Exception {
+        return listReader.readValue(body);
+    }
+
+    @Benchmark
+    public void jacksonStreaming(Blackhole blackhole) throws Exception {
+        try (MappingIterator<Pet> iterator = petReader.readValues(body)) {
+            while (iterator.hasNext()) {
+                blackhole.consume(iterator.next());
+            }
+        }
+    }
+
+    /** Like the transports' responses: JSON content type and the clients' mapper */
+    private Response response() {
+        Response response = new ResponseBuilder()
+                .setStatusCode(200)
+                .setStatusLine("HTTP/1.1 200")
+                .setContentType("application/json")
+                .setBody(body)
+                .build();
+        ((RestAssuredResponseImpl) response).setConfig(CONFIG);
+        return response;
+    }
+}
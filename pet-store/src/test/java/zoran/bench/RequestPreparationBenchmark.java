@@ -0,0 +1,115 @@
+package zoran.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import zoran.api.ApiRequest;
+import zoran.api.Endpoints;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side work to prepare one request before it reaches the transport: building it, expanding the
+ * path for the URL, and the request line the response cache, single-flight and exchange recorder key on.
+ * The {@code perCall*} benchmarks redo that work on every use, as the client did before endpoints were
+ * compiled; the {@code endpoint*} ones go through {@link Endpoints}.
+ * <p>
+ * Run with {@code mvn test-compile exec:exec -Pbench -Dbench.include=RequestPreparation}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestPreparationBenchmark {
+    private static final String PET_PATH = "/pet/{petId}";
+    private static final String FIND_PATH = "/pet/findByStatus";
+
+    private long petId = 9_223_372_000_001L;
+
+    @Benchmark
+    public void perCallGetPetById(Blackhole blackhole) {
+        Object[] params = {petId++};
+        blackhole.consume(ApiRequest.builder().method("GET").path(PET_PATH).pathParams(params).build());
+        String path = scanAndExpand(PET_PATH, params);
+        blackhole.consume(path);
+        for (int i = 0; i < 3; i++) {
+            blackhole.consume("GET " + scanAndExpand(PET_PATH, params));
+        }
+    }
+
+    @Benchmark
+    public void endpointGetPetById(Blackhole blackhole) {
+        ApiRequest request = Endpoints.GET_PET_BY_ID.request(petId++).build();
+        blackhole.consume(request.expandedPath());
+        for (int i = 0; i < 3; i++) {
+            blackhole.consume(request.requestLine());
+        }
+    }
+
+    @Benchmark
+    public void perCallFindPetsByStatus(Blackhole blackhole) {
+        Map<String, List<String>> query = Map.of("status", List.of("available", "pending"));
+        blackhole.consume(ApiRequest.builder().method("GET").path(FIND_PATH).queryParams(query).build());
+        blackhole.consume(scanAndExpand(FIND_PATH));
+        for (int i = 0; i < 3; i++) {
+            blackhole.consume("GET " + scanAndExpand(FIND_PATH) + "?" + encodeQuery(query));
+        }
+    }
+
+    @Benchmark
+    public void endpointFindPetsByStatus(Blackhole blackhole) {
+        ApiRequest request = Endpoints.FIND_PETS_BY_STATUS.request()
+                .queryParam("status", List.of("available", "pending"))
+                .build();
+        blackhole.consume(request.expandedPath());
+        for (int i = 0; i < 3; i++) {
+            blackhole.consume(request.requestLine());
+        }
+    }
+
+    /** Scans the template for placeholders and URL-encodes every value, on every call */
+    private static String scanAndExpand(String template, Object... params) {
+        if (params.length == 0 || template.indexOf('{') < 0) {
+            return template;
+        }
+        StringBuilder path = new StringBuilder(template.length() + 16);
+        int next = 0;
+        int i = 0;
+        while (i < template.length()) {
+            char c = template.charAt(i);
+            if (c == '{') {
+                int end = template.indexOf('}', i);
+                path.append(encode(String.valueOf(params[next++])));
+                i = end + 1;
+            } else {
+                path.append(c);
+                i++;
+            }
+        }
+        return path.toString();
+    }
+
+    private static String encodeQuery(Map<String, List<String>> query) {
+        StringJoiner joined = new StringJoiner("&");
+        query.forEach((name, values) -> values.forEach(value -> joined.add(encode(name) + "=" + encode(value))));
+        return joined.toString();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
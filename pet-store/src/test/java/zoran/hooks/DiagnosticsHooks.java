@@ -0,0 +1,26 @@
+package zoran.hooks;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.Scenario;
+import io.qameta.allure.Allure;
+import zoran.api.ExchangeRecorder;
+
+/**
+ * Attaches the scenario's most recent HTTP exchanges to the Allure report when it fails
+ */
+public class DiagnosticsHooks {
+
+    @Before
+    public void clearExchanges() {
+        ExchangeRecorder.current().clear();
+    }
+
+    @After
+    public void attachExchangesOnFailure(Scenario scenario) {
+        ExchangeRecorder recorder = ExchangeRecorder.current();
+        if (scenario.isFailed() && recorder.size() > 0) {
+            Allure.addAttachment("Recent HTTP exchanges", "text/plain", recorder.dump(), ".txt");
+        }
+    }
+}
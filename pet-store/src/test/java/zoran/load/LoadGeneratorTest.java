@@ -0,0 +1,85 @@
+package zoran.load;
+
+import org.junit.jupiter.api.Test;
+import zoran.api.BaseApiClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadGeneratorTest {
+
+    @Test
+    void operationsCutOffByTheDrainCountOnlyAsUnfinished() throws Exception {
+        AtomicInteger started = new AtomicInteger();
+        CountDownLatch interrupted = new CountDownLatch(5);
+        Scenario scenario = Scenario.builder("drain")
+                .operation("sometimesStuck", 1, context -> {
+                    if (started.getAndIncrement() % 2 == 0) {
+                        return;
+                    }
+                    try {
+                        Thread.sleep(Duration.ofMinutes(1));
+                    } catch (InterruptedException e) {
+                        // Ends normally once interrupted, which must not make it count as completed
+                        interrupted.countDown();
+                    }
+                })
+                .build();
+
+        LoadResult result = LoadGenerator.builder()
+                .profile(LoadProfile.constant(100, Duration.ofMillis(100)))
+                .drainTimeout(Duration.ofMillis(200))
+                .build()
+                .run(scenario);
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "the stuck operations are interrupted after the drain");
+        assertEquals(10, result.getArrivals());
+        assertEquals(5, result.getUnfinished());
+        assertEquals(5, result.completed());
+        assertEquals(0, result.errors());
+        assertEquals(5, result.operation("sometimesStuck").getLatencies().getTotalCount());
+    }
+
+    @Test
+    void theRunsClientsSendEachRequestOnce() {
+        LoadContext context = new LoadContext(new LoadContext.Shared(), new SplittableRandom(1));
+
+        for (BaseApiClient client : List.of(context.pets(), context.store(), context.users())) {
+            assertEquals(1, client.getRetryPolicy().getMaxAttempts());
+            assertNull(client.getResponseCache());
+            assertFalse(client.isCoalesceGets());
+        }
+    }
+
+    @Test
+    void correctedLatencyRunsFromWhenEachArrivalWasDue() {
+        Scenario scenario = Scenario.builder("corrected")
+                .operation("sleep", 1, context -> LockSupport.parkNanos(Duration.ofMillis(20).toNanos()))
+                .build();
+
+        LoadResult result = LoadGenerator.builder()
+                .profile(LoadProfile.constant(200, Duration.ofMillis(250)))
+                .build()
+                .run(scenario);
+
+        OperationStats stats = result.operation("sleep");
+        assertEquals(50, stats.getCompleted());
+        assertTrue(stats.p50().toMillis() >= 20, stats.toString());
+        for (double percentile : new double[]{50, 90, 99, 100}) {
+            assertTrue(stats.correctedLatencyAt(percentile).compareTo(stats.latencyAt(percentile)) >= 0,
+                    "an arrival never starts before it is due: " + stats);
+        }
+        // The arrival sent latest waited that long on top of its own latency
+        assertTrue(stats.getCorrectedLatencies().getMaxValue() >= result.getMaxSendDelay().toNanos(), result.report());
+    }
+}
@@ -0,0 +1,90 @@
+package zoran.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoadProfileTest {
+    private static final long MS = 1_000_000;
+
+    @Test
+    void aConstantRateSpacesArrivalsEvenly() {
+        List<Long> due = dueTimes(LoadProfile.constant(10, Duration.ofSeconds(1)));
+
+        assertEquals(10, due.size());
+        for (int i = 0; i < due.size(); i++) {
+            assertEquals(i * 100 * MS, due.get(i));
+        }
+    }
+
+    @Test
+    void aRampFollowsTheIntegralOfTheRate() {
+        // From 0 to 20/s over a second, n arrivals are due once 10 t^2 = n
+        LoadProfile ramp = LoadProfile.ramp(0, 20, Duration.ofSeconds(1));
+        List<Long> due = dueTimes(ramp);
+
+        assertEquals(10, ramp.arrivals());
+        assertEquals(10, due.size());
+        for (int i = 0; i < due.size(); i++) {
+            assertEquals(Math.sqrt(i / 10.0) * 1e9, due.get(i), 1_000);
+        }
+        List<Long> down = dueTimes(LoadProfile.ramp(20, 0, Duration.ofSeconds(1)));
+        assertEquals(10, down.size());
+        assertEquals(down.stream().sorted().toList(), down, "arrivals stay in order as the rate falls");
+    }
+
+    @Test
+    void stagesCarryOverPartialArrivals() {
+        // 2.5 arrivals fit the first second; the half left over is made up 0.1 s into the next stage at 5/s
+        LoadProfile profile = LoadProfile.constant(2.5, Duration.ofSeconds(1)).thenConstant(5, Duration.ofSeconds(1));
+
+        assertEquals(List.of(0L, 400 * MS, 800 * MS, 1_100 * MS, 1_300 * MS, 1_500 * MS, 1_700 * MS, 1_900 * MS),
+                dueTimes(profile));
+        assertEquals(8, profile.arrivals());
+        assertEquals(Duration.ofSeconds(2), profile.getDuration());
+    }
+
+    @Test
+    void anIdleStageOnlyShiftsTheNextOne() {
+        LoadProfile profile = LoadProfile.constant(2, Duration.ofSeconds(1))
+                .thenConstant(0, Duration.ofSeconds(3))
+                .thenConstant(2, Duration.ofSeconds(1));
+
+        assertEquals(List.of(0L, 500 * MS, 4_000 * MS, 4_500 * MS), dueTimes(profile));
+    }
+
+    @Test
+    void theScheduleStaysOverOnceTheProfileEnds() {
+        LoadProfile.Schedule schedule = LoadProfile.constant(1, Duration.ofSeconds(1)).schedule();
+
+        assertEquals(0, schedule.next());
+        assertEquals(-1, schedule.next());
+        assertEquals(-1, schedule.next());
+    }
+
+    @Test
+    void parsesTheSettingsForm() {
+        LoadProfile profile = LoadProfile.parse(" ramp:0,20,1 ; Constant:10, 0.5");
+
+        assertEquals(LoadProfile.ramp(0, 20, Duration.ofSeconds(1)).thenConstant(10, Duration.ofMillis(500)), profile);
+        assertEquals(15, profile.arrivals());
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parse("burst:100,10"));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parse("ramp:0,20"));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parse("constant:fast,10"));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parse("constant:10,0"));
+    }
+
+    private static List<Long> dueTimes(LoadProfile profile) {
+        LoadProfile.Schedule schedule = profile.schedule();
+        List<Long> due = new ArrayList<>();
+        for (long next = schedule.next(); next >= 0; next = schedule.next()) {
+            due.add(next);
+        }
+        return due;
+    }
+}
@@ -7,7 +7,7 @@ import org.junit.runner.RunWith;
 @RunWith(Cucumber.class)
 @CucumberOptions(
     features = "src/test/resources/features",
-    glue = {"zoran.steps"},
+    glue = {"zoran.steps", "zoran.hooks"},
     plugin = {
         "pretty",
         "html:target/cucumber-reports/cucumber.html",
@@ -1,27 +1,30 @@
 package zoran.steps;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
 import io.restassured.RestAssured;
-import io.restassured.builder.RequestSpecBuilder;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
+import zoran.api.BaseApiClient;
+import zoran.api.BulkResult;
+import zoran.api.MultiPart;
 import zoran.api.PetApiClient;
+import zoran.api.Poller;
 import zoran.models.Pet;
 import zoran.utils.Assertions;
 import zoran.utils.PetGenerator;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
-import static io.restassured.RestAssured.given;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,6 +34,8 @@ public class PetAPI {
     private Pet testPet;
     private Response response;
     private final PetApiClient petApi = new PetApiClient();
+    /** Test images by resource path, each mapped into memory on first use */
+    private static final Map<String, MultiPart> TEST_IMAGES = new ConcurrentHashMap<>();
     private Pet createdPet;
     private Pet foundPet;
     private Exception lastException;
@@ -136,88 +141,32 @@ public class PetAPI {
      * @throws RuntimeException if the pet cannot be found after all retries
      */
     private void verifyPetInStore(long petId) {
-        int maxRetries = 5; // Increased from 3 to 5
-        int retryCount = 0;
-        long baseWaitTime = 2000; // Increased from 1000 to 2000ms
-        
-        System.out.println("\n[VERIFICATION] Verifying pet with ID: " + petId);
-        
-        while (retryCount < maxRetries) {
-            try {
-                System.out.println(String.format("Attempt %d of %d to verify pet %d", 
-                    retryCount + 1, maxRetries, petId));
-                
-                // Get the pet from the API
-                Pet pet = petApi.getPetById(petId);
-                
-                // If we get here, the pet was found
-                System.out.println("Successfully verified pet in store:");
-                System.out.println("  ID: " + pet.getId());
-                System.out.println("  Name: " + pet.getName());
-                System.out.println("  Status: " + pet.getStatus());
-                
-                // Verify the pet has all required fields
-                assertNotNull(pet.getId(), "Pet ID should not be null");
-                assertNotNull(pet.getName(), "Pet name should not be null");
-                assertNotNull(pet.getStatus(), "Pet status should not be null");
-                assertFalse(pet.getPhotoUrls().isEmpty(), "Pet should have at least one photo URL");
-                
-                // If we have a test pet to compare with
-                if (testPet != null) {
-                    assertEquals(testPet.getName(), pet.getName(), "Pet name mismatch");
-                    // Only compare status if it was set in the test pet
-                    if (testPet.getStatus() != null) {
-                        assertEquals(testPet.getStatus(), pet.getStatus(), "Pet status mismatch");
-                    }
-                }
-                
-                System.out.println("Pet verification successful");
-                return; // Exit on success
-                
-            } catch (Exception e) {
-                retryCount++;
-                
-                // If this was the last attempt, rethrow the exception
-                if (retryCount >= maxRetries) {
-                    String errorMsg = String.format("Failed to verify pet with ID %d after %d attempts: %s", 
-                        petId, maxRetries, e.getMessage());
-                    System.err.println(errorMsg);
-                    
-                    // Try one last time to get the pet with detailed logging
-                    try {
-                        System.out.println("Final attempt to get pet with ID: " + petId);
-                        Response response = given()
-                            .spec(new RequestSpecBuilder()
-                                .setBaseUri("https://petstore.swagger.io/v2")
-                                .build())
-                            .when()
-                            .get("/pet/" + petId);
-                        
-                        System.out.println("Final attempt response - Status: " + response.getStatusCode());
-                        System.out.println("Response body: " + response.getBody().asString());
-                    } catch (Exception ex) {
-                        System.err.println("Error in final attempt: " + ex.getMessage());
-                    }
-                    
-                    throw new RuntimeException(errorMsg, e);
-                }
-                
-                // Calculate exponential backoff time and wait
-                long waitTime = baseWaitTime * (long) Math.pow(2, retryCount - 1);
-                System.out.println(String.format("Verification failed, retrying in %dms... (Attempt %d/%d)", 
-                    waitTime, retryCount + 1, maxRetries));
-                
-                try {
-                    Thread.sleep(waitTime);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Interrupted during verification retry", ie);
-                }
-            }
+        try {
+            // Wait until the store serves the pet we sent, then check it in detail
+            Pet pet = BaseApiClient.join(petApi.awaitPet(petId, this::matchesTestPet));
+            
+            // Verify the pet has all required fields
+            assertNotNull(pet.getId(), "Pet ID should not be null");
+            assertNotNull(pet.getName(), "Pet name should not be null");
+            assertNotNull(pet.getStatus(), "Pet status should not be null");
+            assertFalse(pet.getPhotoUrls().isEmpty(), "Pet should have at least one photo URL");
+            
+        } catch (RuntimeException e) {
+            // The exchanges of the failed probes are attached to the report by DiagnosticsHooks
+            String errorMsg = String.format("Failed to verify pet with ID %d: %s", petId, e.getMessage());
+            throw new RuntimeException(errorMsg, e);
         }
-        
-        // This should never be reached due to the exception in the catch block
-        throw new RuntimeException("Failed to verify pet with ID " + petId + " after " + maxRetries + " attempts");
+    }
+    
+    /**
+     * @return True when the pet has the name and (if set) status of the test pet, or when there is no test pet
+     */
+    private boolean matchesTestPet(Pet pet) {
+        if (testPet == null) {
+            return true;
+        }
+        return Objects.equals(testPet.getName(), pet.getName())
+            && (testPet.getStatus() == null || testPet.getStatus().equals(pet.getStatus()));
     }
     
     @When("I add the pet to the store")
@@ -229,91 +178,49 @@ public class PetAPI {
             throw new IllegalStateException("Test pet is not initialized. Please create a pet first.");
         }
         
-        int maxRetries = 3;
-        int retryCount = 0;
-        boolean success = false;
-        
-        while (retryCount < maxRetries && !success) {
-            try {
-                System.out.println("\n[ATTEMPT " + (retryCount + 1) + "/" + maxRetries + "] Adding pet to store...");
-                
-                // Log the pet details being sent
-                System.out.println("Sending pet to store: " + testPet);
-                
-                // Add the pet to the store
-                response = petApi.addPetWithResponse(testPet);
-                int statusCode = response.getStatusCode();
-                String responseBody = response.getBody().asString();
-                
-                System.out.println("Add pet response - Status: " + statusCode + ", Body: " + responseBody);
-                
-                if (statusCode != 200) {
-                    String errorMsg = String.format("Failed to add pet. Status: %d, Response: %s", 
-                        statusCode, responseBody);
-                    throw new RuntimeException(errorMsg);
-                }
-                
-                // Parse the response to get the created pet
-                createdPet = response.as(Pet.class);
-                if (createdPet == null || createdPet.getId() == null) {
-                    throw new RuntimeException("Failed to parse created pet from response: " + responseBody);
-                }
-                
-                // Update the testPet with the server-generated ID if it was null
-                if (testPet.getId() == null) {
-                    testPet.setId(createdPet.getId());
-                    System.out.println("Updated testPet with server-generated ID: " + testPet.getId());
-                }
-                
-                // Verify the pet was actually saved by retrieving it
-                System.out.println("Verifying pet was saved by retrieving it...");
-                Pet retrievedPet = petApi.getPetById(createdPet.getId());
-                if (retrievedPet != null) {
-                    System.out.println("\n[VERIFICATION SUCCESS] Pet details from API:");
-                    System.out.println("  ID: " + retrievedPet.getId());
-                    System.out.println("  Name: " + retrievedPet.getName());
-                    System.out.println("  Status: " + retrievedPet.getStatus());
-                    System.out.println("  Photo URLs: " + (retrievedPet.getPhotoUrls() != null ? 
-                        String.join(", ", retrievedPet.getPhotoUrls()) : "[none]"));
-                    
-                    // Verify the pet data matches what we sent
-                    assertEquals(testPet.getName(), retrievedPet.getName(), "Pet name mismatch");
-                    if (testPet.getStatus() != null) {
-                        assertEquals(testPet.getStatus(), retrievedPet.getStatus(), "Pet status mismatch");
-                    }
-                } else {
-                    throw new RuntimeException("Failed to retrieve pet after creation, pet may not have been saved correctly");
-                }
-                
-                // Mark as successful
-                success = true;
-                
-                lastException = null;
-                System.out.println("\n===== PET ADDED AND VERIFIED SUCCESSFULLY =====\n");
-                
-            } catch (Exception e) {
-                retryCount++;
-                if (retryCount >= maxRetries) {
-                    String errorMsg = "Failed after " + maxRetries + " attempts: " + e.getMessage();
-                    System.err.println(errorMsg);
-                    lastException = e;
-                    throw new RuntimeException(errorMsg, e);
-                }
-                
-                // Wait before retrying (exponential backoff)
-                long waitTime = (long) (Math.pow(2, retryCount) * 1000);
-                System.out.println("Retry attempt " + retryCount + " of " + maxRetries + " after " + waitTime + "ms");
-                try {
-                    Thread.sleep(waitTime);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Interrupted during retry", ie);
-                }
+        try {
+            // Transient failures are retried by the client's own policy, so the add is sent once here
+            System.out.println("Sending pet to store: " + testPet);
+            response = petApi.addPetWithResponse(testPet);
+            int statusCode = response.getStatusCode();
+            String responseBody = response.getBody().asString();
+            System.out.println("Add pet response - Status: " + statusCode + ", Body: " + responseBody);
+
+            if (statusCode != 200) {
+                throw new RuntimeException(String.format("Failed to add pet. Status: %d, Response: %s",
+                        statusCode, responseBody));
             }
-        }
-        
-        if (!success) {
-            throw new RuntimeException("Failed to add pet after " + maxRetries + " attempts");
+
+            // Parse the response to get the created pet
+            createdPet = response.as(Pet.class);
+            if (createdPet == null || createdPet.getId() == null) {
+                throw new RuntimeException("Failed to parse created pet from response: " + responseBody);
+            }
+
+            // Update the testPet with the server-generated ID if it was null
+            if (testPet.getId() == null) {
+                testPet.setId(createdPet.getId());
+                System.out.println("Updated testPet with server-generated ID: " + testPet.getId());
+            }
+
+            // The public store may serve the pet a little later; poll until it reads back as sent
+            System.out.println("Verifying pet was saved by retrieving it...");
+            Pet retrievedPet = BaseApiClient.join(petApi.awaitPet(createdPet.getId(), this::matchesTestPet));
+            System.out.println("\n[VERIFICATION SUCCESS] Pet details from API:");
+            System.out.println("  ID: " + retrievedPet.getId());
+            System.out.println("  Name: " + retrievedPet.getName());
+            System.out.println("  Status: " + retrievedPet.getStatus());
+            System.out.println("  Photo URLs: " + (retrievedPet.getPhotoUrls() != null ?
+                String.join(", ", retrievedPet.getPhotoUrls()) : "[none]"));
+
+            lastException = null;
+            System.out.println("\n===== PET ADDED AND VERIFIED SUCCESSFULLY =====\n");
+
+        } catch (RuntimeException e) {
+            String errorMsg = "Failed to add and read back the pet: " + e.getMessage();
+            System.err.println(errorMsg);
+            lastException = e;
+            throw new RuntimeException(errorMsg, e);
         }
     }
 
@@ -460,7 +367,7 @@ public class PetAPI {
     @When("I attempt to retrieve a pet with ID {string}")
     public void iAttemptToRetrievePetWithId(String petId) {
         try {
-            createdPet = petApi.getPetById(Long.parseLong(petId));
+            response = petApi.getPetByIdWithResponse(Long.parseLong(petId));
             lastException = null;
         } catch (Exception e) {
             lastException = e;
@@ -520,37 +427,8 @@ public class PetAPI {
                     response.getStatusCode() + ", Response: " + response.getBody().asString());
             }
             
-            // Refresh the pet data with a small delay to ensure the update is processed
-            Thread.sleep(1000);
-            
-            // Get the updated pet data with retry logic
-            int maxRetries = 3;
-            int retryCount = 0;
-            Pet updatedPet = null;
-            
-            while (retryCount < maxRetries) {
-                try {
-                    updatedPet = petApi.getPetById(petId);
-                    if (updatedPet != null && status.equals(updatedPet.getStatus())) {
-                        break; // Status matches, exit retry loop
-                    }
-                    System.out.println("Status not yet updated, retrying... (" + (retryCount + 1) + "/" + maxRetries + ")");
-                    if (retryCount < maxRetries - 1) {
-                        Thread.sleep(2000); // Wait 2 seconds before retry
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error retrieving updated pet (attempt " + (retryCount + 1) + "): " + e.getMessage());
-                    if (retryCount == maxRetries - 1) {
-                        throw e; // If last retry, rethrow the exception
-                    }
-                    Thread.sleep(2000); // Wait 2 seconds before retry
-                }
-                retryCount++;
-            }
-            
-            if (updatedPet == null) {
-                throw new RuntimeException("Failed to retrieve updated pet with ID: " + petId + " after " + maxRetries + " attempts");
-            }
+            // Wait until the store serves the new status
+            Pet updatedPet = BaseApiClient.join(petApi.awaitPet(petId, pet -> status.equals(pet.getStatus())));
             
             // Verify the status was updated
             String actualStatus = updatedPet.getStatus();
@@ -612,7 +490,7 @@ public class PetAPI {
     @When("I attempt to find pets with status {string}")
     public void iAttemptToFindPetsWithStatus(String status) {
         try {
-            foundPets = petApi.findPetsByStatus(status);
+            response = petApi.findPetsByStatusWithResponse(status);
             lastException = null;
         } catch (Exception e) {
             lastException = e;
@@ -674,9 +552,13 @@ public void verifyPetStatus(String expectedStatus) {
                 );
             }
             
-            // Refresh the pet data with a small delay to ensure the update is processed
-            Thread.sleep(1000);
-            Pet updatedPet = petApi.getPetById(testPet.getId());
+            // Wait until the store serves the new name; a timeout is reported as an assertion below
+            Pet updatedPet;
+            try {
+                updatedPet = BaseApiClient.join(petApi.awaitPet(testPet.getId(), pet -> name.equals(pet.getName())));
+            } catch (Poller.PollTimeoutException e) {
+                updatedPet = petApi.getPetById(testPet.getId());
+            }
             
             // Verify the name was updated
             assertEquals(name, updatedPet.getName(),
@@ -826,40 +708,13 @@ public void verifyPetStatus(String expectedStatus) {
         }
         
         Long petId = testPet.getId();
-        int maxAttempts = 5; // Increased from 3 to 5 for more reliable testing
-        boolean deleted = false;
-        
-        for (int i = 0; i < maxAttempts; i++) {
-            try {
-                // Add a small delay before checking (increasing delay with each attempt)
-                if (i > 0) {
-                    Thread.sleep(1000 * i);
-                }
-                
-                // Try to get the pet - should throw 404
-                Pet pet = petApi.getPetById(petId);
-                System.out.println("Pet " + petId + " still exists, attempt " + (i + 1) + " of " + maxAttempts + ": " + pet);
-            } catch (Exception e) {
-                // Check if this is the expected 404 error
-                if (e.getMessage() != null && e.getMessage().contains("404")) {
-                    deleted = true;
-                    break; // Success - pet not found
-                }
-                System.out.println("Unexpected error checking for pet " + petId + ": " + e.getMessage());
-            }
-        }
-        
-        if (!deleted) {
-            // One final check to get the current state
-            try {
-                Pet pet = petApi.getPetById(petId);
-                throw new AssertionError("Pet " + petId + " still exists after " + maxAttempts + " attempts: " + pet);
-            } catch (Exception e) {
-                if (e.getMessage() != null && e.getMessage().contains("404")) {
-                    return; // Success - pet not found
-                }
-                throw new AssertionError("Unexpected error during final pet verification: " + e.getMessage(), e);
-            }
+        try {
+            // Wait until reading the pet returns 404
+            BaseApiClient.join(petApi.awaitAbsent(petId));
+        } catch (Poller.PollTimeoutException e) {
+            throw new AssertionError("Pet " + petId + " still exists: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new AssertionError("Unexpected error during pet verification: " + e.getMessage(), e);
         }
     }
 
@@ -894,9 +749,6 @@ public void verifyPetStatus(String expectedStatus) {
             try {
                 petApi.deletePet((long) petId);
                 System.out.println("Deleted pet with ID " + petId + " to ensure it doesn't exist");
-                
-                // Give the API a moment to process the deletion
-                Thread.sleep(1000);
             } catch (Exception e) {
                 // Ignore errors - the pet might not exist
                 System.out.println("No need to delete pet " + petId + ": " + e.getMessage());
@@ -958,7 +810,7 @@ public void verifyPetStatus(String expectedStatus) {
             }
             
             // If we get here, the pet exists, so update it
-            existingPet.setName("UpdatedName" + System.currentTimeMillis());
+            existingPet.setName("UpdatedName" + PetGenerator.generateRandomId());
             existingPet.setStatus("sold");
             foundPet = petApi.updatePet(existingPet);
             lastException = null;
@@ -997,13 +849,16 @@ public void verifyPetStatus(String expectedStatus) {
 
     @Given("I have added pets with different statuses")
     public void addPetsWithDifferentStatuses() {
-        // Add pets with different statuses
+        // Add pets with different statuses in one bulk call
         String[] statuses = {"available", "pending", "sold"};
+        List<Pet> pets = new ArrayList<>();
         for (String status : statuses) {
             Pet pet = PetGenerator.generateRandomPet();
             pet.setStatus(status);
-            petApi.addPet(pet);
+            pets.add(pet);
         }
+        List<BulkResult<Pet>> results = petApi.addPets(pets);
+        assertTrue(BulkResult.allSucceeded(results), "Failed to add pets: " + BulkResult.failures(results));
     }
 
     @When("I update the pet's details via form:")
@@ -1026,19 +881,8 @@ public void verifyPetStatus(String expectedStatus) {
     @When("I upload an image {string} for the pet")
     public void uploadImageForPet(String imagePath) {
         try {
-            // Get the file from resources
-            File imageFile = new File("src/test/resources/" + imagePath);
-            if (!imageFile.exists()) {
-                // Try alternative path for when running from target/test-classes
-                imageFile = new File("target/test-classes/" + imagePath);
-            }
-            
-            if (!imageFile.exists()) {
-                throw new FileNotFoundException("Image file not found: " + imagePath + ". Tried: " + 
-                    imageFile.getAbsolutePath());
-            }
-            
-            response = petApi.uploadPetImage(createdPet.getId(), imageFile, "Test image upload");
+            MultiPart image = TEST_IMAGES.computeIfAbsent(imagePath, PetAPI::mapTestImage);
+            response = petApi.uploadPetImage(createdPet.getId(), image.getBuffer(), image.getFileName(), "Test image upload");
             Assertions.assertStatusCode(response, 200);
         } catch (Exception e) {
             lastException = e;
@@ -1046,6 +890,22 @@ public void verifyPetStatus(String expectedStatus) {
         }
     }
 
+    /**
+     * Memory-maps a test image once, so later uploads of it neither look it up on disk nor read it again
+     */
+    private static MultiPart mapTestImage(String imagePath) {
+        // Get the file from resources, or from target/test-classes when running from there
+        File imageFile = new File("src/test/resources/" + imagePath);
+        if (!imageFile.exists()) {
+            imageFile = new File("target/test-classes/" + imagePath);
+        }
+        if (!imageFile.exists()) {
+            throw new UncheckedIOException(new FileNotFoundException("Image file not found: " + imagePath + ". Tried: " +
+                imageFile.getAbsolutePath()));
+        }
+        return MultiPart.mapped("file", imageFile.toPath());
+    }
+
     @When("I delete the pet")
     public void deletePet() {
         try {
@@ -1110,8 +970,8 @@ public void verifyPetStatus(String expectedStatus) {
     @When("I attempt to delete a pet with ID {string}")
     public void attemptToDeleteNonExistentPet(String petId) {
         try {
-            petApi.deletePet(Long.parseLong(petId));
-            response = null; // No response expected for successful deletion
+            response = petApi.deletePetWithResponse(Long.parseLong(petId));
+            lastException = null;
         } catch (Exception e) {
             lastException = e;
             response = null; // Ensure response is null in case of exception
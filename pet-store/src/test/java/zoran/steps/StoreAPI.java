@@ -6,9 +6,10 @@ import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
 import zoran.api.StoreApiClient;
 import zoran.models.Order;
+import zoran.utils.Assertions;
 import zoran.utils.OrderGenerator;
+import zoran.utils.TestDataSeed;
 
-import java.time.OffsetDateTime;
 import java.util.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -21,7 +22,7 @@ public class StoreAPI {
     private Order testOrder;
     private Order createdOrder;
     private Map<String, Integer> inventory;
-    private Exception lastException;
+    private Throwable lastException;
     private Order lastRetrievedOrder;
 
     @Given("I have an order with the following details:")
@@ -30,7 +31,7 @@ public class StoreAPI {
                 .id(OrderGenerator.generateRandomId())
                 .petId(Long.parseLong(dataTable.cell(1, 0)))
                 .quantity(Integer.parseInt(dataTable.cell(1, 1)))
-                .shipDate(OffsetDateTime.now().plusDays(1))
+                .shipDate(TestDataSeed.now().plusDays(1))
                 .status(dataTable.cell(1, 2))
                 .complete(Boolean.parseBoolean(dataTable.cell(1, 3)))
                 .build();
@@ -49,6 +50,12 @@ public class StoreAPI {
         assertThat(createdOrder.getStatus(), equalTo(testOrder.getStatus()));
     }
 
+    @Given("I have placed an order")
+    public void iHavePlacedAnOrder() {
+        testOrder = OrderGenerator.generateRandomOrder();
+        createdOrder = storeApi.placeOrder(testOrder);
+    }
+
     @When("I get the order by ID")
     public void getOrderById() {
         createdOrder = storeApi.getOrderById(testOrder.getId());
@@ -69,10 +76,11 @@ public class StoreAPI {
     public void verifyOrderNotFound() {
         try {
             storeApi.getOrderById(testOrder.getId());
-            throw new AssertionError("Expected order to be deleted but it was found");
-        } catch (Exception e) {
+        } catch (Exception | AssertionError e) {
             assertThat(e.getMessage(), containsString("404"));
+            return;
         }
+        throw new AssertionError("Expected order to be deleted but it was found");
     }
 
     @When("I get the store inventory")
@@ -96,21 +104,23 @@ public class StoreAPI {
 
     @Given("an order with ID {int} does not exist")
     public void anOrderWithIDDoesNotExist(int orderId) {
+        // The client checks the status with RestAssured, which fails with an AssertionError
         try {
             storeApi.deleteOrder((long) orderId);
-        } catch (Exception e) {
+        } catch (Exception | AssertionError e) {
             // Order doesn't exist, which is what we want
         }
         
         // Verify the order doesn't exist
         try {
             storeApi.getOrderById((long) orderId);
-            fail("Order with ID " + orderId + " should not exist");
-        } catch (Exception e) {
+        } catch (Exception | AssertionError e) {
             // Expected - order should not exist
             assertTrue(e.getMessage().contains("Order not found") || 
                       e.getMessage().contains("404"));
+            return;
         }
+        fail("Order with ID " + orderId + " should not exist");
     }
 
     @When("I attempt to retrieve the order with ID {int}")
@@ -118,7 +128,7 @@ public class StoreAPI {
         try {
             lastRetrievedOrder = storeApi.getOrderById((long) orderId);
             lastException = null;
-        } catch (Exception e) {
+        } catch (Exception | AssertionError e) {
             lastRetrievedOrder = null;
             lastException = e;
         }
@@ -129,8 +139,18 @@ public class StoreAPI {
         try {
             storeApi.deleteOrder((long) orderId);
             lastException = null;
-        } catch (Exception e) {
+        } catch (Exception | AssertionError e) {
             lastException = e;
         }
     }
+
+    @Then("I should receive a {int} Not Found error for order")
+    public void iShouldReceiveANotFoundErrorForOrder(int statusCode) {
+        if (lastRetrievedOrder != null) {
+            throw new AssertionError("Expected a " + statusCode + " Not Found error but got a valid order: " + lastRetrievedOrder);
+        }
+        
+        Assertions.verifyNotFoundError(statusCode, lastException);
+        lastException = null; // Reset after verification
+    }
 }
@@ -3,6 +3,7 @@ package zoran.steps;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
+import zoran.api.BaseApiClient;
 import zoran.api.UserApiClient;
 import zoran.models.User;
 import zoran.utils.UserGenerator;
@@ -111,6 +112,7 @@ public class UserAPI {
         User user2 = UserGenerator.generateRandomUser();
         
         userApi.createUsersWithList(Arrays.asList(user1, user2));
+        createdUsers.addAll(Arrays.asList(user1, user2));
         testUser = user1; // Set the first user as the test user
     }
 
@@ -159,13 +161,6 @@ public class UserAPI {
         }
     }
 
-    @Given("I have placed an order")
-    public void iHavePlacedAnOrder() {
-        // This step assumes the order creation is handled in the StoreManagementAPI
-        // and is just a placeholder to indicate an order exists in the context
-        // The actual order creation should be done in the StoreManagementAPI steps
-    }
-
     @Given("a user with username {string} does not exist")
     public void aUserWithUsernameDoesNotExist(String username) {
         try {
@@ -173,8 +168,8 @@ public class UserAPI {
             userApi.deleteUser(username);
             System.out.println("Deleted user " + username + " to ensure it doesn't exist");
             
-            // Give the API a moment to process the deletion
-            Thread.sleep(1000);
+            // Wait until the store stops serving the user
+            BaseApiClient.join(userApi.awaitUserAbsent(username));
         } catch (Exception e) {
             // User doesn't exist, which is what we want
             System.out.println("No need to delete user " + username + ": " + e.getMessage());
@@ -0,0 +1,86 @@
+package zoran.stub;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyModelTest {
+    private static final long MS = 1_000_000;
+    private static final int DRAWS = 20_000;
+
+    @Test
+    void fixedAndNoneAlwaysGiveTheSameDelay() {
+        SplittableRandom random = new SplittableRandom(1);
+
+        assertEquals(0, LatencyModel.none().sampleNanos(random));
+        assertEquals(20 * MS, LatencyModel.fixed(Duration.ofMillis(20)).sampleNanos(random));
+    }
+
+    @Test
+    void normalDrawsCenterOnTheMeanAndAreNeverNegative() {
+        long[] around50 = draws(LatencyModel.normal(Duration.ofMillis(50), Duration.ofMillis(10)), 7);
+        double mean = Arrays.stream(around50).average().orElseThrow();
+        assertEquals(50 * MS, mean, 1 * MS);
+
+        long[] aroundZero = draws(LatencyModel.normal(Duration.ZERO, Duration.ofMillis(10)), 7);
+        assertTrue(Arrays.stream(aroundZero).allMatch(nanos -> nanos >= 0));
+        assertTrue(Arrays.stream(aroundZero).filter(nanos -> nanos == 0).count() > DRAWS / 3, "half the draws are cut to zero");
+    }
+
+    @Test
+    void paretoDrawsStayBetweenTheScaleAndTheCap() {
+        long[] sorted = draws(LatencyModel.pareto(Duration.ofMillis(10), 1.5, Duration.ofMillis(500)), 7);
+        Arrays.sort(sorted);
+
+        assertTrue(sorted[0] >= 10 * MS, "min " + sorted[0]);
+        assertEquals(500 * MS, sorted[DRAWS - 1], "the tail is capped");
+        // Median of a Pareto distribution is scale * 2^(1/shape), about 15.9 ms here
+        assertEquals(10 * MS * Math.pow(2, 1 / 1.5), sorted[DRAWS / 2], 0.5 * MS);
+        assertThrows(IllegalArgumentException.class,
+                () -> LatencyModel.pareto(Duration.ofMillis(10), 0, Duration.ofMillis(500)));
+    }
+
+    @Test
+    void theSameSeedGivesTheSameDraws() {
+        LatencyModel model = LatencyModel.pareto(Duration.ofMillis(5), 1.16, Duration.ofSeconds(2));
+
+        assertArrayEquals(draws(model, 42), draws(model, 42));
+    }
+
+    @Test
+    void parsesTheSettingsForm() {
+        SplittableRandom random = new SplittableRandom(3);
+
+        assertEquals(0, LatencyModel.parse("none").sampleNanos(random));
+        assertEquals(0, LatencyModel.parse(" ").sampleNanos(random));
+        assertEquals(20 * MS, LatencyModel.parse("fixed:20").sampleNanos(random));
+        assertEquals(MS / 2, LatencyModel.parse(" Fixed: 0.5 ").sampleNanos(random));
+        assertEquals(50 * MS, LatencyModel.parse("normal:50,0").sampleNanos(random));
+        long pareto = LatencyModel.parse("pareto:10,1.5,2000").sampleNanos(random);
+        assertTrue(pareto >= 10 * MS && pareto <= 2_000 * MS, "pareto draw " + pareto);
+    }
+
+    @Test
+    void rejectsUnknownOrIncompleteModels() {
+        assertThrows(IllegalArgumentException.class, () -> LatencyModel.parse("uniform:1,2"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyModel.parse("normal:50"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyModel.parse("fixed:fast"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyModel.parse("pareto:10,0,2000"));
+    }
+
+    private static long[] draws(LatencyModel model, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] draws = new long[DRAWS];
+        for (int i = 0; i < DRAWS; i++) {
+            draws[i] = model.sampleNanos(random);
+        }
+        return draws;
+    }
+}
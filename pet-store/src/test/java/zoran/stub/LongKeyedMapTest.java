@@ -0,0 +1,237 @@
+package zoran.stub;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongKeyedMapTest {
+    /** Segment is picked by the top 6 bits of the hash, the slot in a new 16-slot table by the low 4 */
+    private static final int SEGMENT_SHIFT = 58;
+    private static final int INITIAL_MASK = 15;
+
+    @Test
+    void removeThenGet() {
+        LongKeyedMap<String> map = new LongKeyedMap<>();
+        map.put(7, "seven");
+
+        assertEquals("seven", map.remove(7));
+        assertNull(map.get(7));
+        assertFalse(map.containsKey(7));
+        assertNull(map.remove(7));
+        assertEquals(0, map.size());
+
+        map.put(7, "again");
+        assertEquals("again", map.get(7));
+    }
+
+    @Test
+    void deleteInsideAProbeRunThatWrapsAroundTheTable() {
+        // Three keys whose home is the last slot fill slots 15, 0 and 1; one whose home is slot 0 lands in 2
+        long[] homeLast = keysInSegmentZero(INITIAL_MASK, 3);
+        long homeFirst = keysInSegmentZero(0, 1)[0];
+        LongKeyedMap<Long> map = new LongKeyedMap<>();
+        for (long key : homeLast) {
+            map.put(key, key);
+        }
+        map.put(homeFirst, homeFirst);
+
+        // Deleting at the end of the table has to shift entries back across the wrap
+        assertEquals(homeLast[0], map.remove(homeLast[0]));
+
+        assertNull(map.get(homeLast[0]));
+        assertEquals(homeLast[1], map.get(homeLast[1]));
+        assertEquals(homeLast[2], map.get(homeLast[2]));
+        assertEquals(homeFirst, map.get(homeFirst));
+        assertEquals(3, map.size());
+
+        // And deleting inside the run, after the wrap
+        assertEquals(homeLast[2], map.remove(homeLast[2]));
+        assertEquals(homeLast[1], map.get(homeLast[1]));
+        assertEquals(homeFirst, map.get(homeFirst));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void growsAcrossResizes() {
+        LongKeyedMap<Long> map = new LongKeyedMap<>();
+        // All in one segment, so its table doubles from 16 several times
+        long[] crowded = keysInSegmentZero(-1, 200);
+        for (long key : crowded) {
+            map.put(key, key * 2);
+        }
+        long[] spread = LongStream.range(10_000_000, 10_020_000).toArray();
+        for (long key : spread) {
+            map.put(key, key * 2);
+        }
+
+        assertEquals(crowded.length + spread.length, map.size());
+        for (long key : crowded) {
+            assertEquals(key * 2, map.get(key));
+        }
+        for (long key : spread) {
+            assertEquals(key * 2, map.get(key));
+        }
+        assertEquals(map.size(), map.keys().length);
+    }
+
+    @Test
+    void keysAndSizeWhileEntriesAreWritten() throws InterruptedException {
+        LongKeyedMap<Long> map = new LongKeyedMap<>();
+        long[] stable = LongStream.range(1_000_000, 1_001_000).toArray();
+        for (long key : stable) {
+            map.put(key, key);
+        }
+        int writers = 4;
+        int perWriter = 20_000;
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ConcurrentLinkedQueue<String> problems = new ConcurrentLinkedQueue<>();
+
+        Thread reader = new Thread(() -> {
+            Set<Long> stableKeys = new HashSet<>();
+            for (long key : stable) {
+                stableKeys.add(key);
+            }
+            while (writing.get()) {
+                int size = map.size();
+                if (size < stable.length || size > stable.length + writers * perWriter) {
+                    problems.add("size " + size);
+                }
+                long[] keys = map.keys();
+                Set<Long> seen = new HashSet<>();
+                for (long key : keys) {
+                    if (!seen.add(key)) {
+                        problems.add("duplicate key " + key);
+                    }
+                    if (key >= writers * perWriter && !stableKeys.contains(key)) {
+                        problems.add("key never written " + key);
+                    }
+                }
+                if (!seen.containsAll(stableKeys)) {
+                    problems.add("stable key missing from keys()");
+                }
+            }
+        });
+        reader.start();
+        runConcurrently(writers, writer -> {
+            for (long key = (long) writer * perWriter; key < (long) (writer + 1) * perWriter; key++) {
+                map.put(key, key);
+                if (key % 3 == 0) {
+                    map.remove(key);
+                }
+            }
+        });
+        writing.set(false);
+        reader.join();
+
+        assertTrue(problems.isEmpty(), () -> problems.size() + " problems, e.g. " + problems.peek());
+        long expected = stable.length + LongStream.range(0, (long) writers * perWriter).filter(key -> key % 3 != 0).count();
+        assertEquals(expected, map.size());
+        assertEquals(expected, map.keys().length);
+    }
+
+    @Test
+    void concurrentPutAndRemoveOnOneSegment() throws InterruptedException {
+        LongKeyedMap<Long> map = new LongKeyedMap<>();
+        int threads = 4;
+        long[] keys = keysInSegmentZero(-1, threads * 50 + 100);
+        long[] stable = new long[100];
+        System.arraycopy(keys, threads * 50, stable, 0, stable.length);
+        for (long key : stable) {
+            map.put(key, -key);
+        }
+        ConcurrentLinkedQueue<String> problems = new ConcurrentLinkedQueue<>();
+
+        runConcurrently(threads + 1, thread -> {
+            for (int round = 0; round < 200; round++) {
+                if (thread == threads) {
+                    // Entries nobody writes stay visible while others shift and resize around them
+                    for (long key : stable) {
+                        if (!Long.valueOf(-key).equals(map.get(key))) {
+                            problems.add("lost stable key " + key);
+                        }
+                    }
+                    continue;
+                }
+                for (int i = thread * 50; i < (thread + 1) * 50; i++) {
+                    long key = keys[i];
+                    map.put(key, key + round);
+                    if (!Long.valueOf(key + round).equals(map.get(key))) {
+                        problems.add("missed own put of " + key);
+                    }
+                }
+                for (int i = thread * 50; i < (thread + 1) * 50; i++) {
+                    long key = keys[i];
+                    if (!Long.valueOf(key + round).equals(map.remove(key)) || map.get(key) != null) {
+                        problems.add("bad remove of " + key);
+                    }
+                }
+            }
+        });
+
+        assertTrue(problems.isEmpty(), () -> problems.size() + " problems, e.g. " + problems.peek());
+        assertEquals(stable.length, map.size());
+        long[] remaining = map.keys();
+        Arrays.sort(remaining);
+        long[] expected = stable.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, remaining);
+    }
+
+    /**
+     * @param homeSlot Slot in a new segment table the keys must hash to, or -1 for any
+     * @return Keys that all land in segment 0
+     */
+    private static long[] keysInSegmentZero(int homeSlot, int count) {
+        long[] keys = new long[count];
+        int found = 0;
+        for (long key = 1; found < count; key++) {
+            long hash = LongKeyedMap.mix(key);
+            if (hash >>> SEGMENT_SHIFT == 0 && (homeSlot < 0 || ((int) hash & INITIAL_MASK) == homeSlot)) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+
+    private interface Worker {
+        void run(int index);
+    }
+
+    private static void runConcurrently(int threads, Worker worker) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> started = new ArrayList<>();
+        ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < threads; i++) {
+            int index = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    worker.run(index);
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            });
+            thread.start();
+            started.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : started) {
+            thread.join();
+        }
+        assertTrue(errors.isEmpty(), () -> "worker failed: " + errors.peek());
+    }
+}
@@ -0,0 +1,111 @@
+package zoran.stub;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import zoran.models.Pet;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplicatedStoreTest {
+    private final ReplicatedStore store = new ReplicatedStore();
+
+    @AfterEach
+    void close() {
+        store.close();
+    }
+
+    @Test
+    void withoutALagReadsSeeWritesAtOnce() {
+        save(pet(1, "available"));
+
+        assertSame(store.primary(), store.reads());
+        assertEquals("available", store.reads().pet(1).getStatus());
+    }
+
+    @Test
+    void withALagReadsTrailWrites() {
+        store.setLag(Duration.ofMillis(150));
+        long start = System.nanoTime();
+
+        Pet saved = store.write(primary -> {
+            primary.savePet(pet(1, "available"));
+            return primary.pet(1);
+        });
+
+        assertNotNull(saved, "the write is answered from the primary");
+        assertNotNull(store.primary().pet(1));
+        assertNull(store.reads().pet(1));
+        awaitTrue(() -> store.reads().pet(1) != null);
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(150).toNanos());
+        assertEquals(1L, store.reads().inventory().get("available"), "the replica keeps its own inventory");
+    }
+
+    @Test
+    void replaysWritesInTheOrderTheyHitThePrimary() {
+        store.setLag(Duration.ofMillis(50));
+
+        save(pet(1, "available"));
+        store.write(primary -> primary.updatePet(1, pet -> pet(1, "pending")));
+        store.write(primary -> primary.updatePet(1, pet -> pet(1, "sold")));
+        save(pet(2, "available"));
+        store.write(primary -> primary.removePet(2));
+        save(pet(3, "pending"));
+
+        // Once the last write shows, every earlier one has been replayed
+        awaitTrue(() -> store.reads().pet(3) != null);
+        assertEquals("sold", store.reads().pet(1).getStatus());
+        assertNull(store.reads().pet(2));
+        assertEquals(List.of(1L), store.reads().petsByStatus(List.of("sold")).stream().map(Pet::getId).toList());
+        assertEquals(List.of(3L), store.reads().petsByStatus(List.of("available", "pending")).stream().map(Pet::getId).toList());
+    }
+
+    @Test
+    void turningTheLagOnStartsTheReplicaFromThePrimary() {
+        save(pet(1, "available"));
+
+        store.setLag(Duration.ofMillis(50));
+
+        assertTrue(store.reads() != store.primary());
+        assertEquals("available", store.reads().pet(1).getStatus());
+    }
+
+    @Test
+    void turningTheLagOffSendsReadsBackToThePrimary() {
+        store.setLag(Duration.ofSeconds(10));
+        save(pet(1, "available"));
+        assertNull(store.reads().pet(1));
+
+        store.setLag(Duration.ZERO);
+
+        assertSame(store.primary(), store.reads());
+        assertNotNull(store.reads().pet(1));
+    }
+
+    private void save(Pet pet) {
+        store.write(primary -> {
+            primary.savePet(pet);
+            return null;
+        });
+    }
+
+    private static Pet pet(long id, String status) {
+        return Pet.builder().id(id).name("Pet " + id).status(status).build();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5 s");
+            LockSupport.parkNanos(Duration.ofMillis(2).toNanos());
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package zoran.stub;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import zoran.config.Config;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StubProfileTest {
+    private static final long MS = 1_000_000;
+
+    private static PetStoreStub stub;
+    /** Sends requests as they are, without the API clients' retries */
+    private static HttpClient http;
+
+    @BeforeAll
+    static void startStub() {
+        stub = PetStoreStub.start();
+        http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterEach
+    void healStub() {
+        stub.setProfile(StubProfile.NONE);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void readsTheStubSettings() {
+        StubProfile profile = StubProfile.fromConfig(config(Map.of(
+                "api.stub.latency", "fixed:20",
+                "api.stub.error.rate", "0.1",
+                "api.stub.error.statuses", "502, 504",
+                "api.stub.reset.rate", "0.01",
+                "api.stub.slow.body.rate", "0.2",
+                "api.stub.slow.body.bytes.per.second", "512",
+                "api.stub.replication.lag.ms", "250",
+                "api.stub.seed", "7")));
+
+        assertEquals(20 * MS, profile.getLatency().sampleNanos(new SplittableRandom(1)));
+        assertEquals(0.1, profile.getErrorRate());
+        assertEquals(List.of(502, 504), profile.getErrorStatuses());
+        assertEquals(0.01, profile.getResetRate());
+        assertEquals(0.2, profile.getSlowBodyRate());
+        assertEquals(512, profile.getSlowBodyBytesPerSecond());
+        assertEquals(Duration.ofMillis(250), profile.getReplicationLag());
+        assertEquals(7, profile.getSeed());
+    }
+
+    @Test
+    void defaultsToAWellBehavedStub() {
+        StubProfile profile = StubProfile.fromConfig(config(Map.of()));
+
+        assertEquals(0, profile.getLatency().sampleNanos(new SplittableRandom(1)));
+        assertEquals(0, profile.getErrorRate());
+        assertEquals(0, profile.getResetRate());
+        assertEquals(0, profile.getSlowBodyRate());
+        assertEquals(Duration.ZERO, profile.getReplicationLag());
+        assertEquals(StubProfile.NONE.getErrorStatuses(), profile.getErrorStatuses());
+        assertThrows(IllegalArgumentException.class,
+                () -> StubProfile.fromConfig(config(Map.of("api.stub.latency", "sometimes"))));
+    }
+
+    @Test
+    void theSameProfileReplaysTheSameFaults() throws Exception {
+        StubProfile flaky = StubProfile.builder().errorRate(0.5).errorStatuses(List.of(500, 503)).seed(11).build();
+
+        stub.setProfile(flaky);
+        List<Integer> first = statuses(20);
+        stub.setProfile(flaky);
+        List<Integer> second = statuses(20);
+        stub.setProfile(flaky.toBuilder().seed(12).build());
+        List<Integer> otherSeed = statuses(20);
+
+        assertEquals(first, second);
+        assertTrue(first.contains(200) && first.contains(500) && first.contains(503), first.toString());
+        assertNotEquals(first, otherSeed, "another seed draws other faults");
+    }
+
+    @Test
+    void delaysEveryResponseByTheDrawnLatency() throws Exception {
+        stub.setProfile(StubProfile.builder().latency(LatencyModel.fixed(Duration.ofMillis(60))).build());
+        long start = System.nanoTime();
+
+        assertEquals(200, send().statusCode());
+
+        assertTrue(System.nanoTime() - start >= 60 * MS);
+    }
+
+    @Test
+    void dropsConnectionsWithoutAResponse() {
+        stub.setProfile(StubProfile.builder().resetRate(1).build());
+
+        assertThrows(IOException.class, StubProfileTest::send);
+    }
+
+    @Test
+    void injectedErrorsUseTheConfiguredStatuses() throws Exception {
+        stub.setProfile(StubProfile.builder().errorRate(1).errorStatuses(List.of(429)).build());
+
+        HttpResponse<String> response = send();
+
+        assertEquals(429, response.statusCode());
+        assertTrue(response.body().contains("Injected fault"), response.body());
+    }
+
+    private static List<Integer> statuses(int requests) throws Exception {
+        List<Integer> statuses = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            statuses.add(send().statusCode());
+        }
+        return statuses;
+    }
+
+    private static HttpResponse<String> send() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(stub.getBaseUrl() + "/store/inventory"))
+                .timeout(Duration.ofSeconds(10))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static Config config(Map<String, String> settings) {
+        return new Config() {
+            @Override
+            public String get(String key, String defaultValue) {
+                return settings.getOrDefault(key, defaultValue);
+            }
+        };
+    }
+}
@@ -14,7 +14,7 @@ public class Assertions {
      * @param exception The exception to verify, or null if no exception was thrown
      * @throws AssertionError if the exception doesn't indicate a not found error
      */
-    public static void verifyNotFoundError(int statusCode, Exception exception) {
+    public static void verifyNotFoundError(int statusCode, Throwable exception) {
         String expectedStatusCode = String.valueOf(statusCode);
         
         // If no exception was thrown, but we expected one, fail the test
@@ -13,7 +13,7 @@ import java.util.UUID;
  * Utility class for generating test Pet objects with random data.
  */
 public class PetGenerator {
-    private static final Random RANDOM = new Random();
+    private static final Random RANDOM = TestDataSeed.random("test-pets");
     private static final List<String> PET_NAMES = Arrays.asList(
         "Buddy", "Max", "Bella", "Charlie", "Lucy", "Cooper", "Luna", "Rocky", "Zoe", "Bear"
     );
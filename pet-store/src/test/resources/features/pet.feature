@@ -56,7 +56,7 @@ Feature: Pet API
     Given I have added a pet to the store
     When I update the pet's details via form:
       | name   | status   |
-      | Doggie | pending  |
+      | Max    | pending  |
     Then the pet should be updated successfully
     And the pet name should be "Max"
     And the pet status should be "pending"
@@ -103,15 +103,13 @@ Feature: Pet API
     When I delete the pet
     Then the pet should be deleted successfully
     And the pet should no longer exist
+    And I should not be able to retrieve the deleted pet
 
   @regression @deletePet
   Scenario: Delete non-existent pet
     When I attempt to delete a pet with ID "999999"
     Then the response status code should be 404
     And the response should contain error message "Pet not found"
-    When I delete the pet
-    Then the pet should not be found
-    And I should not be able to retrieve the deleted pet
 
   @petManagement @regression @negative
   Scenario: Attempt to retrieve a non-existent pet
@@ -38,10 +38,10 @@ Feature: Store API
   Scenario: Attempt to retrieve a non-existent order
     Given an order with ID 999999999 does not exist
     When I attempt to retrieve the order with ID 999999999
-    Then I should receive a 404 Not Found error
+    Then I should receive a 404 Not Found error for order
 
   @regression @negative
   Scenario: Attempt to delete a non-existent order
     Given an order with ID 999999999 does not exist
     When I attempt to delete the order with ID 999999999
-    Then I should receive a 404 Not Found error
+    Then I should receive a 404 Not Found error for order